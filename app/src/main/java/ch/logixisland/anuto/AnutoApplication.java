@@ -17,6 +17,15 @@ public class AnutoApplication extends Application {
         mGameFactory = new GameFactory(getApplicationContext());
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            mGameFactory.getGameEngine().releaseUnusedSprites();
+        }
+    }
+
     public static AnutoApplication getInstance() {
         return sInstance;
     }
@@ -2,15 +2,35 @@ package ch.logixisland.anuto.game;
 
 import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.RectF;
 import android.util.Log;
-import android.view.View;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.entity.enemy.EnemyGlyphRenderer;
+import ch.logixisland.anuto.game.entity.enemy.EnemyStore;
+import ch.logixisland.anuto.game.entity.enemy.HealthBarRenderer;
+import ch.logixisland.anuto.game.render.Camera;
+import ch.logixisland.anuto.game.render.DetailPolicy;
 import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.CanvasBackend;
+import ch.logixisland.anuto.game.render.RenderBackend;
+import ch.logixisland.anuto.game.render.RenderBuffer;
+import ch.logixisland.anuto.game.render.SpriteFactory;
+import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.TileCompositor;
 import ch.logixisland.anuto.game.theme.ThemeManager;
+import ch.logixisland.anuto.util.Random;
 import ch.logixisland.anuto.util.container.SmartIteratorCollection;
 import ch.logixisland.anuto.util.container.SparseCollectionArray;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
@@ -18,6 +38,19 @@ import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class GameEngine implements Runnable {
 
+    /*
+    ------ Renderer Interface ------
+     */
+
+    public interface Renderer {
+        /**
+         * Called on the game thread after each tick, once the frame is recorded. The renderer
+         * draws the latest frame by {@link #draw(Canvas)} or {@link #render(RenderBackend)}
+         * whenever it is ready, the game thread does not wait for it.
+         */
+        void requestRender();
+    }
+
     /*
     ------ Constants ------
      */
@@ -26,6 +59,11 @@ public class GameEngine implements Runnable {
     private final static int TARGET_FRAME_PERIOD_MS = 1000 / TARGET_FRAME_RATE;
     private final static int TICKS_100MS = Math.round(TARGET_FRAME_RATE * 0.1f);
 
+    // sprites are decoded for the zoom rounded up to one of these steps, so a pinch only rescales
+    // them when it crosses a step, and only once the zoom has rested for a while
+    private final static float[] ZOOM_STEPS = {1f, 2f, Camera.MAX_ZOOM};
+    private final static int RESCALE_DELAY_MS = 300;
+
     private final static String TAG = GameEngine.class.getSimpleName();
 
     /*
@@ -33,7 +71,8 @@ public class GameEngine implements Runnable {
      */
 
     private final ThemeManager mThemeManager;
-    private WeakReference<View> mViewRef;
+    private final SpriteFactory mSpriteFactory;
+    private volatile WeakReference<Renderer> mRendererRef = new WeakReference<>(null);
 
     private Thread mGameThread;
     private volatile boolean mRunning = false;
@@ -45,31 +84,78 @@ public class GameEngine implements Runnable {
     private final SparseCollectionArray<Drawable> mDrawables = new SparseCollectionArray<>();
     private final HashMap<Class<? extends Entity>, Object> mStaticData = new HashMap<>();
     private final SmartIteratorCollection<Runnable> mRunnables = new SmartIteratorCollection<>();
+    private final EnemyStore mEnemyStore = new EnemyStore();
+    private final Object mDrawLock = new Object();
+    private final Object mFrameLock = new Object();
+
+    // the game thread records into one buffer while the renderer draws another, the third holds
+    // the latest recorded frame until the renderer takes it
+    private RenderBuffer mRecordBuffer = new RenderBuffer();
+    private RenderBuffer mReadyBuffer = new RenderBuffer();
+    private RenderBuffer mDrawBuffer = new RenderBuffer();
+    private boolean mFrameReady;
+    private final CanvasBackend mCanvasBackend = new CanvasBackend();
+    private TileCompositor mTileCompositor;
 
     private final Vector2 mGameSize = new Vector2(10, 10);
-    private final Vector2 mScreenSize = new Vector2(100, 100);
-    private final Matrix mScreenMatrix = new Matrix();
-    private final Matrix mScreenMatrixInverse = new Matrix();
+    private boolean mScreenSizeKnown = false;
+    private final Camera mCamera = new Camera();
+    private final RectF mViewport = new RectF();
+    private final Matrix mDrawMatrix = new Matrix();
+    private final DetailPolicy mDetailPolicy = new DetailPolicy(TARGET_FRAME_PERIOD_MS);
+
+    private final ScheduledExecutorService mRescaleExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger mTileSizeRequest = new AtomicInteger();
+    private volatile float mRequestedTileSize;
+
+    private long mSeed = System.nanoTime();
+    private Random mRandom = new Random(mSeed);
+    private boolean mSeedGiven;
+    private boolean mSeedFixed;
+    private long mFixedSeed;
 
     /*
     ------ Constructors ------
      */
 
-    GameEngine(ThemeManager themeManager) {
+    GameEngine(ThemeManager themeManager, SpriteFactory spriteFactory) {
         mThemeManager = themeManager;
+        mSpriteFactory = spriteFactory;
+        add(new EnemyGlyphRenderer(mEnemyStore, mDetailPolicy, themeManager));
+        add(new HealthBarRenderer(mEnemyStore, mDetailPolicy, themeManager));
     }
 
     /*
     ------ Methods ------
      */
 
-    public void setView(View view) {
-        mViewRef = new WeakReference<>(view);
+    /**
+     * Sets the renderer new frames are announced to, null stops recording frames.
+     */
+    public void setRenderer(Renderer renderer) {
+        mRendererRef = new WeakReference<>(renderer);
+    }
+
+
+    public boolean tick100ms(Entity caller) {
+        return (mTickCount + caller.getTickPhase()) % TICKS_100MS == 0;
     }
 
+    /**
+     * Returns the number of ticks since the game was cleared.
+     */
+    public long getTickCount() {
+        synchronized (mEntities) {
+            return mTickCount;
+        }
+    }
 
-    public boolean tick100ms(Object caller) {
-        return (mTickCount + System.identityHashCode(caller)) % TICKS_100MS == 0;
+    /**
+     * Returns the lock held while the game ticks. Input applied while holding it lands between two
+     * ticks, so it is applied at the same tick when the game is replayed.
+     */
+    public Object getTickLock() {
+        return mEntities;
     }
 
 
@@ -114,10 +200,107 @@ public class GameEngine implements Runnable {
 
             mRunnables.clear();
             mStaticData.clear();
+            mEnemyStore.clear();
+            mDetailPolicy.reset();
+            mTickCount = 0;
+        }
+
+        // every game gets a seed of its own unless one was given for it
+        synchronized (this) {
+            if (!mSeedGiven) {
+                mSeed = mSeedFixed ? mFixedSeed : System.nanoTime();
+            }
+
+            mSeedGiven = false;
+            mRandom = new Random(mSeed);
+        }
+
+        // the recorded frames may reference sheets that are evicted once the templates are released
+        synchronized (mDrawables) {
+            clearFrames();
+            mSpriteFactory.releaseTemplates();
         }
     }
 
 
+    public synchronized long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * Restarts the game generator from the given seed, which is kept by the next {@link #clear()}
+     * so it applies to the game started next. The same seed and the same input give the same game,
+     * as all gameplay randomness is split from this generator.
+     */
+    public synchronized void setSeed(long seed) {
+        mSeed = seed;
+        mRandom = new Random(seed);
+        mSeedGiven = true;
+    }
+
+    /**
+     * Like {@link #setSeed(long)}, but every game started from now on uses the given seed instead
+     * of a fresh one.
+     */
+    public synchronized void setFixedSeed(long seed) {
+        setSeed(seed);
+        mSeedFixed = true;
+        mFixedSeed = seed;
+    }
+
+    public synchronized Random splitRandom() {
+        return mRandom.split();
+    }
+
+    /**
+     * Writes the seed, the game generator and the tick count, which continue a restored game in
+     * the same way as the original one.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        synchronized (mEntities) {
+            synchronized (this) {
+                out.writeLong(mSeed);
+                mRandom.write(out);
+            }
+
+            out.writeLong(mTickCount);
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        synchronized (mEntities) {
+            synchronized (this) {
+                mSeed = in.readLong();
+                mRandom = Random.read(in);
+            }
+
+            mTickCount = in.readLong();
+        }
+    }
+
+    public EnemyStore getEnemyStore() {
+        return mEnemyStore;
+    }
+
+    /**
+     * Sets the compositor that draws frames on several threads, or null to always draw on the
+     * render thread. The previous compositor is shut down.
+     */
+    public void setTileCompositor(TileCompositor compositor) {
+        synchronized (mDrawLock) {
+            if (mTileCompositor != null) {
+                mTileCompositor.shutdown();
+            }
+
+            mTileCompositor = compositor;
+        }
+    }
+
+    public CanvasBackend getCanvasBackend() {
+        return mCanvasBackend;
+    }
+
+
     public Object getStaticData(Entity obj) {
         if (!mStaticData.containsKey(obj.getClass())) {
             mStaticData.put(obj.getClass(), obj.initStatic());
@@ -146,17 +329,27 @@ public class GameEngine implements Runnable {
 
     public void setGameSize(int width, int height) {
         mGameSize.set(width, height);
-        calcScreenMatrix();
+        mCamera.setGameSize(width, height);
+        updateTileSize(0);
     }
 
     public void setScreenSize(int width, int height) {
-        mScreenSize.set(width, height);
-        calcScreenMatrix();
+        mCamera.setScreenSize(width, height);
+        mScreenSizeKnown = true;
+        updateTileSize(0);
+    }
+
+    public DetailPolicy getDetailPolicy() {
+        return mDetailPolicy;
+    }
+
+    public Camera getCamera() {
+        return mCamera;
     }
 
     public Vector2 screenToGame(Vector2 pos) {
         float[] pts = {pos.x, pos.y};
-        mScreenMatrixInverse.mapPoints(pts);
+        mCamera.screenToGame(pts);
         return new Vector2(pts[0], pts[1]);
     }
 
@@ -165,22 +358,75 @@ public class GameEngine implements Runnable {
                 pos.x < mGameSize.x + 0.5f && pos.y < mGameSize.y + 0.5f;
     }
 
+    /**
+     * Decodes the sprites again for the current zoom of the camera, on a worker thread. The request
+     * is delayed and only the latest one is carried out if several are pending, so a pinch gesture
+     * that ends several times in a row rescales once.
+     */
+    public void updateTileSize() {
+        updateTileSize(RESCALE_DELAY_MS);
+    }
+
+    private void updateTileSize(int delayMs) {
+        if (!mScreenSizeKnown) {
+            return;
+        }
+
+        float zoom = mCamera.getZoom();
+        float zoomStep = ZOOM_STEPS[ZOOM_STEPS.length - 1];
 
-    private void calcScreenMatrix() {
-        mScreenMatrix.reset();
+        for (float step : ZOOM_STEPS) {
+            if (step >= zoom) {
+                zoomStep = step;
+                break;
+            }
+        }
 
-        float tileSize = Math.min(mScreenSize.x / mGameSize.x, mScreenSize.y / mGameSize.y);
-        mScreenMatrix.postTranslate(0.5f, 0.5f);
-        mScreenMatrix.postScale(tileSize, tileSize);
+        final float tileSize = mCamera.getTileSize() / zoom * zoomStep;
 
-        float paddingLeft = (mScreenSize.x - (tileSize * mGameSize.x)) / 2f;
-        float paddingTop = (mScreenSize.y - (tileSize * mGameSize.y)) / 2f;
-        mScreenMatrix.postTranslate(paddingLeft, paddingTop);
+        // the sprites already are or are about to be decoded for this size
+        if (tileSize == mRequestedTileSize) {
+            return;
+        }
 
-        mScreenMatrix.postScale(1f, -1f);
-        mScreenMatrix.postTranslate(0, mScreenSize.y);
+        mRequestedTileSize = tileSize;
+        final int request = mTileSizeRequest.incrementAndGet();
 
-        mScreenMatrix.invert(mScreenMatrixInverse);
+        // decoding takes a while, the game goes on with the old frames until the new ones are ready
+        mRescaleExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (request != mTileSizeRequest.get()) {
+                    return;
+                }
+
+                SpriteFactory.Rescale rescale = mSpriteFactory.prepareTileSize(tileSize);
+
+                if (request != mTileSizeRequest.get()) {
+                    mSpriteFactory.cancelTileSize(rescale);
+                    return;
+                }
+
+                // templates get new frames, the recorded frames must not be drawn with the old ones
+                synchronized (mDrawables) {
+                    clearFrames();
+                    mSpriteFactory.applyTileSize(rescale);
+                    mSpriteFactory.recycleEvicted();
+                }
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Frees the atlas pages of sprite sheets no template uses anymore. Called when the app is no
+     * longer visible, the next game decodes them again.
+     */
+    public void releaseUnusedSprites() {
+        // released templates were dropped from the recorded frame by clear() or updateTileSize()
+        synchronized (mDrawables) {
+            mSpriteFactory.evictUnused();
+            mSpriteFactory.recycleEvicted();
+        }
     }
 
     /*
@@ -193,26 +439,18 @@ public class GameEngine implements Runnable {
             while (mRunning) {
                 long timeTickBegin = System.currentTimeMillis();
 
-                synchronized (mEntities) {
-                    for (Runnable r : mRunnables) {
-                        r.run();
-                    }
-                }
-
-                synchronized (mEntities) {
-                    for (Entity obj : mEntities) {
-                        obj.tick();
-                    }
-                }
+                tick();
 
                 long timeRenderBegin = System.currentTimeMillis();
 
-                View view = mViewRef.get();
-                if (view != null) {
+                Renderer renderer = mRendererRef.get();
+                if (renderer != null) {
                     synchronized (mDrawables) {
-                        mViewRef.get().postInvalidate();
-                        mDrawables.wait();
+                        record();
                     }
+
+                    publishFrame();
+                    renderer.requestRender();
                 }
 
                 long timeFinished = System.currentTimeMillis();
@@ -228,15 +466,17 @@ public class GameEngine implements Runnable {
                     mMaxRenderTime = renderTime;
                 }
 
+                mDetailPolicy.update(mEnemyStore.size(), tickTime + renderTime);
+
                 if (mTickCount % (TARGET_FRAME_RATE * 5) == 0) {
-                    Log.d(TAG, String.format("TT=%d ms, RT=%d ms", mMaxTickTime, mMaxRenderTime));
+                    Log.d(TAG, String.format("TT=%d ms, RT=%d ms, FT=%.1f ms, EC=%d, BC=%d, LOD=%d", mMaxTickTime,
+                            mMaxRenderTime, mDetailPolicy.getFrameTime(), mEnemyStore.size(),
+                            mCanvasBackend.getSpriteBatch().getBatchCount(), mDetailPolicy.getLevel()));
 
                     mMaxTickTime = 0;
                     mMaxRenderTime = 0;
                 }
 
-                mTickCount++;
-
                 int sleepTime = TARGET_FRAME_PERIOD_MS - tickTime - renderTime;
 
                 if (sleepTime > 0) {
@@ -250,16 +490,132 @@ public class GameEngine implements Runnable {
         }
     }
 
+    private void tick() {
+        synchronized (mEntities) {
+            for (Runnable r : mRunnables) {
+                r.run();
+            }
+
+            mEnemyStore.tick();
+
+            for (Entity obj : mEntities) {
+                obj.tick();
+            }
+
+            mTickCount++;
+        }
+    }
+
+    /**
+     * Ticks the game once without the game loop and without waiting for the renderer, e.g. to
+     * replay a recorded game as fast as possible. If a backend is given, the frame is recorded and
+     * replayed to it.
+     */
+    public void step(RenderBackend backend) {
+        if (mRunning) {
+            throw new RuntimeException("Cannot step while the game loop is running!");
+        }
+
+        tick();
+
+        if (backend != null) {
+            synchronized (mDrawables) {
+                record();
+                mRecordBuffer.replay(backend);
+            }
+        }
+    }
+
+    private void record() {
+        mRecordBuffer.clear();
+        mSpriteFactory.recycleEvicted();
+
+        mCamera.getViewport(mViewport);
+        mRecordBuffer.setViewport(mViewport);
+
+        // the glyph renderer stands in for the enemy sprites
+        boolean enemyGlyphs = mDetailPolicy.getLevel() == DetailPolicy.LEVEL_MINIMAL;
+
+        for (Drawable obj : mDrawables) {
+            if (enemyGlyphs && obj.getLayer() == Layers.ENEMY && obj instanceof SpriteInstance) {
+                continue;
+            }
+
+            obj.draw(mRecordBuffer);
+        }
+    }
+
+    private void publishFrame() {
+        synchronized (mFrameLock) {
+            RenderBuffer ready = mReadyBuffer;
+            mReadyBuffer = mRecordBuffer;
+            mRecordBuffer = ready;
+            mFrameReady = true;
+        }
+    }
+
+    /**
+     * Returns the latest recorded frame. The caller holds the draw lock while drawing it.
+     */
+    private RenderBuffer takeFrame() {
+        synchronized (mFrameLock) {
+            if (mFrameReady) {
+                RenderBuffer draw = mDrawBuffer;
+                mDrawBuffer = mReadyBuffer;
+                mReadyBuffer = draw;
+                mFrameReady = false;
+            }
+
+            return mDrawBuffer;
+        }
+    }
+
+    /**
+     * Drops all recorded frames, waiting for the one being drawn, so the sprite sheets they
+     * reference can be released. The caller holds the drawables lock, so no frame is recorded
+     * meanwhile.
+     */
+    private void clearFrames() {
+        synchronized (mDrawLock) {
+            synchronized (mFrameLock) {
+                mRecordBuffer.clear();
+                mReadyBuffer.clear();
+                mDrawBuffer.clear();
+                mFrameReady = false;
+            }
+        }
+    }
+
     public void draw(Canvas canvas) {
-        canvas.drawColor(mThemeManager.getTheme().getBackgroundColor());
-        canvas.concat(mScreenMatrix);
+        int backgroundColor = mThemeManager.getTheme().getBackgroundColor();
 
-        synchronized (mDrawables) {
-            for (Drawable obj : mDrawables) {
-                obj.draw(canvas);
+        synchronized (mDrawLock) {
+            RenderBuffer frame = takeFrame();
+            mCamera.getScreenMatrix(mDrawMatrix);
+
+            boolean composited = mTileCompositor != null && mTileCompositor.render(canvas,
+                    canvas.getWidth(), canvas.getHeight(), frame, mDrawMatrix, backgroundColor);
+
+            if (!composited) {
+                canvas.drawColor(backgroundColor);
+                canvas.save();
+                canvas.concat(mDrawMatrix);
+
+                mCanvasBackend.begin(canvas);
+                frame.replay(mCanvasBackend);
+                mCanvasBackend.end();
+
+                canvas.restore();
             }
+        }
+    }
 
-            mDrawables.notifyAll();
+    /**
+     * Replays the last recorded frame in game coordinates to the given backend.
+     */
+    public void render(RenderBackend backend) {
+        synchronized (mDrawLock) {
+            takeFrame().replay(backend);
         }
     }
 
@@ -3,12 +3,14 @@ package ch.logixisland.anuto.game;
 import android.content.Context;
 
 import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.render.PaintPalette;
 import ch.logixisland.anuto.game.render.SpriteFactory;
 import ch.logixisland.anuto.game.theme.ThemeManager;
 
 public class GameFactory {
 
     private final SpriteFactory mSpriteFactory;
+    private final PaintPalette mPaintPalette;
     private final ThemeManager mThemeManager;
     private final GameEngine mGameEngine;
     private final GameManager mGameManager;
@@ -16,7 +18,8 @@ public class GameFactory {
     public GameFactory(Context context) {
         mThemeManager = new ThemeManager();
         mSpriteFactory = new SpriteFactory(context.getResources(), mThemeManager);
-        mGameEngine = new GameEngine(mThemeManager);
+        mPaintPalette = new PaintPalette();
+        mGameEngine = new GameEngine(mThemeManager, mSpriteFactory);
         mGameManager = new GameManager(mGameEngine);
     }
 
@@ -24,6 +27,10 @@ public class GameFactory {
         return mSpriteFactory;
     }
 
+    public PaintPalette getPaintPalette() {
+        return mPaintPalette;
+    }
+
     public ThemeManager getThemeManager() {
         return mThemeManager;
     }
@@ -0,0 +1,203 @@
+package ch.logixisland.anuto.game;
+
+import android.content.res.AssetManager;
+import android.os.Handler;
+import android.util.Log;
+
+import java.io.InputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.logixisland.anuto.game.data.EnemyConfig;
+import ch.logixisland.anuto.game.data.Level;
+import ch.logixisland.anuto.game.data.PlateauDescriptor;
+import ch.logixisland.anuto.game.data.TowerConfig;
+import ch.logixisland.anuto.game.entity.EntityRegistry;
+import ch.logixisland.anuto.game.render.BitmapCache;
+import ch.logixisland.anuto.game.render.SpriteFactory;
+import ch.logixisland.anuto.game.render.SpriteSheet;
+
+/**
+ * Reads a binary level asset and decodes all sprite sheets its entities need on background
+ * threads. Progress and the result are reported on the thread that created the loader.
+ */
+public class LevelLoader {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = LevelLoader.class.getSimpleName();
+
+    /*
+    ------ Listener Interface ------
+     */
+
+    public interface Listener {
+        void onLoadProgress(LevelLoader loader, int done, int total);
+        void onLoadFinished(LevelLoader loader, Level level);
+        void onLoadFailed(LevelLoader loader, Exception e);
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final AssetManager mAssets;
+    private final SpriteFactory mSpriteFactory;
+    private final Handler mHandler = new Handler();
+
+    private ExecutorService mExecutor;
+    private Listener mListener;
+    private volatile boolean mCancelled;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public LevelLoader(AssetManager assets, SpriteFactory spriteFactory) {
+        mAssets = assets;
+        mSpriteFactory = spriteFactory;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public void load(final String assetName, Listener listener) {
+        mListener = listener;
+        mCancelled = false;
+        mExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadLevel(assetName);
+            }
+        });
+    }
+
+    public void cancel() {
+        mCancelled = true;
+
+        if (mExecutor != null) {
+            mExecutor.shutdownNow();
+        }
+    }
+
+    private void loadLevel(String assetName) {
+        final long timeStart = System.nanoTime();
+        final Level level;
+
+        try (InputStream inStream = mAssets.open(assetName)) {
+            level = Level.read(inStream);
+        } catch (Exception e) {
+            onFailed(e);
+            return;
+        }
+
+        Set<SpriteSheet> sheets = getSpriteSheets(level);
+        final int total = sheets.size() + 1;
+        final AtomicInteger done = new AtomicInteger(1);
+
+        Log.d(TAG, String.format("read %s in %d ms, preloading %d sprite sheets", assetName,
+                (System.nanoTime() - timeStart) / 1000000, sheets.size()));
+        onProgress(done.get(), total);
+
+        for (final SpriteSheet sheet : sheets) {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (mCancelled) {
+                        return;
+                    }
+
+                    try {
+                        mSpriteFactory.preload(sheet);
+                    } catch (RuntimeException e) {
+                        onFailed(e);
+                        return;
+                    }
+
+                    int count = done.incrementAndGet();
+                    onProgress(count, total);
+
+                    if (count == total) {
+                        BitmapCache cache = mSpriteFactory.getCache();
+                        Log.d(TAG, String.format("level loaded in %d ms, sprite sheets hold %d kB, %d kB saved by low-memory configs",
+                                (System.nanoTime() - timeStart) / 1000000, cache.getBytesHeld() / 1024, cache.getBytesSaved() / 1024));
+                        onFinished(level);
+                    }
+                }
+            });
+        }
+
+        if (sheets.isEmpty()) {
+            onFinished(level);
+        }
+
+        mExecutor.shutdown();
+    }
+
+    private Set<SpriteSheet> getSpriteSheets(Level level) {
+        Set<SpriteSheet> sheets = new LinkedHashSet<>();
+
+        for (TowerConfig config : level.getTowerConfigs()) {
+            sheets.addAll(EntityRegistry.getFactory(config.getTowerClass()).getSpriteSheets());
+        }
+
+        for (EnemyConfig config : level.getEnemyConfigs()) {
+            sheets.addAll(EntityRegistry.getFactory(config.getEnemyClass()).getSpriteSheets());
+        }
+
+        for (PlateauDescriptor descriptor : level.getPlateaus()) {
+            sheets.addAll(EntityRegistry.getFactory(descriptor.getPlateauClass()).getSpriteSheets());
+        }
+
+        return sheets;
+    }
+
+    /*
+    ------ Listener Stuff ------
+     */
+
+    private void onProgress(final int done, final int total) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!mCancelled) {
+                    mListener.onLoadProgress(LevelLoader.this, done, total);
+                }
+            }
+        });
+    }
+
+    private void onFinished(final Level level) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!mCancelled) {
+                    mListener.onLoadFinished(LevelLoader.this, level);
+                }
+            }
+        });
+    }
+
+    private void onFailed(final Exception e) {
+        if (mCancelled) {
+            return;
+        }
+
+        mCancelled = true;
+
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mListener.onLoadFailed(LevelLoader.this, e);
+            }
+        });
+    }
+}
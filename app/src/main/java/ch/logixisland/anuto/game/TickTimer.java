@@ -1,5 +1,9 @@
 package ch.logixisland.anuto.game;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public class TickTimer {
 
     public static TickTimer createInterval(float interval) {
@@ -46,4 +50,14 @@ public class TickTimer {
     public void reset() {
         mValue = mReloadValue;
     }
+
+    public void writeState(DataOutput out) throws IOException {
+        out.writeFloat(mReloadValue);
+        out.writeFloat(mValue);
+    }
+
+    public void readState(DataInput in) throws IOException {
+        mReloadValue = in.readFloat();
+        mValue = in.readFloat();
+    }
 }
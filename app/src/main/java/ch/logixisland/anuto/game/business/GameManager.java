@@ -2,6 +2,9 @@ package ch.logixisland.anuto.game.business;
 
 import android.util.Log;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -12,11 +15,16 @@ import ch.logixisland.anuto.game.data.EnemyDescriptor;
 import ch.logixisland.anuto.game.data.Level;
 import ch.logixisland.anuto.game.data.PlateauDescriptor;
 import ch.logixisland.anuto.game.data.Settings;
+import ch.logixisland.anuto.game.data.TowerConfig;
 import ch.logixisland.anuto.game.data.Wave;
 import ch.logixisland.anuto.game.entity.Types;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.plateau.Plateau;
+import ch.logixisland.anuto.game.entity.tower.AimingTower;
 import ch.logixisland.anuto.game.entity.tower.Tower;
+import ch.logixisland.anuto.game.replay.Replay;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.container.ListenerList;
 import ch.logixisland.anuto.util.math.MathUtils;
 
@@ -80,6 +88,33 @@ public class GameManager {
         void onTowersAged();
     }
 
+    /*
+    ------ NextWaveTimer Class ------
+     */
+
+    private class NextWaveTimer implements Runnable {
+        private final WaveManager mWaveManager;
+        private final TickTimer mTimer;
+
+        public NextWaveTimer(WaveManager waveManager, TickTimer timer) {
+            mWaveManager = waveManager;
+            mTimer = timer;
+        }
+
+        @Override
+        public void run() {
+            if (mTimer.tick()) {
+                if (getCurrentWaveManager() == mWaveManager && !mNextWaveReady && hasNextWave()) {
+                    onNextWaveReady();
+                    mNextWaveReady = true;
+                }
+
+                mGameEngine.remove(this);
+                mNextWaveTimers.remove(this);
+            }
+        }
+    }
+
     /*
     ------ Members ------
      */
@@ -87,6 +122,10 @@ public class GameManager {
     private final GameEngine mGameEngine;
     private Level mLevel;
     private Tower mSelectedTower;
+    private final List<Plateau> mPlateaus = new ArrayList<>();
+
+    private String mRecordingLevelName;
+    private Replay mRecording;
 
     private int mNextWaveIndex;
 
@@ -100,6 +139,8 @@ public class GameManager {
     private volatile boolean mNextWaveReady;
 
     private List<WaveManager> mActiveWaves = new CopyOnWriteArrayList<>();
+    private List<WaveManager> mWaveManagers = new CopyOnWriteArrayList<>();
+    private List<NextWaveTimer> mNextWaveTimers = new CopyOnWriteArrayList<>();
 
     private ListenerList<Listener> mListeners = new ListenerList<>();
 
@@ -109,25 +150,13 @@ public class GameManager {
 
     private WaveManager.Listener mWaveListener = new WaveManager.Listener() {
         @Override
-        public void onStarted(final WaveManager m) {
+        public void onStarted(WaveManager m) {
             mActiveWaves.add(m);
             calcEarlyBonus();
 
-            mGameEngine.add(new Runnable() {
-                private final TickTimer mTimer = TickTimer.createInterval(m.getWave().getNextWaveDelay());
-
-                @Override
-                public void run() {
-                    if (mTimer.tick()) {
-                        if (getCurrentWaveManager() == m && !mNextWaveReady && hasNextWave()) {
-                            onNextWaveReady();
-                            mNextWaveReady = true;
-                        }
-
-                        mGameEngine.remove(this);
-                    }
-                }
-            });
+            NextWaveTimer timer = new NextWaveTimer(m, TickTimer.createInterval(m.getWave().getNextWaveDelay()));
+            mNextWaveTimers.add(timer);
+            mGameEngine.add(timer);
 
             onWaveStarted(m.getWave());
         }
@@ -186,7 +215,10 @@ public class GameManager {
         }
 
         mActiveWaves.clear();
+        mWaveManagers.clear();
+        mNextWaveTimers.clear();
         mGameEngine.clear();
+        mPlateaus.clear();
 
         mSelectedTower = null;
         mNextWaveIndex = 0;
@@ -198,10 +230,16 @@ public class GameManager {
     public void restart() {
         reset();
 
+        if (mRecordingLevelName != null) {
+            mRecording = new Replay(mRecordingLevelName, mGameEngine.getSeed(),
+                    AimingTower.getDefaultStrategy().ordinal(), AimingTower.getDefaultLockTarget());
+        }
+
         for (PlateauDescriptor d : mLevel.getPlateaus()) {
             Plateau p = d.createInstance();
             p.setPosition(d.getX(), d.getY());
             mGameEngine.add(p);
+            mPlateaus.add(p);
         }
 
         mGameEngine.setGameSize(getSettings().getWidth(), getSettings().getHeight());
@@ -284,29 +322,244 @@ public class GameManager {
     }
 
     public void startNextWave() {
-        if (hasCurrentWave()) {
-            getCurrentWaveManager().giveReward();
-            giveCredits(mEarlyBonus, false);
+        synchronized (mGameEngine.getTickLock()) {
+            record(Replay.START_NEXT_WAVE, 0, 0);
+
+            if (hasCurrentWave()) {
+                getCurrentWaveManager().giveReward();
+                giveCredits(mEarlyBonus, false);
+            }
+
+            Wave nextWave = getNextWave();
+            int extend = nextWave.getExtend() * getWaveIterationCount();
+
+            if (nextWave.getMaxExtend() > 0 && extend > nextWave.getMaxExtend()) {
+                extend = nextWave.getMaxExtend();
+            }
+
+            for (WaveManager done : mWaveManagers) {
+                if (!done.isActive()) {
+                    mWaveManagers.remove(done);
+                }
+            }
+
+            WaveManager m = new WaveManager(mGameEngine, this, nextWave, extend);
+            m.addListener(mWaveListener);
+            mWaveManagers.add(m);
+
+            if (getSettings().isEndless()) {
+                calcWaveModifiers(m);
+            }
+
+            m.start();
+
+            mNextWaveIndex++;
+            mNextWaveReady = false;
+        }
+    }
+
+
+    public Plateau getPlateau(int index) {
+        return mPlateaus.get(index);
+    }
+
+    public Tower buildTower(TowerConfig config, Plateau plateau) {
+        synchronized (mGameEngine.getTickLock()) {
+            record(Replay.BUILD_TOWER, config.getIndex(), mPlateaus.indexOf(plateau));
+
+            Tower tower = config.createTower();
+            tower.buy();
+            tower.setPlateau(plateau);
+            tower.setEnabled(true);
+            mGameEngine.add(tower);
+
+            return tower;
+        }
+    }
+
+    public void sellTower(Tower tower) {
+        synchronized (mGameEngine.getTickLock()) {
+            record(Replay.SELL_TOWER, getPlateauIndex(tower), 0);
+
+            tower.sell();
+            tower.remove();
+        }
+    }
+
+    public Tower upgradeTower(Tower tower) {
+        synchronized (mGameEngine.getTickLock()) {
+            record(Replay.UPGRADE_TOWER, getPlateauIndex(tower), 0);
+            return tower.upgrade();
+        }
+    }
+
+    public void enhanceTower(Tower tower) {
+        synchronized (mGameEngine.getTickLock()) {
+            record(Replay.ENHANCE_TOWER, getPlateauIndex(tower), 0);
+            tower.enhance();
+        }
+    }
+
+    public void setTowerStrategy(AimingTower tower, AimingTower.Strategy strategy) {
+        synchronized (mGameEngine.getTickLock()) {
+            record(Replay.SET_STRATEGY, getPlateauIndex(tower), strategy.ordinal());
+            tower.setStrategy(strategy);
+        }
+    }
+
+    public void setTowerLockTarget(AimingTower tower, boolean lock) {
+        synchronized (mGameEngine.getTickLock()) {
+            record(Replay.SET_LOCK_TARGET, getPlateauIndex(tower), lock ? 1 : 0);
+            tower.setLockOnTarget(lock);
+        }
+    }
+
+    private int getPlateauIndex(Tower tower) {
+        return getPlateauIndex(tower.getPlateau());
+    }
+
+    public int getPlateauIndex(Plateau plateau) {
+        return mPlateaus.indexOf(plateau);
+    }
+
+
+    /**
+     * Adds the enemies of the running waves that are created but not added to the game yet to the
+     * given collection.
+     */
+    public void getPendingEnemies(Collection<? super Enemy> enemies) {
+        for (WaveManager m : mWaveManagers) {
+            m.getPendingEnemies(enemies);
         }
+    }
 
-        Wave nextWave = getNextWave();
-        int extend = nextWave.getExtend() * getWaveIterationCount();
+    /**
+     * Writes the economy and the progress of the waves. The enemies of the waves have to be part
+     * of the snapshot.
+     */
+    public void writeState(SnapshotWriter out) throws IOException {
+        out.writeVarInt(mNextWaveIndex);
+        out.writeInt(mCredits);
+        out.writeInt(mCreditsEarned);
+        out.writeInt(mScore);
+        out.writeInt(mLives);
+        out.writeInt(mEarlyBonus);
+        out.writeBoolean(mGameOver);
+        out.writeBoolean(mGameWon);
+        out.writeBoolean(mNextWaveReady);
+
+        List<WaveManager> waves = new ArrayList<>();
+
+        for (WaveManager m : mWaveManagers) {
+            if (m.isActive()) {
+                waves.add(m);
+            }
+        }
+
+        out.writeVarInt(waves.size());
 
-        if (nextWave.getMaxExtend() > 0 && extend > nextWave.getMaxExtend()) {
-            extend = nextWave.getMaxExtend();
+        for (WaveManager m : waves) {
+            out.writeVarInt(mLevel.getWaves().indexOf(m.getWave()));
+            out.writeVarInt(m.getExtend());
+            out.writeBoolean(mActiveWaves.contains(m));
+            m.writeState(out);
         }
 
-        WaveManager m = new WaveManager(mGameEngine, this, nextWave, extend);
-        m.addListener(mWaveListener);
+        // timers of waves that are done have no effect anymore
+        List<NextWaveTimer> timers = new ArrayList<>();
 
-        if (getSettings().isEndless()) {
-            calcWaveModifiers(m);
+        for (NextWaveTimer timer : mNextWaveTimers) {
+            if (waves.contains(timer.mWaveManager)) {
+                timers.add(timer);
+            }
         }
 
-        m.start();
+        out.writeVarInt(timers.size());
+
+        for (NextWaveTimer timer : timers) {
+            out.writeVarInt(waves.indexOf(timer.mWaveManager));
+            timer.mTimer.writeState(out);
+        }
+    }
+
+    /**
+     * Continues the game from the given state, the level has to be set before.
+     */
+    public void readState(SnapshotReader in) throws IOException {
+        mNextWaveIndex = in.readVarInt();
+        mCredits = in.readInt();
+        mCreditsEarned = in.readInt();
+        mScore = in.readInt();
+        mLives = in.readInt();
+        mEarlyBonus = in.readInt();
+        mGameOver = in.readBoolean();
+        mGameWon = in.readBoolean();
+        mNextWaveReady = in.readBoolean();
+
+        List<WaveManager> waves = new ArrayList<>();
+        int waveCount = in.readVarInt();
+
+        for (int i = 0; i < waveCount; i++) {
+            Wave wave = mLevel.getWaves().get(in.readVarInt());
+            WaveManager m = new WaveManager(mGameEngine, this, wave, in.readVarInt());
+            m.addListener(mWaveListener);
+
+            if (in.readBoolean()) {
+                mActiveWaves.add(m);
+            }
 
-        mNextWaveIndex++;
-        mNextWaveReady = false;
+            m.readState(in);
+            mWaveManagers.add(m);
+            waves.add(m);
+        }
+
+        int timerCount = in.readVarInt();
+
+        for (int i = 0; i < timerCount; i++) {
+            WaveManager m = waves.get(in.readVarInt());
+            TickTimer timer = new TickTimer();
+            timer.readState(in);
+
+            NextWaveTimer nextWaveTimer = new NextWaveTimer(m, timer);
+            mNextWaveTimers.add(nextWaveTimer);
+            mGameEngine.add(nextWaveTimer);
+        }
+
+        onGameStarted();
+        onCreditsChanged();
+        onLivesChanged();
+        onBonusChanged();
+
+        if (mGameOver) {
+            onGameOver();
+        }
+    }
+
+
+    /**
+     * Records the commands of every game started from now on, on the level with the given asset
+     * name. Null stops recording.
+     */
+    public void setRecording(String levelName) {
+        mRecordingLevelName = levelName;
+        mRecording = null;
+    }
+
+    /**
+     * Returns the commands of the current game so far, or null if it is not recorded.
+     */
+    public Replay getRecording() {
+        if (mRecording != null) {
+            mRecording.setTickCount((int)mGameEngine.getTickCount());
+        }
+
+        return mRecording;
+    }
+
+    private void record(int command, int arg0, int arg1) {
+        if (mRecording != null) {
+            mRecording.add((int)mGameEngine.getTickCount(), command, arg0, arg1);
+        }
     }
 
 
@@ -457,7 +710,7 @@ public class GameManager {
         float waveHealth = 0f;
 
         for (EnemyDescriptor d : waveMan.getWave().getEnemies()) {
-            waveHealth += mLevel.getEnemyConfig(d.getEnemyClass()).getHealth();
+            waveHealth += d.getEnemyConfig().getHealth();
         }
 
         waveHealth *= waveMan.getExtend() + 1;
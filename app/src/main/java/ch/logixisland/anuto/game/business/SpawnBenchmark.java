@@ -0,0 +1,65 @@
+package ch.logixisland.anuto.game.business;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.logixisland.anuto.game.data.EnemyDescriptor;
+import ch.logixisland.anuto.game.data.Level;
+import ch.logixisland.anuto.game.entity.enemy.Enemy;
+
+/**
+ * Creates a large number of enemies from the waves of the given level the way a starting wave
+ * does, without adding them to the game, and logs the average time per enemy. The level has to be
+ * set on the game manager.
+ */
+public class SpawnBenchmark {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = SpawnBenchmark.class.getSimpleName();
+
+    /*
+    ------ Methods ------
+     */
+
+    public static void run(Level level, int enemyCount, int runCount) {
+        List<Enemy> enemies = new ArrayList<>(enemyCount);
+
+        // the first run warms up the JIT
+        spawn(level, enemies, enemyCount);
+
+        long timeStart = System.nanoTime();
+
+        for (int i = 0; i < runCount; i++) {
+            spawn(level, enemies, enemyCount);
+        }
+
+        float time = (System.nanoTime() - timeStart) / 1e6f / runCount;
+
+        Log.d(TAG, String.format("%d enemies: %.2f ms, %.2f us/enemy", enemyCount, time,
+                time * 1000f / enemyCount));
+    }
+
+    private static void spawn(Level level, List<Enemy> enemies, int enemyCount) {
+        enemies.clear();
+
+        for (int w = 0; enemies.size() < enemyCount; w = (w + 1) % level.getWaves().size()) {
+            for (EnemyDescriptor d : level.getWaves().get(w).getEnemies()) {
+                if (enemies.size() == enemyCount) {
+                    break;
+                }
+
+                Enemy e = d.createInstance();
+                e.modifyHealth(1f);
+                e.modifyReward(1f);
+                e.setPath(level.getPaths().get(d.getPathIndex()));
+                e.move(d.getOffsetX(), d.getOffsetY());
+                enemies.add(e);
+            }
+        }
+    }
+}
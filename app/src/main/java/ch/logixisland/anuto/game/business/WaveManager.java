@@ -1,6 +1,11 @@
 package ch.logixisland.anuto.game.business;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import ch.logixisland.anuto.game.GameEngine;
@@ -9,6 +14,8 @@ import ch.logixisland.anuto.game.data.EnemyDescriptor;
 import ch.logixisland.anuto.game.data.Wave;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.MathUtils;
 
 public class WaveManager {
@@ -25,6 +32,29 @@ public class WaveManager {
         void onEnemyRemoved(WaveManager m, Enemy e);
     }
 
+    /*
+    ------ Spawn Class ------
+     */
+
+    private class Spawn implements Runnable {
+        private final Enemy mEnemy;
+        private final TickTimer mTimer;
+
+        public Spawn(Enemy enemy, TickTimer timer) {
+            mEnemy = enemy;
+            mTimer = timer;
+        }
+
+        @Override
+        public void run() {
+            if (mTimer.tick()) {
+                mGameEngine.add(mEnemy);
+                mGameEngine.remove(this);
+                mSpawns.remove(this);
+            }
+        }
+    }
+
     /*
     ------ Members ------
      */
@@ -35,6 +65,7 @@ public class WaveManager {
     private final Wave mWave;
     private final int mExtend;
 
+    private boolean mStarted;
     private boolean mAborted;
     private int mEnemiesRemaining;
     private int mEarlyBonus;
@@ -43,6 +74,10 @@ public class WaveManager {
     private float mRewardModifier;
 
     private int mWaveReward;
+    private int mRewardsPending;
+
+    private final Set<Enemy> mEnemies = new LinkedHashSet<>();
+    private final List<Spawn> mSpawns = new ArrayList<>();
 
     private final List<Listener> mListeners = new CopyOnWriteArrayList<>();
 
@@ -57,6 +92,7 @@ public class WaveManager {
 
         @Override
         public void onObjectRemoved(Entity obj) {
+            mEnemies.remove(obj);
             mEnemiesRemaining--;
             mEarlyBonus -= ((Enemy)obj).getReward();
 
@@ -127,6 +163,7 @@ public class WaveManager {
                 float offsetX = 0f;
                 float offsetY = 0f;
 
+                mStarted = true;
                 mAborted = false;
                 mEnemiesRemaining = mWave.getEnemies().size() * (mExtend + 1);
 
@@ -140,8 +177,9 @@ public class WaveManager {
                             offsetY = d.getOffsetY();
                         }
 
-                        final Enemy e = d.createInstance();
+                        Enemy e = d.createInstance();
                         e.addListener(mObjectListener);
+                        mEnemies.add(e);
                         e.modifyHealth(mHealthModifier);
                         e.modifyReward(mRewardModifier);
                         e.setPath(mGameManager.getLevel().getPaths().get(d.getPathIndex()));
@@ -151,20 +189,11 @@ public class WaveManager {
                             delay += (int)d.getDelay();
                         }
 
-                        final int thisDelay = delay;
                         mEarlyBonus += e.getReward();
 
-                        mGameEngine.add(new Runnable() {
-                            TickTimer mTimer = TickTimer.createInterval(thisDelay);
-
-                            @Override
-                            public void run() {
-                                if (mTimer.tick()) {
-                                    mGameEngine.add(e);
-                                    mGameEngine.remove(this);
-                                }
-                            }
-                        });
+                        Spawn spawn = new Spawn(e, TickTimer.createInterval(delay));
+                        mSpawns.add(spawn);
+                        mGameEngine.add(spawn);
                     }
                 }
 
@@ -191,16 +220,94 @@ public class WaveManager {
     }
 
     public void giveReward() {
+        mRewardsPending++;
+
         mGameEngine.add(new Runnable() {
             @Override
             public void run() {
                 mGameManager.giveCredits(mWaveReward, true);
                 mWaveReward = 0;
+                mRewardsPending--;
                 mGameEngine.remove(this);
             }
         });
     }
 
+    /**
+     * Returns false once the wave has started, has no enemies left and has paid its reward.
+     */
+    public boolean isActive() {
+        return !mStarted || mEnemiesRemaining > 0 || mRewardsPending > 0;
+    }
+
+    /**
+     * Adds the enemies of this wave that are created but not added to the game yet to the given
+     * collection.
+     */
+    public void getPendingEnemies(Collection<? super Enemy> enemies) {
+        for (Spawn spawn : mSpawns) {
+            enemies.add(spawn.mEnemy);
+        }
+    }
+
+    /**
+     * Writes the progress of this wave. Its enemies, including the pending ones, have to be part
+     * of the snapshot.
+     */
+    public void writeState(SnapshotWriter out) throws IOException {
+        out.writeBoolean(mStarted);
+        out.writeBoolean(mAborted);
+        out.writeVarInt(mEnemiesRemaining);
+        out.writeInt(mEarlyBonus);
+        out.writeFloat(mHealthModifier);
+        out.writeFloat(mRewardModifier);
+        out.writeInt(mWaveReward);
+        out.writeVarInt(mRewardsPending);
+        out.writeEntities(mEnemies);
+        out.writeVarInt(mSpawns.size());
+
+        for (Spawn spawn : mSpawns) {
+            out.writeEntity(spawn.mEnemy);
+            spawn.mTimer.writeState(out);
+        }
+    }
+
+    public void readState(SnapshotReader in) throws IOException {
+        mStarted = in.readBoolean();
+        mAborted = in.readBoolean();
+        mEnemiesRemaining = in.readVarInt();
+        mEarlyBonus = in.readInt();
+        mHealthModifier = in.readFloat();
+        mRewardModifier = in.readFloat();
+        mWaveReward = in.readInt();
+        int rewardsPending = in.readVarInt();
+
+        for (Enemy e : in.readEntities(Enemy.class)) {
+            e.addListener(mObjectListener);
+            mEnemies.add(e);
+        }
+
+        int spawnCount = in.readVarInt();
+
+        for (int i = 0; i < spawnCount; i++) {
+            Enemy e = in.readEntity(Enemy.class);
+            TickTimer timer = new TickTimer();
+            timer.readState(in);
+
+            Spawn spawn = new Spawn(e, timer);
+            mSpawns.add(spawn);
+            mGameEngine.add(spawn);
+        }
+
+        if (!mStarted) {
+            start();
+        }
+
+        for (int i = 0; i < rewardsPending; i++) {
+            giveReward();
+        }
+    }
+
     /*
     ------ Listener Stuff ------
      */
@@ -3,20 +3,24 @@ package ch.logixisland.anuto.game.data;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementMap;
 
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import ch.logixisland.anuto.game.entity.EntityRegistry;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 
 public class EnemyConfig {
-    private final static String CLASS_PREFIX = "ch.logixisland.anuto.game.entity.enemy.";
 
     /*
     ------ Fields ------
      */
 
-    private Class<? extends Enemy> enemyClass;
+    private EntityRegistry.Factory<? extends Enemy> enemyFactory;
+
+    private int index;
 
     @Element
     private float health;
@@ -27,6 +31,8 @@ public class EnemyConfig {
     @Element
     private int reward;
 
+    private float[] propertyValues;
+
     @ElementMap(required=false, entry="property", key="name", attribute=true, inline=true)
     @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
     private Map<String, Float> properties = new HashMap<>();
@@ -37,17 +43,32 @@ public class EnemyConfig {
 
     @Element(name="clazz")
     private String getEnemyClassName() {
-        return enemyClass.getName();
+        return enemyFactory.getName();
     }
 
     @Element(name="clazz")
-    @SuppressWarnings("unchecked")
     private void setEnemyClassName(String className) throws ClassNotFoundException {
-        enemyClass = (Class<? extends Enemy>) Class.forName(CLASS_PREFIX + className);
+        enemyFactory = EntityRegistry.getEnemyFactory(className);
+    }
+
+    void read(DataInputStream in) throws IOException, ClassNotFoundException {
+        setEnemyClassName(in.readUTF());
+        health = in.readFloat();
+        speed = in.readFloat();
+        reward = in.readInt();
+        LevelFormat.readProperties(in, properties);
+    }
+
+    public Class<? extends Enemy> getEnemyClass() {
+        return enemyFactory.getEntityClass();
     }
 
-    Class<? extends Enemy> getEnemyClass() {
-        return enemyClass;
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
     }
 
     public float getHealth() {
@@ -65,4 +86,12 @@ public class EnemyConfig {
     public Map<String, Float> getProperties() {
         return Collections.unmodifiableMap(properties);
     }
+
+    void resolveProperties() {
+        propertyValues = Property.resolve(properties);
+    }
+
+    public float getProperty(Property property) {
+        return Property.lookup(propertyValues, property);
+    }
 }
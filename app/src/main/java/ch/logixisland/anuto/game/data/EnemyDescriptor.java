@@ -2,16 +2,21 @@ package ch.logixisland.anuto.game.data;
 
 import org.simpleframework.xml.Attribute;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import ch.logixisland.anuto.game.entity.EntityRegistry;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 
 public class EnemyDescriptor {
-    private final static String CLASS_PREFIX = "ch.logixisland.anuto.game.entity.enemy.";
 
     /*
     ------ Fields ------
      */
 
-    private Class<? extends Enemy> enemyClass;
+    private EntityRegistry.Factory<? extends Enemy> enemyFactory;
+
+    private EnemyConfig enemyConfig;
 
     @Attribute(required=false)
     private int pathIndex;
@@ -31,30 +36,36 @@ public class EnemyDescriptor {
 
     @Attribute(name="clazz")
     private String getEnemyClassName() {
-        return enemyClass.getName();
+        return enemyFactory.getName();
     }
 
     @Attribute(name="clazz")
-    @SuppressWarnings("unchecked")
     private void setEnemyClassName(String className) throws ClassNotFoundException {
-        enemyClass = (Class<? extends Enemy>) Class.forName(CLASS_PREFIX + className);
+        enemyFactory = EntityRegistry.getEnemyFactory(className);
+    }
+
+    void read(DataInputStream in) throws IOException, ClassNotFoundException {
+        setEnemyClassName(in.readUTF());
+        pathIndex = in.readInt();
+        delay = in.readFloat();
+        offsetX = in.readFloat();
+        offsetY = in.readFloat();
     }
 
     public Enemy createInstance() {
-        Enemy enemy;
+        return enemyFactory.create();
+    }
 
-        try {
-            enemy = enemyClass.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            e.printStackTrace();
-            throw new RuntimeException();
-        }
+    public Class<? extends Enemy> getEnemyClass() {
+        return enemyFactory.getEntityClass();
+    }
 
-        return enemy;
+    void setEnemyConfig(EnemyConfig enemyConfig) {
+        this.enemyConfig = enemyConfig;
     }
 
-    public Class<? extends Enemy> getEnemyClass() {
-        return enemyClass;
+    public EnemyConfig getEnemyConfig() {
+        return enemyConfig;
     }
 
     public int getPathIndex() {
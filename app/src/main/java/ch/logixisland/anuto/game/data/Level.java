@@ -9,10 +9,14 @@ import org.simpleframework.xml.core.Persister;
 import org.simpleframework.xml.strategy.CycleStrategy;
 import org.simpleframework.xml.strategy.Strategy;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.tower.Tower;
@@ -47,6 +51,12 @@ public class Level {
     @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
     private List<Wave> waves = new ArrayList<>();
 
+    private float[][] damageModifiers;
+
+    private final Map<Class<? extends Tower>, TowerConfig> towerConfigs = new IdentityHashMap<>();
+    private final Map<Class<? extends Enemy>, EnemyConfig> enemyConfigs = new IdentityHashMap<>();
+    private TowerConfig[] towerSlots;
+
     /*
     ------ Methods ------
      */
@@ -57,10 +67,67 @@ public class Level {
         return serializer.read(Level.class, inStream);
     }
 
+    public static Level read(InputStream inStream) throws Exception {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inStream));
+        LevelFormat.readHeader(in);
+
+        Level level = new Level();
+        level.read(in);
+        level.commit();
+        return level;
+    }
+
+    private void read(DataInputStream in) throws Exception {
+        settings.read(in);
+
+        int towerCount = in.readInt();
+        for (int i = 0; i < towerCount; i++) {
+            TowerConfig config = new TowerConfig();
+            config.read(in);
+            towers.add(config);
+        }
+
+        int enemyCount = in.readInt();
+        for (int i = 0; i < enemyCount; i++) {
+            EnemyConfig config = new EnemyConfig();
+            config.read(in);
+            enemies.add(config);
+        }
+
+        int plateauCount = in.readInt();
+        for (int i = 0; i < plateauCount; i++) {
+            PlateauDescriptor descriptor = new PlateauDescriptor();
+            descriptor.read(in);
+            plateaus.add(descriptor);
+        }
+
+        int pathCount = in.readInt();
+        for (int i = 0; i < pathCount; i++) {
+            Path path = new Path();
+            path.read(in);
+            paths.add(path);
+        }
+
+        int waveCount = in.readInt();
+        for (int i = 0; i < waveCount; i++) {
+            Wave wave = new Wave();
+            wave.read(in);
+            waves.add(wave);
+        }
+    }
+
     public Settings getSettings() {
         return settings;
     }
 
+    public List<TowerConfig> getTowerConfigs() {
+        return Collections.unmodifiableList(towers);
+    }
+
+    public List<EnemyConfig> getEnemyConfigs() {
+        return Collections.unmodifiableList(enemies);
+    }
+
     public List<PlateauDescriptor> getPlateaus() {
         return Collections.unmodifiableList(plateaus);
     }
@@ -78,23 +145,21 @@ public class Level {
     }
 
     private TowerConfig getTowerConfig(Class<? extends Tower> c) {
-        for (TowerConfig config : towers) {
-            if (config.getTowerClass() == c) {
-                return config;
-            }
+        TowerConfig config = towerConfigs.get(c);
+
+        if (config == null) {
+            throw new RuntimeException("No config found for this tower class!");
         }
 
-        throw new RuntimeException("No config found for this tower class!");
+        return config;
     }
 
     public TowerConfig getTowerConfig(int slot) {
-        for (TowerConfig config : towers) {
-            if (config.getSlot() == slot) {
-                return config;
-            }
+        if (slot < 0 || slot >= towerSlots.length) {
+            return null;
         }
 
-        return null;
+        return towerSlots[slot];
     }
 
     public EnemyConfig getEnemyConfig(Enemy e) {
@@ -102,17 +167,52 @@ public class Level {
     }
 
     public EnemyConfig getEnemyConfig(Class<? extends Enemy> c) {
-        for (EnemyConfig config : enemies) {
-            if (config.getEnemyClass() == c) {
-                return config;
-            }
+        EnemyConfig config = enemyConfigs.get(c);
+
+        if (config == null) {
+            throw new RuntimeException("No config found for this enemy class!");
         }
 
-        throw new RuntimeException("No config found for this enemy class!");
+        return config;
+    }
+
+    public float getDamageModifier(TowerConfig towerConfig, EnemyConfig enemyConfig) {
+        return damageModifiers[towerConfig.getIndex()][enemyConfig.getIndex()];
     }
 
     @Commit
     void commit() {
+        int slotCount = 0;
+
+        for (int i = 0; i < towers.size(); i++) {
+            TowerConfig config = towers.get(i);
+            config.setIndex(i);
+            config.resolveProperties();
+            towerConfigs.put(config.getTowerClass(), config);
+            slotCount = Math.max(slotCount, config.getSlot() + 1);
+        }
+
+        towerSlots = new TowerConfig[slotCount];
+
+        for (TowerConfig config : towers) {
+            if (config.getSlot() >= 0) {
+                towerSlots[config.getSlot()] = config;
+            }
+        }
+
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyConfig config = enemies.get(i);
+            config.setIndex(i);
+            config.resolveProperties();
+            enemyConfigs.put(config.getEnemyClass(), config);
+        }
+
+        for (Wave wave : waves) {
+            for (EnemyDescriptor descriptor : wave.getEnemies()) {
+                descriptor.setEnemyConfig(getEnemyConfig(descriptor.getEnemyClass()));
+            }
+        }
+
         for (TowerConfig config : towers) {
             Class<? extends Tower> upgradeClass = config.getUpgradeTowerClass();
 
@@ -120,5 +220,31 @@ public class Level {
                 config.setUpgradeTowerConfig(getTowerConfig(upgradeClass));
             }
         }
+
+        calcDamageModifiers();
+    }
+
+    private void calcDamageModifiers() {
+        damageModifiers = new float[towers.size()][enemies.size()];
+
+        for (TowerConfig towerConfig : towers) {
+            float[] row = damageModifiers[towerConfig.getIndex()];
+
+            for (EnemyConfig enemyConfig : enemies) {
+                float modifier = 1f;
+
+                if (towerConfig.getStrongAgainstEnemies().contains(enemyConfig.getEnemyClass())) {
+                    modifier *= settings.getStrongAgainstModifier();
+                }
+
+                if (towerConfig.getWeakAgainstEnemies().contains(enemyConfig.getEnemyClass())) {
+                    modifier *= settings.getWeakAgainstModifier();
+                }
+
+                row[enemyConfig.getIndex()] = modifier;
+            }
+
+            towerConfig.setDamageModifiers(row);
+        }
     }
 }
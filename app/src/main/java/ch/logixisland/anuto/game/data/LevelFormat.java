@@ -0,0 +1,55 @@
+package ch.logixisland.anuto.game.data;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Constants and helpers of the binary level format written by the compileLevels task in
+ * app/levels.gradle.
+ */
+final class LevelFormat {
+
+    /*
+    ------ Constants ------
+     */
+
+    static final int MAGIC = 0x414E4C56;
+    static final int VERSION = 1;
+
+    /*
+    ------ Methods ------
+     */
+
+    static void readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary level file!");
+        }
+
+        int version = in.readInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported level format version " + version + "!");
+        }
+    }
+
+    static String readOptionalString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        return in.readUTF();
+    }
+
+    static void readProperties(DataInputStream in, Map<String, Float> properties) throws IOException {
+        int count = in.readInt();
+
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            properties.put(name, in.readFloat());
+        }
+    }
+
+    private LevelFormat() {
+    }
+}
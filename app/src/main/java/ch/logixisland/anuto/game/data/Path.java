@@ -1,7 +1,11 @@
 package ch.logixisland.anuto.game.data;
 
 import org.simpleframework.xml.ElementList;
+import org.simpleframework.xml.core.Commit;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -17,6 +21,8 @@ public class Path implements Iterable<Vector2> {
     @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
     private List<Vector2> wayPoints;
 
+    private float[] lengthFrom;
+
     /*
     ------ Methods ------
      */
@@ -33,4 +39,37 @@ public class Path implements Iterable<Vector2> {
     public int size() {
         return wayPoints.size();
     }
+
+    /**
+     * Returns the length of the path from the given way point to the end of the path.
+     */
+    public float getLengthFrom(int index) {
+        if (index >= lengthFrom.length) {
+            return 0f;
+        }
+
+        return lengthFrom[index];
+    }
+
+    void read(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        wayPoints = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            float x = in.readFloat();
+            float y = in.readFloat();
+            wayPoints.add(new Vector2(x, y));
+        }
+
+        commit();
+    }
+
+    @Commit
+    void commit() {
+        lengthFrom = new float[wayPoints.size()];
+
+        for (int i = lengthFrom.length - 2; i >= 0; i--) {
+            lengthFrom[i] = lengthFrom[i + 1] + Vector2.fromTo(wayPoints.get(i), wayPoints.get(i + 1)).len();
+        }
+    }
 }
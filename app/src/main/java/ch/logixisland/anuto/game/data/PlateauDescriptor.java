@@ -2,16 +2,19 @@ package ch.logixisland.anuto.game.data;
 
 import org.simpleframework.xml.Attribute;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import ch.logixisland.anuto.game.entity.EntityRegistry;
 import ch.logixisland.anuto.game.entity.plateau.Plateau;
 
 public class PlateauDescriptor {
-    private final static String CLASS_PREFIX = "ch.logixisland.anuto.game.entity.plateau.";
 
     /*
     ------ Fields ------
      */
 
-    private Class<? extends Plateau> plateauClass;
+    private EntityRegistry.Factory<? extends Plateau> plateauFactory;
 
     @Attribute(required=false)
     private float x;
@@ -25,26 +28,26 @@ public class PlateauDescriptor {
 
     @Attribute(name="clazz")
     private String getPlateauClassName() {
-        return plateauClass.getName();
+        return plateauFactory.getName();
     }
 
     @Attribute(name="clazz")
-    @SuppressWarnings("unchecked")
     private void setPlateauClassName(String className) throws ClassNotFoundException {
-        plateauClass = (Class<? extends Plateau>) Class.forName(CLASS_PREFIX + className);
+        plateauFactory = EntityRegistry.getPlateauFactory(className);
     }
 
-    public Plateau createInstance() {
-        Plateau p;
+    void read(DataInputStream in) throws IOException, ClassNotFoundException {
+        setPlateauClassName(in.readUTF());
+        x = in.readFloat();
+        y = in.readFloat();
+    }
 
-        try {
-            p = plateauClass.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            e.printStackTrace();
-            throw new RuntimeException();
-        }
+    public Plateau createInstance() {
+        return plateauFactory.create();
+    }
 
-        return p;
+    public Class<? extends Plateau> getPlateauClass() {
+        return plateauFactory.getEntityClass();
     }
 
     public float getX() {
@@ -0,0 +1,93 @@
+package ch.logixisland.anuto.game.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interned name of a tower or enemy property. Configs resolve their properties into an array
+ * indexed by {@link #getIndex()} when the level is committed, so entities can declare their
+ * properties as constants and read them without a map lookup.
+ */
+public final class Property {
+
+    /*
+    ------ Static ------
+     */
+
+    private static final Map<String, Property> sProperties = new HashMap<>();
+
+    public static Property get(String name) {
+        synchronized (sProperties) {
+            Property property = sProperties.get(name);
+
+            if (property == null) {
+                property = new Property(name, sProperties.size());
+                sProperties.put(name, property);
+            }
+
+            return property;
+        }
+    }
+
+    static int count() {
+        synchronized (sProperties) {
+            return sProperties.size();
+        }
+    }
+
+    static float[] resolve(Map<String, Float> properties) {
+        for (String name : properties.keySet()) {
+            get(name);
+        }
+
+        float[] values = new float[count()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Float.NaN;
+        }
+
+        for (Map.Entry<String, Float> entry : properties.entrySet()) {
+            values[get(entry.getKey()).getIndex()] = entry.getValue();
+        }
+
+        return values;
+    }
+
+    static float lookup(float[] values, Property property) {
+        int index = property.getIndex();
+
+        if (index >= values.length || Float.isNaN(values[index])) {
+            throw new RuntimeException("No value found for property " + property.getName() + "!");
+        }
+
+        return values[index];
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final String mName;
+    private final int mIndex;
+
+    /*
+    ------ Constructors ------
+     */
+
+    private Property(String name, int index) {
+        mName = name;
+        mIndex = index;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public String getName() {
+        return mName;
+    }
+
+    public int getIndex() {
+        return mIndex;
+    }
+}
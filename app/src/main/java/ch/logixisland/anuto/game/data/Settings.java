@@ -2,6 +2,9 @@ package ch.logixisland.anuto.game.data;
 
 import org.simpleframework.xml.Element;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+
 public class Settings {
 
     /*
@@ -60,6 +63,25 @@ public class Settings {
     ------ Methods ------
      */
 
+    void read(DataInputStream in) throws IOException {
+        width = in.readInt();
+        height = in.readInt();
+        credits = in.readInt();
+        lives = in.readInt();
+        ageModifier = in.readFloat();
+        earlyModifier = in.readFloat();
+        earlyRoot = in.readFloat();
+        endless = in.readBoolean();
+        difficultyOffset = in.readFloat();
+        difficultyLinear = in.readFloat();
+        difficultyQuadratic = in.readFloat();
+        rewardModifier = in.readFloat();
+        rewardRoot = in.readFloat();
+        minSpeedModifier = in.readFloat();
+        weakAgainstModifier = in.readFloat();
+        strongAgainstModifier = in.readFloat();
+    }
+
     public int getWidth() {
         return width;
     }
@@ -3,6 +3,8 @@ package ch.logixisland.anuto.game.data;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementMap;
 
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -10,25 +12,28 @@ import java.util.HashMap;
 import java.util.Map;
 
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.entity.EntityRegistry;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.tower.Tower;
 import ch.logixisland.anuto.util.iterator.Function;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 
 public class TowerConfig {
-    private final static String CLASS_PREFIX_TOWER = "ch.logixisland.anuto.game.entity.tower.";
-    private final static String CLASS_PREFIX_ENEMY = "ch.logixisland.anuto.game.entity.enemy.";
 
     /*
     ------ Fields ------
      */
 
-    private Class<? extends Tower> towerClass;
+    private EntityRegistry.Factory<? extends Tower> towerFactory;
 
     private TowerConfig upgradeTowerConfig;
 
     private Class<? extends Tower> upgradeTowerClass;
 
+    private int index;
+
+    private float[] damageModifiers;
+
     @Element
     private int value;
 
@@ -66,6 +71,8 @@ public class TowerConfig {
     @Element(required=false)
     private String damageText;
 
+    private float[] propertyValues;
+
     @ElementMap(required=false, entry="property", key="name", attribute=true, inline=true)
     @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
     private Map<String, Float> properties = new HashMap<>();
@@ -79,24 +86,22 @@ public class TowerConfig {
 
     @Element(name="clazz")
     private String getTowerClassName() {
-        return towerClass.getName();
+        return towerFactory.getName();
     }
 
     @Element(name="clazz")
-    @SuppressWarnings("unchecked")
     private void setTowerClassName(String className) throws ClassNotFoundException {
-        towerClass = (Class<? extends Tower>) Class.forName(CLASS_PREFIX_TOWER + className);
+        towerFactory = EntityRegistry.getTowerFactory(className);
     }
 
     @Element(name="upgrade", required=false)
     private String getUpgradeTowerClassName() {
-        return upgradeTowerClass.getName();
+        return upgradeTowerClass.getSimpleName();
     }
 
     @Element(name="upgrade", required=false)
-    @SuppressWarnings("unchecked")
     private void setUpgradeTowerClassName(String className) throws ClassNotFoundException {
-        upgradeTowerClass = (Class<? extends Tower>) Class.forName(CLASS_PREFIX_TOWER + className);
+        upgradeTowerClass = EntityRegistry.getTowerFactory(className).getEntityClass();
     }
 
     @Element(name="weakAgainst", required=false)
@@ -105,21 +110,20 @@ public class TowerConfig {
                 .transform(new Function<Class<? extends Entity>, String>() {
                     @Override
                     public String apply(Class<? extends Entity> input) {
-                        return input.getName();
+                        return input.getSimpleName();
                     }
                 })
                 .toString(";");
     }
 
     @Element(name="weakAgainst", required=false)
-    @SuppressWarnings("unchecked")
     private void setWeakAgainstEnemyNames(String classNames) throws ClassNotFoundException {
         weakAgainstEnemies = StreamIterator.fromArray(classNames.split(";"))
                 .transform(new Function<String, Class<? extends Enemy>>() {
                     @Override
                     public Class<? extends Enemy> apply(String input) {
                         try {
-                            return (Class<? extends Enemy>) Class.forName(CLASS_PREFIX_ENEMY + input);
+                            return EntityRegistry.getEnemyFactory(input).getEntityClass();
                         } catch (ClassNotFoundException e) {
                             return null;
                         }
@@ -138,21 +142,20 @@ public class TowerConfig {
                 .transform(new Function<Class<? extends Enemy>, String>() {
                     @Override
                     public String apply(Class<? extends Enemy> input) {
-                        return input.getName();
+                        return input.getSimpleName();
                     }
                 })
                 .toString(";");
     }
 
     @Element(name="strongAgainst", required=false)
-    @SuppressWarnings("unchecked")
     private void setStrongAgainstEnemyNames(String classNames) throws ClassNotFoundException {
         strongAgainstEnemies = StreamIterator.fromArray(classNames.split(";"))
                 .transform(new Function<String, Class<? extends Enemy>>() {
                     @Override
                     public Class<? extends Enemy> apply(String input) {
                         try {
-                            return (Class<? extends Enemy>) Class.forName(CLASS_PREFIX_ENEMY + input);
+                            return EntityRegistry.getEnemyFactory(input).getEntityClass();
                         } catch (ClassNotFoundException e) {
                             return null;
                         }
@@ -165,6 +168,40 @@ public class TowerConfig {
         }
     }
 
+    void read(DataInputStream in) throws IOException, ClassNotFoundException {
+        setTowerClassName(in.readUTF());
+
+        String upgrade = LevelFormat.readOptionalString(in);
+        if (upgrade != null) {
+            setUpgradeTowerClassName(upgrade);
+        }
+
+        value = in.readInt();
+        damage = in.readFloat();
+        range = in.readFloat();
+        reload = in.readFloat();
+        enhanceCost = in.readInt();
+        enhanceDamage = in.readFloat();
+        enhanceRange = in.readFloat();
+        enhanceReload = in.readFloat();
+        enhanceBase = in.readFloat();
+        maxLevel = in.readInt();
+
+        String weakAgainst = LevelFormat.readOptionalString(in);
+        if (weakAgainst != null) {
+            setWeakAgainstEnemyNames(weakAgainst);
+        }
+
+        String strongAgainst = LevelFormat.readOptionalString(in);
+        if (strongAgainst != null) {
+            setStrongAgainstEnemyNames(strongAgainst);
+        }
+
+        damageText = LevelFormat.readOptionalString(in);
+        LevelFormat.readProperties(in, properties);
+        slot = in.readInt();
+    }
+
     Class<? extends Tower> getUpgradeTowerClass() {
         return upgradeTowerClass;
     }
@@ -177,8 +214,28 @@ public class TowerConfig {
         return slot;
     }
 
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    void setDamageModifiers(float[] damageModifiers) {
+        this.damageModifiers = damageModifiers;
+    }
+
+    public float getDamageModifier(EnemyConfig enemyConfig) {
+        return damageModifiers[enemyConfig.getIndex()];
+    }
+
     public Class<? extends Tower> getTowerClass() {
-        return towerClass;
+        return towerFactory.getEntityClass();
+    }
+
+    public Tower createTower() {
+        return towerFactory.create();
     }
 
     public TowerConfig getUpgradeTowerConfig() {
@@ -241,4 +298,12 @@ public class TowerConfig {
         return Collections.unmodifiableMap(properties);
     }
 
+    void resolveProperties() {
+        propertyValues = Property.resolve(properties);
+    }
+
+    public float getProperty(Property property) {
+        return Property.lookup(propertyValues, property);
+    }
+
 }
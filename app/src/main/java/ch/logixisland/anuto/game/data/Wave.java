@@ -3,6 +3,8 @@ package ch.logixisland.anuto.game.data;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementList;
 
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -39,6 +41,23 @@ public class Wave {
     ------ Methods ------
      */
 
+    void read(DataInputStream in) throws IOException, ClassNotFoundException {
+        waveReward = in.readInt();
+        healthModifier = in.readFloat();
+        rewardModifier = in.readFloat();
+        extend = in.readInt();
+        maxExtend = in.readInt();
+        nextWaveDelay = in.readFloat();
+
+        int count = in.readInt();
+
+        for (int i = 0; i < count; i++) {
+            EnemyDescriptor descriptor = new EnemyDescriptor();
+            descriptor.read(in);
+            enemies.add(descriptor);
+        }
+    }
+
     public List<EnemyDescriptor> getEnemies() {
         return Collections.unmodifiableList(enemies);
     }
@@ -2,22 +2,33 @@ package ch.logixisland.anuto.game.entity;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import ch.logixisland.anuto.AnutoApplication;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.render.PaintPalette;
 import ch.logixisland.anuto.game.render.SpriteFactory;
 import ch.logixisland.anuto.game.render.SpriteInstance;
 import ch.logixisland.anuto.game.render.SpriteListener;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.game.theme.ThemeManager;
+import ch.logixisland.anuto.util.Random;
 import ch.logixisland.anuto.util.iterator.Function;
 import ch.logixisland.anuto.util.iterator.Predicate;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public abstract class Entity implements SpriteListener {
 
+    /*
+    ------ Constants ------
+     */
+
+    private static final int TICK_PHASES = 1 << 16;
+
     /*
     ------ Listener Interface ------
      */
@@ -63,7 +74,7 @@ public abstract class Entity implements SpriteListener {
             @Override
             public boolean apply(Entity value) {
                 Vector2 line = Vector2.fromTo(p1, p2);
-                Vector2 toObj = Vector2.fromTo(p1, value.mPosition);
+                Vector2 toObj = Vector2.fromTo(p1, value.getPosition());
 
                 Vector2 proj = toObj.copy().proj(line);
 
@@ -100,6 +111,8 @@ public abstract class Entity implements SpriteListener {
     private boolean mEnabled = true;
 
     private final Vector2 mPosition = new Vector2();
+    private Random mRandom;
+    private int mTickPhase = -1;
 
     private final List<Listener> mListeners = new CopyOnWriteArrayList<>();
 
@@ -137,7 +150,8 @@ public abstract class Entity implements SpriteListener {
 
     @Override
     public void onDraw(SpriteInstance sprite, Canvas canvas) {
-        canvas.translate(mPosition.x, mPosition.y);
+        Vector2 position = getPosition();
+        canvas.translate(position.x, position.y);
     }
 
 
@@ -166,10 +180,58 @@ public abstract class Entity implements SpriteListener {
         return AnutoApplication.getInstance().getGameFactory().getSpriteFactory();
     }
 
+    protected PaintPalette getPaintPalette() {
+        return AnutoApplication.getInstance().getGameFactory().getPaintPalette();
+    }
+
     protected ThemeManager getThemeManager() {
         return AnutoApplication.getInstance().getGameFactory().getThemeManager();
     }
 
+    /**
+     * Returns the random generator of this entity. Unless derived from another entity, it is split
+     * from the game generator on first use, so entities should not draw from it before they are
+     * added to the game.
+     */
+    protected Random getRandom() {
+        if (mRandom == null) {
+            mRandom = getGameEngine().splitRandom();
+        }
+
+        return mRandom;
+    }
+
+    /**
+     * Lets this entity draw from a generator split from the given one, which makes its results
+     * independent of when other entities are created.
+     */
+    protected void deriveRandom(Entity parent) {
+        if (parent != null) {
+            mRandom = parent.getRandom().split();
+        }
+    }
+
+    /**
+     * Lets this entity draw from a generator of its own that is not split from the game generator.
+     * Used for entities that are shown in the game without being part of it, like the tower that
+     * is dragged onto the map, so that they do not change the game.
+     */
+    public void detachRandom() {
+        mRandom = new Random(System.nanoTime());
+    }
+
+    /**
+     * Returns the offset this entity uses for periodic work, so not all entities do it in the same
+     * tick. It is drawn from the generator of the entity to stay the same when the game is replayed.
+     */
+    public int getTickPhase() {
+        if (mTickPhase < 0) {
+            mTickPhase = getRandom().next(TICK_PHASES);
+        }
+
+        return mTickPhase;
+    }
+
     public boolean isInGame() {
         return mInGame;
     }
@@ -183,53 +245,117 @@ public abstract class Entity implements SpriteListener {
         return mPosition;
     }
 
+    public Vector2 getPosition(Vector2 out) {
+        return out.set(getPosition());
+    }
+
     public void setPosition(float x, float y) {
         mPosition.set(x, y);
     }
 
     public void setPosition(Vector2 position) {
-        mPosition.set(position);
+        setPosition(position.x, position.y);
     }
 
 
     public void move(float dx, float dy) {
-        mPosition.x += dx;
-        mPosition.y += dy;
+        Vector2 position = getPosition();
+        setPosition(position.x + dx, position.y + dy);
     }
 
     public void move(Vector2 offset) {
-        mPosition.x += offset.x;
-        mPosition.y += offset.y;
+        move(offset.x, offset.y);
     }
 
     public void move(Vector2 direction, float distance) {
-        mPosition.x += direction.x * distance;
-        mPosition.y += direction.y * distance;
+        move(direction.x * distance, direction.y * distance);
     }
 
 
     public float getDistanceTo(Entity target) {
-        return getDistanceTo(target.mPosition);
+        // asked of the target, which is usually an enemy that can answer without a position vector
+        return target.getDistanceTo(getPosition());
     }
 
     public float getDistanceTo(Vector2 target) {
-        return Vector2.fromTo(mPosition, target).len();
+        Vector2 position = getPosition();
+        float dx = target.x - position.x;
+        float dy = target.y - position.y;
+        return (float)Math.sqrt(dx * dx + dy * dy);
     }
 
     public Vector2 getDirectionTo(Entity target) {
-        return getDirectionTo(target.mPosition);
+        return target.getPosition(new Vector2()).sub(getPosition()).norm();
     }
 
     public Vector2 getDirectionTo(Vector2 target) {
-        return Vector2.fromTo(mPosition, target).norm();
+        return Vector2.fromTo(getPosition(), target).norm();
     }
 
     public float getAngleTo(Entity target) {
-        return getAngleTo(target.mPosition);
+        return target.getPosition(new Vector2()).sub(getPosition()).angle();
     }
 
     public float getAngleTo(Vector2 target) {
-        return Vector2.fromTo(mPosition, target).angle();
+        return Vector2.fromTo(getPosition(), target).angle();
+    }
+
+
+    /**
+     * Returns false if this entity is left out of snapshots, e.g. an effect that only draws on an
+     * enemy that is already gone.
+     */
+    public boolean isSaved() {
+        return true;
+    }
+
+    /**
+     * Writes the arguments this entity is created with when it is restored, for entities that are
+     * not created by the {@link EntityRegistry}.
+     */
+    public void writeCreation(SnapshotWriter out) throws IOException {
+
+    }
+
+    /**
+     * Writes the state shared by all entities of this class. Called on the first entity of each
+     * class only.
+     */
+    public void writeStaticState(SnapshotWriter out) throws IOException {
+
+    }
+
+    public void readStaticState(SnapshotReader in) throws IOException {
+
+    }
+
+    /**
+     * Writes the state needed to continue this entity after it is created again and added to the
+     * game. Subclasses write their own state after the one of their superclass.
+     */
+    public void writeState(SnapshotWriter out) throws IOException {
+        out.writeVector(getPosition());
+        out.writeBoolean(mEnabled);
+        out.writeBoolean(mRandom != null);
+
+        if (mRandom != null) {
+            mRandom.write(out);
+        }
+
+        out.writeVarInt(mTickPhase + 1);
+    }
+
+    public void readState(SnapshotReader in) throws IOException {
+        setPosition(in.readVector());
+
+        boolean enabled = in.readBoolean();
+
+        if (enabled != mEnabled) {
+            setEnabled(enabled);
+        }
+
+        mRandom = in.readBoolean() ? Random.read(in) : null;
+        mTickPhase = in.readVarInt() - 1;
     }
 
 
@@ -0,0 +1,276 @@
+package ch.logixisland.anuto.game.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.logixisland.anuto.game.entity.effect.GlueEffect;
+import ch.logixisland.anuto.game.entity.enemy.Blob;
+import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.entity.enemy.Flyer;
+import ch.logixisland.anuto.game.entity.enemy.Healer;
+import ch.logixisland.anuto.game.entity.enemy.Soldier;
+import ch.logixisland.anuto.game.entity.enemy.Sprinter;
+import ch.logixisland.anuto.game.entity.plateau.BasicPlateau;
+import ch.logixisland.anuto.game.entity.plateau.Plateau;
+import ch.logixisland.anuto.game.entity.shot.CanonShot;
+import ch.logixisland.anuto.game.entity.shot.CanonShotMG;
+import ch.logixisland.anuto.game.entity.shot.GlueShot;
+import ch.logixisland.anuto.game.entity.shot.Mine;
+import ch.logixisland.anuto.game.entity.shot.MortarShot;
+import ch.logixisland.anuto.game.entity.shot.Rocket;
+import ch.logixisland.anuto.game.entity.tower.Canon;
+import ch.logixisland.anuto.game.entity.tower.CanonDual;
+import ch.logixisland.anuto.game.entity.tower.CanonMG;
+import ch.logixisland.anuto.game.entity.tower.GlueGun;
+import ch.logixisland.anuto.game.entity.tower.GlueTower;
+import ch.logixisland.anuto.game.entity.tower.LaserTower1;
+import ch.logixisland.anuto.game.entity.tower.LaserTower2;
+import ch.logixisland.anuto.game.entity.tower.LaserTower3;
+import ch.logixisland.anuto.game.entity.tower.MineLayer;
+import ch.logixisland.anuto.game.entity.tower.Mortar;
+import ch.logixisland.anuto.game.entity.tower.RocketLauncher;
+import ch.logixisland.anuto.game.entity.tower.TeleportTower;
+import ch.logixisland.anuto.game.entity.tower.Tower;
+import ch.logixisland.anuto.game.render.SpriteSheet;
+
+/**
+ * Maps the class names used in the level files to factories that create entities by a direct
+ * constructor call. Every entity that can be referenced from a level has to be registered here,
+ * together with the sprite sheets it needs so they can be preloaded with the level.
+ */
+public final class EntityRegistry {
+
+    /*
+    ------ Factory Class ------
+     */
+
+    public static abstract class Factory<T extends Entity> {
+        private final Class<T> mEntityClass;
+        private final List<SpriteSheet> mSpriteSheets;
+
+        /**
+         * Takes the sprite sheets of the entity class and of the shots and effects it creates.
+         */
+        protected Factory(Class<T> entityClass, SpriteSheet[]... spriteSheets) {
+            List<SpriteSheet> sheets = new ArrayList<>();
+
+            for (SpriteSheet[] classSheets : spriteSheets) {
+                sheets.addAll(Arrays.asList(classSheets));
+            }
+
+            mEntityClass = entityClass;
+            mSpriteSheets = Collections.unmodifiableList(sheets);
+        }
+
+        public Class<T> getEntityClass() {
+            return mEntityClass;
+        }
+
+        public String getName() {
+            return mEntityClass.getSimpleName();
+        }
+
+        /**
+         * Returns the sprite sheets the entity and the shots and effects it creates are drawn with.
+         */
+        public List<SpriteSheet> getSpriteSheets() {
+            return mSpriteSheets;
+        }
+
+        public abstract T create();
+    }
+
+    /*
+    ------ Static ------
+     */
+
+    private static final Map<String, Factory<? extends Enemy>> sEnemyFactories = new HashMap<>();
+    private static final Map<String, Factory<? extends Tower>> sTowerFactories = new HashMap<>();
+    private static final Map<String, Factory<? extends Plateau>> sPlateauFactories = new HashMap<>();
+    private static final Map<Class<?>, Factory<?>> sFactoriesByClass = new IdentityHashMap<>();
+
+    static {
+        registerEnemy(new Factory<Blob>(Blob.class, Blob.SPRITE_SHEETS) {
+            @Override
+            public Blob create() {
+                return new Blob();
+            }
+        });
+
+        registerEnemy(new Factory<Flyer>(Flyer.class, Flyer.SPRITE_SHEETS) {
+            @Override
+            public Flyer create() {
+                return new Flyer();
+            }
+        });
+
+        registerEnemy(new Factory<Healer>(Healer.class, Healer.SPRITE_SHEETS) {
+            @Override
+            public Healer create() {
+                return new Healer();
+            }
+        });
+
+        registerEnemy(new Factory<Soldier>(Soldier.class, Soldier.SPRITE_SHEETS) {
+            @Override
+            public Soldier create() {
+                return new Soldier();
+            }
+        });
+
+        registerEnemy(new Factory<Sprinter>(Sprinter.class, Sprinter.SPRITE_SHEETS) {
+            @Override
+            public Sprinter create() {
+                return new Sprinter();
+            }
+        });
+
+        registerTower(new Factory<Canon>(Canon.class, Canon.SPRITE_SHEETS, CanonShot.SPRITE_SHEETS) {
+            @Override
+            public Canon create() {
+                return new Canon();
+            }
+        });
+
+        registerTower(new Factory<CanonDual>(CanonDual.class, CanonDual.SPRITE_SHEETS, CanonShot.SPRITE_SHEETS) {
+            @Override
+            public CanonDual create() {
+                return new CanonDual();
+            }
+        });
+
+        registerTower(new Factory<CanonMG>(CanonMG.class, CanonMG.SPRITE_SHEETS, CanonShotMG.SPRITE_SHEETS) {
+            @Override
+            public CanonMG create() {
+                return new CanonMG();
+            }
+        });
+
+        registerTower(new Factory<GlueGun>(GlueGun.class,
+                GlueGun.SPRITE_SHEETS, GlueShot.SPRITE_SHEETS, GlueEffect.SPRITE_SHEETS) {
+            @Override
+            public GlueGun create() {
+                return new GlueGun();
+            }
+        });
+
+        registerTower(new Factory<GlueTower>(GlueTower.class,
+                GlueTower.SPRITE_SHEETS, GlueShot.SPRITE_SHEETS, GlueEffect.SPRITE_SHEETS) {
+            @Override
+            public GlueTower create() {
+                return new GlueTower();
+            }
+        });
+
+        registerTower(new Factory<LaserTower1>(LaserTower1.class, LaserTower1.SPRITE_SHEETS) {
+            @Override
+            public LaserTower1 create() {
+                return new LaserTower1();
+            }
+        });
+
+        registerTower(new Factory<LaserTower2>(LaserTower2.class, LaserTower2.SPRITE_SHEETS) {
+            @Override
+            public LaserTower2 create() {
+                return new LaserTower2();
+            }
+        });
+
+        registerTower(new Factory<LaserTower3>(LaserTower3.class, LaserTower3.SPRITE_SHEETS) {
+            @Override
+            public LaserTower3 create() {
+                return new LaserTower3();
+            }
+        });
+
+        registerTower(new Factory<MineLayer>(MineLayer.class, MineLayer.SPRITE_SHEETS, Mine.SPRITE_SHEETS) {
+            @Override
+            public MineLayer create() {
+                return new MineLayer();
+            }
+        });
+
+        registerTower(new Factory<Mortar>(Mortar.class, Mortar.SPRITE_SHEETS, MortarShot.SPRITE_SHEETS) {
+            @Override
+            public Mortar create() {
+                return new Mortar();
+            }
+        });
+
+        registerTower(new Factory<RocketLauncher>(RocketLauncher.class,
+                RocketLauncher.SPRITE_SHEETS, Rocket.SPRITE_SHEETS) {
+            @Override
+            public RocketLauncher create() {
+                return new RocketLauncher();
+            }
+        });
+
+        registerTower(new Factory<TeleportTower>(TeleportTower.class, TeleportTower.SPRITE_SHEETS) {
+            @Override
+            public TeleportTower create() {
+                return new TeleportTower();
+            }
+        });
+
+        registerPlateau(new Factory<BasicPlateau>(BasicPlateau.class, BasicPlateau.SPRITE_SHEETS) {
+            @Override
+            public BasicPlateau create() {
+                return new BasicPlateau();
+            }
+        });
+    }
+
+    private static void registerEnemy(Factory<? extends Enemy> factory) {
+        sEnemyFactories.put(factory.getName(), factory);
+        sFactoriesByClass.put(factory.getEntityClass(), factory);
+    }
+
+    private static void registerTower(Factory<? extends Tower> factory) {
+        sTowerFactories.put(factory.getName(), factory);
+        sFactoriesByClass.put(factory.getEntityClass(), factory);
+    }
+
+    private static void registerPlateau(Factory<? extends Plateau> factory) {
+        sPlateauFactories.put(factory.getName(), factory);
+        sFactoriesByClass.put(factory.getEntityClass(), factory);
+    }
+
+    public static Factory<? extends Enemy> getEnemyFactory(String name) throws ClassNotFoundException {
+        return checkFound(sEnemyFactories.get(name), name);
+    }
+
+    public static Factory<? extends Tower> getTowerFactory(String name) throws ClassNotFoundException {
+        return checkFound(sTowerFactories.get(name), name);
+    }
+
+    public static Factory<? extends Plateau> getPlateauFactory(String name) throws ClassNotFoundException {
+        return checkFound(sPlateauFactories.get(name), name);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Entity> Factory<T> getFactory(Class<T> entityClass) {
+        Factory<T> factory = (Factory<T>) sFactoriesByClass.get(entityClass);
+
+        if (factory == null) {
+            throw new RuntimeException("No factory registered for " + entityClass.getName() + "!");
+        }
+
+        return factory;
+    }
+
+    private static <T> T checkFound(T factory, String name) throws ClassNotFoundException {
+        if (factory == null) {
+            throw new ClassNotFoundException("No factory registered for " + name + "!");
+        }
+
+        return factory;
+    }
+
+    private EntityRegistry() {
+    }
+}
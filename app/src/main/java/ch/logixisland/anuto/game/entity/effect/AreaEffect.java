@@ -1,10 +1,13 @@
 package ch.logixisland.anuto.game.entity.effect;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 
 public abstract class AreaEffect extends Effect {
@@ -48,6 +51,24 @@ public abstract class AreaEffect extends Effect {
     }
 
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeEntities(mAffectedEnemies);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        // the enemies are restored with the modifiers they got on entering
+        for (Enemy e : in.readEntities(Enemy.class)) {
+            mAffectedEnemies.add(e);
+            e.addListener(mEnemyListener);
+        }
+    }
+
     @Override
     public void tick() {
         super.tick();
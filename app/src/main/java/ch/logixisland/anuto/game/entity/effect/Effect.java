@@ -1,8 +1,12 @@
 package ch.logixisland.anuto.game.entity.effect;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.game.TickTimer;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.Types;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 
 public abstract class Effect extends Entity {
 
@@ -29,6 +33,7 @@ public abstract class Effect extends Entity {
 
     protected Effect(Entity origin, float duration) {
         mOrigin = origin;
+        deriveRandom(origin);
         mDuration = duration;
     }
 
@@ -58,6 +63,40 @@ public abstract class Effect extends Entity {
         }
     }
 
+    /**
+     * Writes the origin and the position, the arguments all effects are created with.
+     */
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        out.writeEntity(mOrigin);
+        out.writeVector(getPosition());
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeBoolean(mEffectBegun);
+
+        if (mTimer != null) {
+            mTimer.writeState(out);
+        }
+    }
+
+    /**
+     * Has to be called after the effect is added, which creates the timer.
+     */
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mEffectBegun = in.readBoolean();
+
+        if (mTimer != null) {
+            mTimer.readState(in);
+        }
+    }
+
     @Override
     public void tick() {
         super.tick();
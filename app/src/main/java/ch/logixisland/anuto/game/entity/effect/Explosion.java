@@ -1,14 +1,17 @@
 package ch.logixisland.anuto.game.entity.effect;
 
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
+
+import java.io.IOException;
 
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.PaintPalette;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
@@ -19,13 +22,11 @@ public class Explosion extends Effect {
     private final static int ALPHA_STEP = (int)(ALPHA_START / (GameEngine.TARGET_FRAME_RATE * EFFECT_DURATION));
 
     private class ExplosionDrawable implements Drawable {
-        private Paint mPaint;
+        private PaintPalette.Style mStyle;
         private int mAlpha = ALPHA_START;
 
         public ExplosionDrawable() {
-            mPaint = new Paint();
-            mPaint.setColor(Color.YELLOW);
-            mPaint.setAlpha(mAlpha);
+            mStyle = getPaintPalette().fill(Color.YELLOW);
         }
 
         public void decreaseVisibility() {
@@ -34,8 +35,6 @@ public class Explosion extends Effect {
             if (mAlpha < 0) {
                 mAlpha = 0;
             }
-
-            mPaint.setAlpha(mAlpha);
         }
 
         @Override
@@ -44,8 +43,8 @@ public class Explosion extends Effect {
         }
 
         @Override
-        public void draw(Canvas canvas) {
-            canvas.drawCircle(getPosition().x, getPosition().y, mRadius, mPaint);
+        public void draw(RenderBuffer buffer) {
+            buffer.drawCircle(getPosition().x, getPosition().y, mRadius, mStyle.get(mAlpha));
         }
     }
 
@@ -78,6 +77,14 @@ public class Explosion extends Effect {
         getGameEngine().remove(mDrawObject);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeFloat(mDamage);
+        out.writeFloat(mRadius);
+    }
+
     @Override
     public void tick() {
         super.tick();
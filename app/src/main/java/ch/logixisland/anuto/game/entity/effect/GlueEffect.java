@@ -1,7 +1,8 @@
 package ch.logixisland.anuto.game.entity.effect;
 
 import android.graphics.Canvas;
-import android.graphics.Paint;
+
+import java.io.IOException;
 
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
@@ -9,16 +10,23 @@ import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.enemy.Flyer;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.PaintPalette;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class GlueEffect extends AreaEffect {
 
     private final static int ALPHA_START = 150;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.glue_effect, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplate;
     }
@@ -27,7 +35,8 @@ public class GlueEffect extends AreaEffect {
     private float mSpeedModifier;
     private int mAlphaStep;
 
-    private Paint mPaint;
+    private PaintPalette.Style mStyle;
+    private int mAlpha = ALPHA_START;
     private StaticSprite mSprite;
 
     public GlueEffect(Entity origin, Vector2 position, float speedModifier, float duration) {
@@ -35,25 +44,24 @@ public class GlueEffect extends AreaEffect {
         setPosition(position);
 
         mSpeedModifier = speedModifier;
-        mAngle = Random.next(360f);
+        mAngle = getRandom().next(360f);
         mAlphaStep = (int)(ALPHA_START / (GameEngine.TARGET_FRAME_RATE * duration));
 
         StaticData s = (StaticData)getStaticData();
 
         mSprite = getSpriteFactory().createStatic(Layers.BOTTOM, s.mSpriteTemplate);
         mSprite.setListener(this);
-        mSprite.setIndex(Random.next(4));
+        mSprite.setIndex(getRandom().next(4));
 
-        mPaint = new Paint();
-        mPaint.setAlpha(ALPHA_START);
-        mSprite.setPaint(mPaint);
+        mStyle = getPaintPalette().bitmap();
+        mSprite.setPaint(mStyle.get(mAlpha));
     }
 
     @Override
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.glue_effect, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(1f, 1f, null, null);
 
         return s;
@@ -80,24 +88,50 @@ public class GlueEffect extends AreaEffect {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeFloat(mSpeedModifier);
+        out.writeFloat(getDuration());
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+        out.writeVarInt(mAlpha);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+        mAlpha = in.readVarInt();
+        mSprite.setPaint(mStyle.get(mAlpha));
+    }
+
     @Override
     public void tick() {
         super.tick();
 
-        mPaint.setAlpha(mPaint.getAlpha() - mAlphaStep);
+        mAlpha = Math.max(0, mAlpha - mAlphaStep);
+        mSprite.setPaint(mStyle.get(mAlpha));
     }
 
     @Override
     protected void enemyEnter(Enemy e) {
         if (!(e instanceof Flyer)) {
-            e.modifySpeed(mSpeedModifier);
+            e.addSpeedModifier(mSpeedModifier);
         }
     }
 
     @Override
     protected void enemyExit(Enemy e) {
         if (!(e instanceof Flyer)) {
-            e.modifySpeed(1f / mSpeedModifier);
+            e.removeSpeedModifier(mSpeedModifier);
         }
     }
 }
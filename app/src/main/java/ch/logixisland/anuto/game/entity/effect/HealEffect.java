@@ -1,14 +1,18 @@
 package ch.logixisland.anuto.game.entity.effect;
 
-import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
@@ -20,11 +24,7 @@ public class HealEffect extends Effect {
         private Paint mPaint;
 
         public HealDrawable() {
-            mPaint = new Paint();
-            mPaint.setStyle(Paint.Style.STROKE);
-            mPaint.setStrokeWidth(0.05f);
-            mPaint.setColor(Color.BLUE);
-            mPaint.setAlpha(70);
+            mPaint = getPaintPalette().stroke(Color.BLUE, 0.05f).get(70);
         }
 
         @Override
@@ -33,8 +33,8 @@ public class HealEffect extends Effect {
         }
 
         @Override
-        public void draw(Canvas canvas) {
-            canvas.drawCircle(getPosition().x, getPosition().y, mDrawRadius, mPaint);
+        public void draw(RenderBuffer buffer) {
+            buffer.drawCircle(getPosition().x, getPosition().y, mDrawRadius, mPaint);
         }
     }
 
@@ -69,6 +69,28 @@ public class HealEffect extends Effect {
         getGameEngine().remove(mDrawable);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeFloat(mHealAmount);
+        out.writeFloat(mRange);
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mDrawRadius);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mDrawRadius = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
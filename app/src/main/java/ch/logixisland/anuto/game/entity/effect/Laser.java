@@ -1,9 +1,8 @@
 package ch.logixisland.anuto.game.entity.effect;
 
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -11,7 +10,11 @@ import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.PaintPalette;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class Laser extends Effect {
@@ -21,14 +24,11 @@ public class Laser extends Effect {
     private final static int ALPHA_STEP = (int)(ALPHA_START / (GameEngine.TARGET_FRAME_RATE * EFFECT_DURATION));
 
     private class LaserDrawable implements Drawable {
-        private Paint mPaint;
+        private PaintPalette.Style mStyle;
         private int mAlpha = ALPHA_START;
 
         public LaserDrawable() {
-            mPaint = new Paint();
-            mPaint.setStyle(Paint.Style.STROKE);
-            mPaint.setStrokeWidth(0.1f);
-            mPaint.setColor(Color.RED);
+            mStyle = getPaintPalette().stroke(Color.RED, 0.1f);
         }
 
         public void decreaseVisibility() {
@@ -37,8 +37,6 @@ public class Laser extends Effect {
             if (mAlpha < 0) {
                 mAlpha = 0;
             }
-
-            mPaint.setAlpha(mAlpha);
         }
 
         @Override
@@ -47,8 +45,8 @@ public class Laser extends Effect {
         }
 
         @Override
-        public void draw(Canvas canvas) {
-            canvas.drawLine(getPosition().x, getPosition().y, mTargetPos.x, mTargetPos.y, mPaint);
+        public void draw(RenderBuffer buffer) {
+            buffer.drawLine(getPosition().x, getPosition().y, mTargetPos.x, mTargetPos.y, mStyle.get(mAlpha));
         }
     }
 
@@ -103,6 +101,46 @@ public class Laser extends Effect {
         getGameEngine().remove(mDrawObject);
     }
 
+    @Override
+    public boolean isSaved() {
+        // once the target is gone, all that is left to do is drawing
+        return mTarget.isInGame();
+    }
+
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeEntity(mTarget);
+        out.writeFloat(mDamage);
+        out.writeVarInt(mBounce);
+        out.writeFloat(mMaxBounceDist);
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeEntity(mOrigin);
+        out.writeBoolean(mPrevTargets != null);
+
+        if (mPrevTargets != null) {
+            out.writeEntities(mPrevTargets);
+        }
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mOrigin = in.readEntity(Enemy.class);
+
+        // lasers of one chain share their previous targets, restored each gets a copy
+        if (in.readBoolean()) {
+            mPrevTargets = new ArrayList<>(in.readEntities(Enemy.class));
+        }
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -1,14 +1,17 @@
 package ch.logixisland.anuto.game.entity.effect;
 
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
+
+import java.io.IOException;
 
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.PaintPalette;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
@@ -21,14 +24,11 @@ public class LaserStraight extends Effect {
     private final static int ALPHA_STEP = (int)(ALPHA_START / (GameEngine.TARGET_FRAME_RATE * EFFECT_DURATION));
 
     private class LaserDrawable implements Drawable {
-        private Paint mPaint;
+        private PaintPalette.Style mStyle;
         private int mAlpha = ALPHA_START;
 
         public LaserDrawable() {
-            mPaint = new Paint();
-            mPaint.setStyle(Paint.Style.STROKE);
-            mPaint.setStrokeWidth(0.1f);
-            mPaint.setColor(Color.RED);
+            mStyle = getPaintPalette().stroke(Color.RED, 0.1f);
         }
 
         public void decreaseVisibility() {
@@ -37,8 +37,6 @@ public class LaserStraight extends Effect {
             if (mAlpha < 0) {
                 mAlpha = 0;
             }
-
-            mPaint.setAlpha(mAlpha);
         }
 
         @Override
@@ -47,8 +45,8 @@ public class LaserStraight extends Effect {
         }
 
         @Override
-        public void draw(Canvas canvas) {
-            canvas.drawLine(getPosition().x, getPosition().y, mLaserTo.x, mLaserTo.y, mPaint);
+        public void draw(RenderBuffer buffer) {
+            buffer.drawLine(getPosition().x, getPosition().y, mLaserTo.x, mLaserTo.y, mStyle.get(mAlpha));
         }
     }
 
@@ -81,6 +79,14 @@ public class LaserStraight extends Effect {
         getGameEngine().remove(mDrawObject);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeVector(mLaserTo);
+        out.writeFloat(mDamage);
+    }
+
     @Override
     public void tick() {
         super.tick();
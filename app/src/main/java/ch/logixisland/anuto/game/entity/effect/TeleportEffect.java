@@ -1,14 +1,18 @@
 package ch.logixisland.anuto.game.entity.effect;
 
-import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class TeleportEffect extends Effect {
@@ -19,11 +23,7 @@ public class TeleportEffect extends Effect {
         private Paint mPaint;
 
         public TeleportDrawable() {
-            mPaint = new Paint();
-            mPaint.setStyle(Paint.Style.STROKE);
-            mPaint.setStrokeWidth(0.1f);
-            mPaint.setColor(Color.MAGENTA);
-            mPaint.setAlpha(70);
+            mPaint = getPaintPalette().stroke(Color.MAGENTA, 0.1f).get(70);
         }
 
         @Override
@@ -32,9 +32,9 @@ public class TeleportEffect extends Effect {
         }
 
         @Override
-        public void draw(Canvas canvas) {
+        public void draw(RenderBuffer buffer) {
             Vector2 target = mTarget.getPosition();
-            canvas.drawLine(getPosition().x, getPosition().y, target.x, target.y, mPaint);
+            buffer.drawLine(getPosition().x, getPosition().y, target.x, target.y, mPaint);
         }
     }
 
@@ -74,6 +74,36 @@ public class TeleportEffect extends Effect {
         getGameEngine().remove(mDrawObject);
     }
 
+    @Override
+    public boolean isSaved() {
+        // once the target is gone, all that is left to do is drawing
+        return mTarget.isInGame();
+    }
+
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeEntity(mTarget);
+        out.writeFloat(mDistance);
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeVector(mMoveDirection);
+        out.writeFloat(mMoveStep);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mMoveDirection = in.readVector();
+        mMoveStep = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
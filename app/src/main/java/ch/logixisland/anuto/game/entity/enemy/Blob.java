@@ -4,12 +4,17 @@ import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.ReplicatedSprite;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 
 public class Blob extends Enemy {
 
     private final static float ANIMATION_SPEED = 1.5f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.blob, 9);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData implements Runnable {
         SpriteTemplate mSpriteTemplate;
         AnimatedSprite mReferenceSprite;
@@ -33,7 +38,7 @@ public class Blob extends Enemy {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.blob, 9);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.9f, 0.9f, null, null);
 
         s.mReferenceSprite = getSpriteFactory().createAnimated(Layers.ENEMY, s.mSpriteTemplate);
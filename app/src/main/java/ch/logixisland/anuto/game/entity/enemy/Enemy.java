@@ -1,21 +1,22 @@
 package ch.logixisland.anuto.game.entity.enemy;
 
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
-import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.tower.Tower;
-import ch.logixisland.anuto.game.render.Drawable;
-import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.entity.Types;
 import ch.logixisland.anuto.game.data.EnemyConfig;
 import ch.logixisland.anuto.game.data.Path;
+import ch.logixisland.anuto.game.data.Property;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
+import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.util.StateHash;
 import ch.logixisland.anuto.util.iterator.Function;
-import ch.logixisland.anuto.util.math.MathUtils;
 import ch.logixisland.anuto.util.math.vector.Vector2;
-import ch.logixisland.anuto.game.theme.Theme;
 
 
 public abstract class Enemy extends Entity {
@@ -26,44 +27,7 @@ public abstract class Enemy extends Entity {
 
     public static final int TYPE_ID = Types.ENEMY;
 
-    private static final float HEALTHBAR_WIDTH = 1.0f;
-    private static final float HEALTHBAR_HEIGHT = 0.1f;
-    private static final float HEALTHBAR_OFFSET = 0.6f;
-
-    /*
-    ------ Healthbar Class ------
-     */
-
-    private class HealthBar implements Drawable {
-        private Paint mHealthBarBg;
-        private Paint mHealthBarFg;
-
-        public HealthBar() {
-            Theme theme = getThemeManager().getTheme();
-
-            mHealthBarBg = new Paint();
-            mHealthBarBg.setColor(theme.getAltBackgroundColor());
-            mHealthBarFg = new Paint();
-            mHealthBarFg.setColor(Color.GREEN);
-        }
-
-        @Override
-        public int getLayer() {
-            return Layers.ENEMY_HEALTHBAR;
-        }
-
-        @Override
-        public void draw(Canvas canvas) {
-            if (!MathUtils.equals(mHealth, mConfig.getHealth(), 1f)) {
-                canvas.save();
-                canvas.translate(getPosition().x - HEALTHBAR_WIDTH / 2f, getPosition().y + HEALTHBAR_OFFSET);
-
-                canvas.drawRect(0, 0, HEALTHBAR_WIDTH, HEALTHBAR_HEIGHT, mHealthBarBg);
-                canvas.drawRect(0, 0, mHealth / mConfig.getHealth() * HEALTHBAR_WIDTH, HEALTHBAR_HEIGHT, mHealthBarFg);
-                canvas.restore();
-            }
-        }
-    }
+    private static final int SPEED_MODIFIER_CAPACITY = 4;
 
     /*
     ------ Static ------
@@ -73,7 +37,7 @@ public abstract class Enemy extends Entity {
         return new Function<Enemy, Float>() {
             @Override
             public Float apply(Enemy input) {
-                return input.mHealth;
+                return input.getStoreHealth();
             }
         };
     }
@@ -92,18 +56,21 @@ public abstract class Enemy extends Entity {
      */
 
     private EnemyConfig mConfig;
+    private EnemyStore mStore;
+    int mIndex = -1;
 
+    // the state kept while the enemy has no slot in the store
+    private final Vector2 mPosition = new Vector2();
+    private Path mPath;
+    private int mWayPointIndex;
     private float mHealth;
     private float mBaseSpeed;
 
     private float mHealthModifier = 1f;
     private float mRewardModifier = 1f;
-    private float mSpeedModifier = 1f;
-
-    private Path mPath = null;
-    private int mWayPointIndex;
 
-    private HealthBar mHealthBar;
+    private float[] mSpeedModifiers;
+    private int mSpeedModifierCount;
 
     /*
     ------ Constructors ------
@@ -111,10 +78,10 @@ public abstract class Enemy extends Entity {
 
     public Enemy() {
         mConfig = getGameManager().getLevel().getEnemyConfig(this);
+        mStore = getGameEngine().getEnemyStore();
+
         mBaseSpeed = mConfig.getSpeed();
         mHealth = mConfig.getHealth();
-
-        mHealthBar = new HealthBar();
     }
 
     /*
@@ -128,56 +95,239 @@ public abstract class Enemy extends Entity {
 
     @Override
     public void init() {
-        super.init();
+        // the slot is only taken once the enemy is in the game, so enemies that never are do not leak it
+        mIndex = mStore.allocate(this);
+        mStore.setPosition(mIndex, mPosition.x, mPosition.y);
+        mStore.setPath(mIndex, mPath, mWayPointIndex);
+        mStore.setBaseSpeed(mIndex, mBaseSpeed);
+        mStore.setMinSpeed(mIndex, getGameManager().getSettings().getMinSpeedModifier() * mConfig.getSpeed());
+        mStore.setHealth(mIndex, mHealth);
+        mStore.setHealthMax(mIndex, mConfig.getHealth());
+        mStore.setHealthModifier(mIndex, mHealthModifier);
+        mStore.setRewardModifier(mIndex, mRewardModifier);
+
+        for (int i = 0; i < mSpeedModifierCount; i++) {
+            mStore.addSpeedModifier(mIndex, mSpeedModifiers[i]);
+        }
 
-        getGameEngine().add(mHealthBar);
+        mSpeedModifierCount = 0;
+        mStore.setFlag(mIndex, EnemyStore.FLAG_ENABLED, isEnabled());
+        mStore.setFlag(mIndex, EnemyStore.FLAG_IN_GAME, true);
+
+        super.init();
     }
 
     @Override
     public void clean() {
         super.clean();
-        getGameEngine().remove(mHealthBar);
+
+        if (mIndex >= 0) {
+            mStore.getPosition(mIndex, mPosition);
+            mPath = mStore.getPath(mIndex);
+            mWayPointIndex = mStore.getWayPointIndex(mIndex);
+            mHealth = mStore.getHealth(mIndex);
+            mBaseSpeed = mStore.getBaseSpeed(mIndex);
+            mHealthModifier = mStore.getHealthModifier(mIndex);
+            mRewardModifier = mStore.getRewardModifier(mIndex);
+            mSpeedModifierCount = 0;
+
+            for (int i = 0; i < mStore.getSpeedModifierCount(mIndex); i++) {
+                addLocalSpeedModifier(mStore.getSpeedModifier(mIndex, i));
+            }
+
+            mStore.free(mIndex);
+            mIndex = -1;
+        }
     }
 
     @Override
     public void tick() {
         super.tick();
 
-        if (isEnabled()) {
-            if (!hasWayPoint()) {
-                getGameManager().takeLives(1);
-                this.remove();
-                return;
-            }
+        if (isEnabled() && mIndex >= 0 && mStore.hasFlag(mIndex, EnemyStore.FLAG_FINISHED)) {
+            getGameManager().takeLives(1);
+            this.remove();
+        }
+    }
 
-            float stepSize = getSpeed() / GameEngine.TARGET_FRAME_RATE;
-            if (getDistanceTo(getWayPoint()) < stepSize) {
-                setPosition(getWayPoint());
-                mWayPointIndex++;
-            } else {
-                move(getDirection(), stepSize);
-            }
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+
+        if (mIndex >= 0) {
+            mStore.setFlag(mIndex, EnemyStore.FLAG_ENABLED, enabled);
+        }
+    }
+
+    @Override
+    public Vector2 getPosition() {
+        // a new vector for callers that keep it, the queries run every tick use the methods below
+        return getPosition(new Vector2());
+    }
+
+    @Override
+    public Vector2 getPosition(Vector2 out) {
+        if (mIndex >= 0) {
+            return out.set(mStore.getX(mIndex), mStore.getY(mIndex));
+        }
+
+        return out.set(mPosition);
+    }
+
+    @Override
+    public float getDistanceTo(Vector2 target) {
+        float dx;
+        float dy;
+
+        if (mIndex >= 0) {
+            dx = target.x - mStore.getX(mIndex);
+            dy = target.y - mStore.getY(mIndex);
+        } else {
+            dx = target.x - mPosition.x;
+            dy = target.y - mPosition.y;
+        }
+
+        return (float)Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public void setPosition(float x, float y) {
+        if (mIndex >= 0) {
+            mStore.setPosition(mIndex, x, y);
+        } else {
+            mPosition.set(x, y);
+        }
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeVarInt(getGameManager().getLevel().getPaths().indexOf(getPath()) + 1);
+        out.writeVarInt(getWayPointIndex());
+        out.writeFloat(getStoreHealth());
+        out.writeFloat(getBaseSpeed());
+        out.writeFloat(getHealthModifier());
+        out.writeFloat(getRewardModifier());
+        out.writeVarInt(getSpeedModifierCount());
+
+        for (int i = 0; i < getSpeedModifierCount(); i++) {
+            out.writeFloat(getSpeedModifier(i));
+        }
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        int pathIndex = in.readVarInt() - 1;
+        int wayPointIndex = in.readVarInt();
+
+        // unlike setPath() this keeps the position
+        if (pathIndex >= 0) {
+            setPath(getGameManager().getLevel().getPaths().get(pathIndex), wayPointIndex);
+        }
+
+        setStoreHealth(in.readFloat());
+        setBaseSpeed(in.readFloat());
+        setHealthModifier(in.readFloat());
+        setRewardModifier(in.readFloat());
+
+        while (getSpeedModifierCount() > 0) {
+            removeSpeedModifier(getSpeedModifier(0));
+        }
+
+        int speedModifierCount = in.readVarInt();
+
+        for (int i = 0; i < speedModifierCount; i++) {
+            addSpeedModifier(in.readFloat());
+        }
+    }
+
+    /**
+     * Reads the state of this enemy from a record written by {@link EnemyStore#writeRecord}. The
+     * enemy has to be in the game.
+     */
+    public void readRecord(DataInput in, List<Path> paths, int speedModifierSlots) throws IOException {
+        mStore.readRecord(mIndex, in, paths, speedModifierSlots);
+
+        boolean enabled = mStore.hasFlag(mIndex, EnemyStore.FLAG_ENABLED);
+
+        if (enabled != isEnabled()) {
+            setEnabled(enabled);
+        }
+    }
+
+    /**
+     * Returns the slot of this enemy in the {@link EnemyStore}, or -1 while it is not in the game.
+     */
+    public int getStoreIndex() {
+        return mIndex;
+    }
+
+    @Override
+    protected Random getRandom() {
+        // the state of enemies in the game is only what the store holds, which has no room for a
+        // generator, so the few draws of enemies are split from the game generator each time
+        return getGameEngine().splitRandom();
+    }
+
+    /**
+     * Adds the gameplay state of this enemy to the given hash.
+     */
+    public void hash(StateHash hash) {
+        if (mIndex >= 0) {
+            mStore.hash(mIndex, hash);
         }
     }
 
 
     public Path getPath() {
-        return mPath;
+        if (mIndex < 0) {
+            return mPath;
+        }
+
+        return mStore.getPath(mIndex);
     }
 
     public void setPath(Path path) {
-        mPath = path;
+        setPath(path, 1);
+        setPosition(path.get(0));
+    }
 
-        setPosition(mPath.get(0));
-        mWayPointIndex = 1;
+    private void setPath(Path path, int wayPointIndex) {
+        if (mIndex >= 0) {
+            mStore.setPath(mIndex, path, wayPointIndex);
+        } else {
+            mPath = path;
+            mWayPointIndex = wayPointIndex;
+        }
+    }
+
+    private int getWayPointIndex() {
+        if (mIndex < 0) {
+            return mWayPointIndex;
+        }
+
+        return mStore.getWayPointIndex(mIndex);
+    }
+
+    private void setWayPointIndex(int wayPointIndex) {
+        if (mIndex >= 0) {
+            mStore.setWayPointIndex(mIndex, wayPointIndex);
+        } else {
+            mWayPointIndex = wayPointIndex;
+        }
     }
 
 
     public float getSpeed() {
-        float speed = mBaseSpeed * mSpeedModifier;
-        float minSpeed = getGameManager().getSettings().getMinSpeedModifier() * getConfigSpeed();
+        if (mIndex < 0) {
+            float minSpeed = getGameManager().getSettings().getMinSpeedModifier() * mConfig.getSpeed();
+            return Math.max(minSpeed, mBaseSpeed * getSpeedModifier());
+        }
 
-        return Math.max(minSpeed, speed);
+        return mStore.getSpeed(mIndex);
     }
 
     protected float getConfigSpeed() {
@@ -185,11 +335,19 @@ public abstract class Enemy extends Entity {
     }
 
     protected float getBaseSpeed() {
-        return mBaseSpeed;
+        if (mIndex < 0) {
+            return mBaseSpeed;
+        }
+
+        return mStore.getBaseSpeed(mIndex);
     }
 
     protected void setBaseSpeed(float baseSpeed) {
-        mBaseSpeed = baseSpeed;
+        if (mIndex >= 0) {
+            mStore.setBaseSpeed(mIndex, baseSpeed);
+        } else {
+            mBaseSpeed = baseSpeed;
+        }
     }
 
     public Vector2 getDirection() {
@@ -201,23 +359,25 @@ public abstract class Enemy extends Entity {
     }
 
     public Vector2 getPositionAfter(float sec) {
-        if (mPath == null) {
+        Path path = getPath();
+
+        if (path == null) {
             return getPosition();
         }
 
         float distance = sec * getSpeed();
-        int index = mWayPointIndex;
-        Vector2 position = getPosition().copy();
+        int index = getWayPointIndex();
+        Vector2 position = getPosition();
 
-        while (index < mPath.size()) {
-            Vector2 toWaypoint = mPath.get(index).copy().sub(position);
+        while (index < path.size()) {
+            Vector2 toWaypoint = path.get(index).copy().sub(position);
             float toWaypointDist = toWaypoint.len();
 
             if (distance < toWaypointDist) {
                 return position.add(toWaypoint.mul(distance / toWaypointDist));
             } else {
                 distance -= toWaypointDist;
-                position.set(mPath.get(index));
+                position.set(path.get(index));
                 index++;
             }
         }
@@ -226,28 +386,25 @@ public abstract class Enemy extends Entity {
     }
 
     public float getDistanceRemaining() {
-        if (!hasWayPoint()) {
-            return 0;
+        if (mIndex < 0) {
+            return 0f;
         }
 
-        float dist = getDistanceTo(getWayPoint());
+        return mStore.getDistanceRemaining(mIndex);
+    }
 
-        for (int i = mWayPointIndex + 1; i < mPath.size(); i++) {
-            Vector2 wThis = mPath.get(i);
-            Vector2 wLast = mPath.get(i - 1);
+    public void sendBack(float dist) {
+        Path path = getPath();
 
-            dist += wThis.copy().sub(wLast).len();
+        if (path == null) {
+            return;
         }
 
-        return dist;
-    }
-
-    public void sendBack(float dist) {
-        int index = mWayPointIndex - 1;
-        Vector2 pos = getPosition().copy();
+        int index = getWayPointIndex() - 1;
+        Vector2 pos = getPosition();
 
         while (index > 0) {
-            Vector2 wp = mPath.get(index);
+            Vector2 wp = path.get(index);
             Vector2 toWp = Vector2.fromTo(pos, wp);
             float toWpLen = toWp.len();
 
@@ -257,83 +414,191 @@ public abstract class Enemy extends Entity {
                 index--;
             } else {
                 pos = toWp.norm().mul(dist).add(pos);
+                setWayPointIndex(index + 1);
                 setPosition(pos);
-                mWayPointIndex = index + 1;
                 return;
             }
         }
 
-        setPosition(mPath.get(0));
-        mWayPointIndex = 1;
+        setWayPointIndex(1);
+        setPosition(path.get(0));
     }
 
 
     public float getHealth() {
-        return mHealth * mHealthModifier;
+        return getStoreHealth() * getHealthModifier();
+    }
+
+    private float getStoreHealth() {
+        if (mIndex < 0) {
+            return mHealth;
+        }
+
+        return mStore.getHealth(mIndex);
+    }
+
+    private void setStoreHealth(float health) {
+        if (mIndex >= 0) {
+            mStore.setHealth(mIndex, health);
+        } else {
+            mHealth = health;
+        }
     }
 
     public float getHealthMax() {
-        return mConfig.getHealth() * mHealthModifier;
+        return mConfig.getHealth() * getHealthModifier();
     }
 
     public void damage(float dmg, Entity origin) {
         if (origin != null && origin instanceof Tower) {
             Tower originTower = (Tower)origin;
 
-            if (originTower.getConfig().getStrongAgainstEnemies().contains(getClass())) {
-                dmg *= getGameManager().getSettings().getStrongAgainstModifier();
-            }
-
-            if (originTower.getConfig().getWeakAgainstEnemies().contains(getClass())) {
-                dmg *= getGameManager().getSettings().getWeakAgainstModifier();
-            }
-
+            dmg *= originTower.getConfig().getDamageModifier(mConfig);
             originTower.reportDamageInflicted(dmg);
         }
 
-        mHealth -= dmg / mHealthModifier;
+        if (mIndex < 0) {
+            return;
+        }
+
+        float health = mStore.getHealth(mIndex) - dmg / mStore.getHealthModifier(mIndex);
+        mStore.setHealth(mIndex, health);
 
-        if (mHealth <= 0) {
+        if (health <= 0) {
             getGameManager().giveCredits(getReward(), true);
             this.remove();
         }
     }
 
     public void heal(float val) {
-        mHealth += val / mHealthModifier;
+        if (mIndex < 0) {
+            return;
+        }
+
+        float health = mStore.getHealth(mIndex) + val / mStore.getHealthModifier(mIndex);
 
-        if (mHealth > mConfig.getHealth()) {
-            mHealth = mConfig.getHealth();
+        if (health > mConfig.getHealth()) {
+            health = mConfig.getHealth();
         }
+
+        mStore.setHealth(mIndex, health);
     }
 
     public int getReward() {
-        return Math.round(mConfig.getReward() * mRewardModifier);
+        return Math.round(mConfig.getReward() * getRewardModifier());
+    }
+
+
+    public void addSpeedModifier(float f) {
+        if (mIndex >= 0) {
+            mStore.addSpeedModifier(mIndex, f);
+        } else {
+            addLocalSpeedModifier(f);
+        }
+    }
+
+    public void removeSpeedModifier(float f) {
+        if (mIndex >= 0) {
+            mStore.removeSpeedModifier(mIndex, f);
+            return;
+        }
+
+        for (int i = 0; i < mSpeedModifierCount; i++) {
+            if (mSpeedModifiers[i] == f) {
+                mSpeedModifiers[i] = mSpeedModifiers[--mSpeedModifierCount];
+                return;
+            }
+        }
+    }
+
+    private void addLocalSpeedModifier(float f) {
+        if (mSpeedModifiers == null) {
+            mSpeedModifiers = new float[SPEED_MODIFIER_CAPACITY];
+        } else if (mSpeedModifierCount == mSpeedModifiers.length) {
+            mSpeedModifiers = Arrays.copyOf(mSpeedModifiers, mSpeedModifierCount * 2);
+        }
+
+        mSpeedModifiers[mSpeedModifierCount++] = f;
+    }
+
+    private int getSpeedModifierCount() {
+        if (mIndex < 0) {
+            return mSpeedModifierCount;
+        }
+
+        return mStore.getSpeedModifierCount(mIndex);
     }
 
+    private float getSpeedModifier(int modifier) {
+        if (mIndex < 0) {
+            return mSpeedModifiers[modifier];
+        }
+
+        return mStore.getSpeedModifier(mIndex, modifier);
+    }
+
+    private float getSpeedModifier() {
+        // the store keeps the product of the modifiers of the enemies in the game, see EnemyStore
+        float modifier = 1f;
+
+        for (int i = 0; i < mSpeedModifierCount; i++) {
+            modifier *= mSpeedModifiers[i];
+        }
+
+        return modifier;
+    }
+
+    private float getHealthModifier() {
+        if (mIndex < 0) {
+            return mHealthModifier;
+        }
 
-    public void modifySpeed(float f) {
-        mSpeedModifier *= f;
+        return mStore.getHealthModifier(mIndex);
+    }
+
+    private void setHealthModifier(float healthModifier) {
+        if (mIndex >= 0) {
+            mStore.setHealthModifier(mIndex, healthModifier);
+        } else {
+            mHealthModifier = healthModifier;
+        }
+    }
+
+    private float getRewardModifier() {
+        if (mIndex < 0) {
+            return mRewardModifier;
+        }
+
+        return mStore.getRewardModifier(mIndex);
+    }
+
+    private void setRewardModifier(float rewardModifier) {
+        if (mIndex >= 0) {
+            mStore.setRewardModifier(mIndex, rewardModifier);
+        } else {
+            mRewardModifier = rewardModifier;
+        }
     }
 
     public void modifyHealth(float f) {
-        mHealthModifier *= f;
+        setHealthModifier(getHealthModifier() * f);
     }
 
     public void modifyReward(float f) {
-        mRewardModifier *= f;
+        setRewardModifier(getRewardModifier() * f);
     }
 
 
     protected Vector2 getWayPoint() {
-        return mPath.get(mWayPointIndex);
+        return getPath().get(getWayPointIndex());
     }
 
     protected boolean hasWayPoint() {
-        return mPath != null && mWayPointIndex < mPath.size();
+        Path path = getPath();
+        return path != null && getWayPointIndex() < path.size();
     }
 
-    public float getProperty(String name) {
-        return mConfig.getProperties().get(name);
+    public float getProperty(Property property) {
+        return mConfig.getProperty(property);
     }
 }
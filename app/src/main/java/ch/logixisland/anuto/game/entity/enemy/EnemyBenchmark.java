@@ -0,0 +1,78 @@
+package ch.logixisland.anuto.game.entity.enemy;
+
+import android.util.Log;
+
+import java.util.List;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.data.EnemyDescriptor;
+import ch.logixisland.anuto.game.data.Level;
+import ch.logixisland.anuto.game.data.Path;
+
+/**
+ * Starts the given level once per enemy count with that many enemies taken from its waves,
+ * spread along the paths, and logs how many ticks per second the game runs without rendering.
+ * The game loop has to be stopped meanwhile, the level has to be restarted afterwards.
+ */
+public class EnemyBenchmark {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = EnemyBenchmark.class.getSimpleName();
+
+    private final static float SPREAD = 0.05f;
+
+    /*
+    ------ Methods ------
+     */
+
+    public static void run(GameEngine gameEngine, GameManager gameManager, Level level, int[] enemyCounts,
+                           int tickCount) {
+        for (int enemyCount : enemyCounts) {
+            gameManager.setLevel(level);
+            addEnemies(gameEngine, level, enemyCount);
+
+            // the first ticks warm up the JIT
+            for (int i = 0; i < tickCount / 10; i++) {
+                gameEngine.step(null);
+            }
+
+            long timeStart = System.nanoTime();
+
+            for (int i = 0; i < tickCount; i++) {
+                gameEngine.step(null);
+            }
+
+            float time = (System.nanoTime() - timeStart) / 1e9f;
+
+            Log.d(TAG, String.format("%d enemies: %.1f ticks/s, %.2f ms/tick", enemyCount,
+                    tickCount / time, time * 1000f / tickCount));
+        }
+    }
+
+    /**
+     * Adds the given number of enemies from the waves of the level to the game, each one a bit
+     * further along its path than the one before.
+     */
+    public static void addEnemies(GameEngine gameEngine, Level level, int enemyCount) {
+        List<Path> paths = level.getPaths();
+        int added = 0;
+
+        for (int w = 0; added < enemyCount; w = (w + 1) % level.getWaves().size()) {
+            for (EnemyDescriptor d : level.getWaves().get(w).getEnemies()) {
+                if (added == enemyCount) {
+                    break;
+                }
+
+                Enemy e = d.createInstance();
+                e.setPath(paths.get(d.getPathIndex()));
+                e.move((added % 20) * SPREAD, (added / 20 % 20) * SPREAD);
+                gameEngine.add(e);
+                added++;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ch.logixisland.anuto.game.entity.enemy;
+
+import android.graphics.Paint;
+
+import ch.logixisland.anuto.game.render.DetailPolicy;
+import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
+import ch.logixisland.anuto.game.theme.ThemeManager;
+
+/**
+ * Draws every enemy as a plain square straight from the {@link EnemyStore} while the
+ * {@link DetailPolicy} is at its minimal level, in place of the enemy sprites.
+ */
+public class EnemyGlyphRenderer implements Drawable {
+
+    /*
+    ------ Constants ------
+     */
+
+    private static final float GLYPH_SIZE = 0.5f;
+
+    /*
+    ------ Members ------
+     */
+
+    private final EnemyStore mStore;
+    private final DetailPolicy mDetailPolicy;
+    private final ThemeManager mThemeManager;
+
+    private final Paint mPaint = new Paint();
+
+    /*
+    ------ Constructors ------
+     */
+
+    public EnemyGlyphRenderer(EnemyStore store, DetailPolicy detailPolicy, ThemeManager themeManager) {
+        mStore = store;
+        mDetailPolicy = detailPolicy;
+        mThemeManager = themeManager;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    @Override
+    public int getLayer() {
+        return Layers.ENEMY;
+    }
+
+    @Override
+    public void draw(RenderBuffer buffer) {
+        if (mDetailPolicy.getLevel() < DetailPolicy.LEVEL_MINIMAL) {
+            return;
+        }
+
+        final EnemyStore store = mStore;
+        mPaint.setColor(mThemeManager.getTheme().getForegroundColor());
+
+        for (int i = 0; i < store.size(); i++) {
+            float x = store.getX(i);
+            float y = store.getY(i);
+
+            if (!store.hasFlag(i, EnemyStore.FLAG_IN_GAME) || !buffer.isVisible(x, y, GLYPH_SIZE)) {
+                continue;
+            }
+
+            buffer.drawRect(x - GLYPH_SIZE / 2f, y - GLYPH_SIZE / 2f, x + GLYPH_SIZE / 2f, y + GLYPH_SIZE / 2f, mPaint);
+        }
+    }
+}
@@ -0,0 +1,591 @@
+package ch.logixisland.anuto.game.entity.enemy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.data.Path;
+import ch.logixisland.anuto.util.StateHash;
+import ch.logixisland.anuto.util.math.vector.Vector2;
+
+/**
+ * Holds the per-tick state of all enemies in parallel arrays so that path movement can be done
+ * in a single loop over primitive data. {@link Enemy} objects only keep their slot index and
+ * delegate their position, health and speed to this store.
+ *
+ * Slots are kept dense: freeing a slot moves the last slot into the gap. Every enemy also gets an
+ * id when it is added, the ids increase in the order the enemies were added to the game.
+ */
+public class EnemyStore {
+
+    /*
+    ------ Constants ------
+     */
+
+    static final int FLAG_IN_GAME = 1;
+    static final int FLAG_ENABLED = 2;
+    static final int FLAG_FINISHED = 4;
+
+    private static final int FLAGS_MOVING = FLAG_IN_GAME | FLAG_ENABLED;
+    private static final int FLAGS_SAVED = FLAG_ENABLED | FLAG_FINISHED;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_SPEED_MODIFIER_SLOTS = 4;
+
+    private static final int RECORD_FIELDS = 10;
+
+    /*
+    ------ ClassEntry Class ------
+     */
+
+    private static class ClassEntry {
+        // enemies of a class share their static data, so any enemy of the game can stand for it
+        final Enemy mSample;
+        int mCount;
+
+        ClassEntry(Enemy sample) {
+            mSample = sample;
+        }
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private int mSize = 0;
+    private int mNextId = 0;
+
+    private int[] mIds = new int[INITIAL_CAPACITY];
+    private float[] mX = new float[INITIAL_CAPACITY];
+    private float[] mY = new float[INITIAL_CAPACITY];
+    private float[] mDistanceRemaining = new float[INITIAL_CAPACITY];
+    private float[] mHealth = new float[INITIAL_CAPACITY];
+    private float[] mHealthMax = new float[INITIAL_CAPACITY];
+    private float[] mBaseSpeed = new float[INITIAL_CAPACITY];
+    private float[] mMinSpeed = new float[INITIAL_CAPACITY];
+    private float[] mSpeedModifier = new float[INITIAL_CAPACITY];
+    private float[] mHealthModifier = new float[INITIAL_CAPACITY];
+    private float[] mRewardModifier = new float[INITIAL_CAPACITY];
+    private float[] mSpeed = new float[INITIAL_CAPACITY];
+    private float[] mStep = new float[INITIAL_CAPACITY];
+    private int[] mWayPointIndex = new int[INITIAL_CAPACITY];
+    private int[] mFlags = new int[INITIAL_CAPACITY];
+    private Path[] mPaths = new Path[INITIAL_CAPACITY];
+    private Enemy[] mViews = new Enemy[INITIAL_CAPACITY];
+
+    // every slot has room for the same number of speed modifiers, which grows when one needs more
+    private int mSpeedModifierSlots = INITIAL_SPEED_MODIFIER_SLOTS;
+    private float[] mSpeedModifiers = new float[INITIAL_CAPACITY * INITIAL_SPEED_MODIFIER_SLOTS];
+    private int[] mSpeedModifierCount = new int[INITIAL_CAPACITY];
+
+    private final List<ClassEntry> mClasses = new ArrayList<>();
+
+    /*
+    ------ Methods ------
+     */
+
+    public int size() {
+        return mSize;
+    }
+
+    public void tick() {
+        final float[] x = mX;
+        final float[] y = mY;
+        final float[] distanceRemaining = mDistanceRemaining;
+        final int[] flags = mFlags;
+        final float[] steps = mStep;
+        final int[] wayPointIndex = mWayPointIndex;
+        final Path[] paths = mPaths;
+
+        for (int i = 0; i < mSize; i++) {
+            if ((flags[i] & FLAGS_MOVING) != FLAGS_MOVING || paths[i] == null) {
+                continue;
+            }
+
+            Path path = paths[i];
+            int index = wayPointIndex[i];
+
+            if (index >= path.size()) {
+                flags[i] |= FLAG_FINISHED;
+                continue;
+            }
+
+            Vector2 wayPoint = path.get(index);
+            float dx = wayPoint.x - x[i];
+            float dy = wayPoint.y - y[i];
+            float dist = (float)Math.sqrt(dx * dx + dy * dy);
+            float step = steps[i];
+
+            if (dist < step) {
+                x[i] = wayPoint.x;
+                y[i] = wayPoint.y;
+                distanceRemaining[i] = path.getLengthFrom(index);
+                wayPointIndex[i] = index + 1;
+            } else {
+                float f = step / dist;
+                x[i] += dx * f;
+                y[i] += dy * f;
+                distanceRemaining[i] = path.getLengthFrom(index) + dist - step;
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mViews[i].mIndex = -1;
+            mViews[i] = null;
+            mPaths[i] = null;
+        }
+
+        mSize = 0;
+        mNextId = 0;
+        mClasses.clear();
+    }
+
+    /**
+     * Copies the state written to snapshots into the given store, which only holds it and is not
+     * used otherwise. Every field is a single array copy, so this can be done in the tick and the
+     * snapshot written from the copy on another thread.
+     */
+    public void copyTo(EnemyStore copy) {
+        if (copy.mIds.length < mSize) {
+            int capacity = mIds.length;
+
+            copy.mIds = new int[capacity];
+            copy.mX = new float[capacity];
+            copy.mY = new float[capacity];
+            copy.mHealth = new float[capacity];
+            copy.mBaseSpeed = new float[capacity];
+            copy.mHealthModifier = new float[capacity];
+            copy.mRewardModifier = new float[capacity];
+            copy.mWayPointIndex = new int[capacity];
+            copy.mFlags = new int[capacity];
+            copy.mPaths = new Path[capacity];
+            copy.mViews = new Enemy[capacity];
+            copy.mSpeedModifierCount = new int[capacity];
+        }
+
+        if (copy.mSpeedModifiers.length < mSize * mSpeedModifierSlots) {
+            copy.mSpeedModifiers = new float[mIds.length * mSpeedModifierSlots];
+        }
+
+        System.arraycopy(mIds, 0, copy.mIds, 0, mSize);
+        System.arraycopy(mX, 0, copy.mX, 0, mSize);
+        System.arraycopy(mY, 0, copy.mY, 0, mSize);
+        System.arraycopy(mHealth, 0, copy.mHealth, 0, mSize);
+        System.arraycopy(mBaseSpeed, 0, copy.mBaseSpeed, 0, mSize);
+        System.arraycopy(mHealthModifier, 0, copy.mHealthModifier, 0, mSize);
+        System.arraycopy(mRewardModifier, 0, copy.mRewardModifier, 0, mSize);
+        System.arraycopy(mWayPointIndex, 0, copy.mWayPointIndex, 0, mSize);
+        System.arraycopy(mFlags, 0, copy.mFlags, 0, mSize);
+        System.arraycopy(mPaths, 0, copy.mPaths, 0, mSize);
+        System.arraycopy(mViews, 0, copy.mViews, 0, mSize);
+        System.arraycopy(mSpeedModifierCount, 0, copy.mSpeedModifierCount, 0, mSize);
+        System.arraycopy(mSpeedModifiers, 0, copy.mSpeedModifiers, 0, mSize * mSpeedModifierSlots);
+
+        // the references of slots no longer used are dropped, so freed enemies are not kept alive
+        if (copy.mSize > mSize) {
+            Arrays.fill(copy.mPaths, mSize, copy.mSize, null);
+            Arrays.fill(copy.mViews, mSize, copy.mSize, null);
+        }
+
+        copy.mSize = mSize;
+        copy.mSpeedModifierSlots = mSpeedModifierSlots;
+    }
+
+    /**
+     * Adds one enemy of each class with enemies in this store to the given collection, to write
+     * and read the static state of the classes.
+     */
+    public void getClassSamples(Collection<? super Enemy> samples) {
+        for (ClassEntry entry : mClasses) {
+            if (entry.mCount > 0) {
+                samples.add(entry.mSample);
+            }
+        }
+    }
+
+    public int getId(int index) {
+        return mIds[index];
+    }
+
+    public Enemy getEnemy(int index) {
+        return mViews[index];
+    }
+
+    public int getSpeedModifierSlots() {
+        return mSpeedModifierSlots;
+    }
+
+    /**
+     * Returns the size of the records written by {@link #writeRecord}, which is the same for all
+     * enemies of this store.
+     */
+    public int getRecordSize() {
+        return (RECORD_FIELDS + mSpeedModifierSlots) * 4;
+    }
+
+    /**
+     * Writes the state of the enemy in the given slot, without its id, slot and class, as a record
+     * of {@link #getRecordSize()} bytes. The path is written as its index in the given list.
+     */
+    public void writeRecord(int index, DataOutput out, List<Path> paths) throws IOException {
+        out.writeInt(mFlags[index] & FLAGS_SAVED);
+        out.writeFloat(mX[index]);
+        out.writeFloat(mY[index]);
+        out.writeInt(paths.indexOf(mPaths[index]));
+        out.writeInt(mWayPointIndex[index]);
+        out.writeFloat(mHealth[index]);
+        out.writeFloat(mBaseSpeed[index]);
+        out.writeFloat(mHealthModifier[index]);
+        out.writeFloat(mRewardModifier[index]);
+
+        int count = mSpeedModifierCount[index];
+        int offset = index * mSpeedModifierSlots;
+        out.writeInt(count);
+
+        // unused slots are written as well, so that all records have the same size
+        for (int i = 0; i < mSpeedModifierSlots; i++) {
+            out.writeFloat(i < count ? mSpeedModifiers[offset + i] : 0f);
+        }
+    }
+
+    void readRecord(int index, DataInput in, List<Path> paths, int speedModifierSlots) throws IOException {
+        int flags = in.readInt();
+        float x = in.readFloat();
+        float y = in.readFloat();
+        int pathIndex = in.readInt();
+        int wayPointIndex = in.readInt();
+
+        if (pathIndex < -1 || pathIndex >= paths.size()) {
+            throw new IOException("Invalid path " + pathIndex + "!");
+        }
+
+        setPath(index, (pathIndex >= 0) ? paths.get(pathIndex) : null, wayPointIndex);
+        setPosition(index, x, y);
+        mFlags[index] = (mFlags[index] & ~FLAGS_SAVED) | (flags & FLAGS_SAVED);
+        mHealth[index] = in.readFloat();
+        mBaseSpeed[index] = in.readFloat();
+        mHealthModifier[index] = in.readFloat();
+        mRewardModifier[index] = in.readFloat();
+
+        int count = in.readInt();
+
+        if (count < 0 || count > speedModifierSlots) {
+            throw new IOException("Invalid speed modifier count " + count + "!");
+        }
+
+        mSpeedModifierCount[index] = 0;
+
+        for (int i = 0; i < speedModifierSlots; i++) {
+            float modifier = in.readFloat();
+
+            if (i < count) {
+                addSpeedModifier(index, modifier);
+            }
+        }
+
+        updateSpeedModifier(index);
+    }
+
+    /**
+     * Adds the position, health, speed and progress of the enemy in the given slot to the given
+     * hash. Slots are reordered when enemies are freed, so callers hash them in entity order.
+     */
+    void hash(int index, StateHash hash) {
+        hash.put(mX[index]);
+        hash.put(mY[index]);
+        hash.put(mHealth[index]);
+        hash.put(mHealthMax[index]);
+        hash.put(mSpeed[index]);
+        hash.put(mWayPointIndex[index]);
+        hash.put(mFlags[index]);
+    }
+
+    int allocate(Enemy view) {
+        if (mSize == mX.length) {
+            grow();
+        }
+
+        int index = mSize++;
+
+        mIds[index] = mNextId++;
+        mX[index] = 0f;
+        mY[index] = 0f;
+        mDistanceRemaining[index] = 0f;
+        mHealth[index] = 0f;
+        mHealthMax[index] = 0f;
+        mBaseSpeed[index] = 0f;
+        mMinSpeed[index] = 0f;
+        mSpeedModifier[index] = 1f;
+        mHealthModifier[index] = 1f;
+        mRewardModifier[index] = 1f;
+        mSpeed[index] = 0f;
+        mStep[index] = 0f;
+        mWayPointIndex[index] = 0;
+        mFlags[index] = FLAG_ENABLED;
+        mPaths[index] = null;
+        mViews[index] = view;
+        mSpeedModifierCount[index] = 0;
+
+        getClassEntry(view).mCount++;
+        return index;
+    }
+
+    void free(int index) {
+        int last = --mSize;
+        getClassEntry(mViews[index]).mCount--;
+
+        if (index != last) {
+            mIds[index] = mIds[last];
+            mX[index] = mX[last];
+            mY[index] = mY[last];
+            mDistanceRemaining[index] = mDistanceRemaining[last];
+            mHealth[index] = mHealth[last];
+            mHealthMax[index] = mHealthMax[last];
+            mBaseSpeed[index] = mBaseSpeed[last];
+            mMinSpeed[index] = mMinSpeed[last];
+            mSpeedModifier[index] = mSpeedModifier[last];
+            mHealthModifier[index] = mHealthModifier[last];
+            mRewardModifier[index] = mRewardModifier[last];
+            mSpeed[index] = mSpeed[last];
+            mStep[index] = mStep[last];
+            mWayPointIndex[index] = mWayPointIndex[last];
+            mFlags[index] = mFlags[last];
+            mPaths[index] = mPaths[last];
+            mViews[index] = mViews[last];
+            mViews[index].mIndex = index;
+            mSpeedModifierCount[index] = mSpeedModifierCount[last];
+            System.arraycopy(mSpeedModifiers, last * mSpeedModifierSlots, mSpeedModifiers,
+                    index * mSpeedModifierSlots, mSpeedModifierCount[last]);
+        }
+
+        mPaths[last] = null;
+        mViews[last] = null;
+    }
+
+    private void grow() {
+        int capacity = mX.length * 2;
+
+        mIds = Arrays.copyOf(mIds, capacity);
+        mX = Arrays.copyOf(mX, capacity);
+        mY = Arrays.copyOf(mY, capacity);
+        mDistanceRemaining = Arrays.copyOf(mDistanceRemaining, capacity);
+        mHealth = Arrays.copyOf(mHealth, capacity);
+        mHealthMax = Arrays.copyOf(mHealthMax, capacity);
+        mBaseSpeed = Arrays.copyOf(mBaseSpeed, capacity);
+        mMinSpeed = Arrays.copyOf(mMinSpeed, capacity);
+        mSpeedModifier = Arrays.copyOf(mSpeedModifier, capacity);
+        mHealthModifier = Arrays.copyOf(mHealthModifier, capacity);
+        mRewardModifier = Arrays.copyOf(mRewardModifier, capacity);
+        mSpeed = Arrays.copyOf(mSpeed, capacity);
+        mStep = Arrays.copyOf(mStep, capacity);
+        mWayPointIndex = Arrays.copyOf(mWayPointIndex, capacity);
+        mFlags = Arrays.copyOf(mFlags, capacity);
+        mPaths = Arrays.copyOf(mPaths, capacity);
+        mViews = Arrays.copyOf(mViews, capacity);
+        mSpeedModifiers = Arrays.copyOf(mSpeedModifiers, capacity * mSpeedModifierSlots);
+        mSpeedModifierCount = Arrays.copyOf(mSpeedModifierCount, capacity);
+    }
+
+    private void growSpeedModifierSlots() {
+        int slots = mSpeedModifierSlots * 2;
+        float[] speedModifiers = new float[mX.length * slots];
+
+        for (int i = 0; i < mSize; i++) {
+            System.arraycopy(mSpeedModifiers, i * mSpeedModifierSlots, speedModifiers, i * slots,
+                    mSpeedModifierCount[i]);
+        }
+
+        mSpeedModifiers = speedModifiers;
+        mSpeedModifierSlots = slots;
+    }
+
+    private ClassEntry getClassEntry(Enemy view) {
+        for (ClassEntry entry : mClasses) {
+            if (entry.mSample.getClass() == view.getClass()) {
+                return entry;
+            }
+        }
+
+        ClassEntry entry = new ClassEntry(view);
+        mClasses.add(entry);
+        return entry;
+    }
+
+
+    float getX(int index) {
+        return mX[index];
+    }
+
+    float getY(int index) {
+        return mY[index];
+    }
+
+    void getPosition(int index, Vector2 out) {
+        out.set(mX[index], mY[index]);
+    }
+
+    void setPosition(int index, float x, float y) {
+        mX[index] = x;
+        mY[index] = y;
+        updateDistanceRemaining(index);
+    }
+
+    float getDistanceRemaining(int index) {
+        return mDistanceRemaining[index];
+    }
+
+    Path getPath(int index) {
+        return mPaths[index];
+    }
+
+    int getWayPointIndex(int index) {
+        return mWayPointIndex[index];
+    }
+
+    void setPath(int index, Path path, int wayPointIndex) {
+        mPaths[index] = path;
+        mWayPointIndex[index] = wayPointIndex;
+        mFlags[index] &= ~FLAG_FINISHED;
+        updateDistanceRemaining(index);
+    }
+
+    void setWayPointIndex(int index, int wayPointIndex) {
+        mWayPointIndex[index] = wayPointIndex;
+        updateDistanceRemaining(index);
+    }
+
+    float getHealth(int index) {
+        return mHealth[index];
+    }
+
+    void setHealth(int index, float health) {
+        mHealth[index] = health;
+    }
+
+    float getHealthMax(int index) {
+        return mHealthMax[index];
+    }
+
+    void setHealthMax(int index, float healthMax) {
+        mHealthMax[index] = healthMax;
+    }
+
+    float getBaseSpeed(int index) {
+        return mBaseSpeed[index];
+    }
+
+    void setBaseSpeed(int index, float baseSpeed) {
+        if (mBaseSpeed[index] != baseSpeed) {
+            mBaseSpeed[index] = baseSpeed;
+            updateSpeed(index);
+        }
+    }
+
+    void setMinSpeed(int index, float minSpeed) {
+        mMinSpeed[index] = minSpeed;
+        updateSpeed(index);
+    }
+
+    int getSpeedModifierCount(int index) {
+        return mSpeedModifierCount[index];
+    }
+
+    float getSpeedModifier(int index, int modifier) {
+        return mSpeedModifiers[index * mSpeedModifierSlots + modifier];
+    }
+
+    void addSpeedModifier(int index, float modifier) {
+        if (mSpeedModifierCount[index] == mSpeedModifierSlots) {
+            growSpeedModifierSlots();
+        }
+
+        mSpeedModifiers[index * mSpeedModifierSlots + mSpeedModifierCount[index]++] = modifier;
+        updateSpeedModifier(index);
+    }
+
+    void removeSpeedModifier(int index, float modifier) {
+        int offset = index * mSpeedModifierSlots;
+        int count = mSpeedModifierCount[index];
+
+        for (int i = 0; i < count; i++) {
+            if (mSpeedModifiers[offset + i] == modifier) {
+                mSpeedModifiers[offset + i] = mSpeedModifiers[offset + count - 1];
+                mSpeedModifierCount[index] = count - 1;
+                updateSpeedModifier(index);
+                return;
+            }
+        }
+    }
+
+    float getHealthModifier(int index) {
+        return mHealthModifier[index];
+    }
+
+    void setHealthModifier(int index, float healthModifier) {
+        mHealthModifier[index] = healthModifier;
+    }
+
+    float getRewardModifier(int index) {
+        return mRewardModifier[index];
+    }
+
+    void setRewardModifier(int index, float rewardModifier) {
+        mRewardModifier[index] = rewardModifier;
+    }
+
+    float getSpeed(int index) {
+        return mSpeed[index];
+    }
+
+    boolean hasFlag(int index, int flag) {
+        return (mFlags[index] & flag) != 0;
+    }
+
+    void setFlag(int index, int flag, boolean set) {
+        if (set) {
+            mFlags[index] |= flag;
+        } else {
+            mFlags[index] &= ~flag;
+        }
+    }
+
+    private void updateSpeedModifier(int index) {
+        // recalculated from scratch so that entering and leaving effects never accumulates rounding errors
+        int offset = index * mSpeedModifierSlots;
+        float modifier = 1f;
+
+        for (int i = 0; i < mSpeedModifierCount[index]; i++) {
+            modifier *= mSpeedModifiers[offset + i];
+        }
+
+        mSpeedModifier[index] = modifier;
+        updateSpeed(index);
+    }
+
+    private void updateSpeed(int index) {
+        mSpeed[index] = Math.max(mMinSpeed[index], mBaseSpeed[index] * mSpeedModifier[index]);
+        mStep[index] = mSpeed[index] / GameEngine.TARGET_FRAME_RATE;
+    }
+
+    private void updateDistanceRemaining(int index) {
+        Path path = mPaths[index];
+        int wayPoint = mWayPointIndex[index];
+
+        if (path == null || wayPoint >= path.size()) {
+            mDistanceRemaining[index] = 0f;
+            return;
+        }
+
+        Vector2 p = path.get(wayPoint);
+        float dx = p.x - mX[index];
+        float dy = p.y - mY[index];
+        mDistanceRemaining[index] = path.getLengthFrom(wayPoint) + (float)Math.sqrt(dx * dx + dy * dy);
+    }
+}
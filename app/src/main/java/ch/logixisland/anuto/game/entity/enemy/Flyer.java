@@ -7,12 +7,17 @@ import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.ReplicatedSprite;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 
 public class Flyer extends Enemy {
 
     private final static float ANIMATION_SPEED = 1.0f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.flyer, 6);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData implements Runnable {
         SpriteTemplate mSpriteTemplate;
         AnimatedSprite mReferenceSprite;
@@ -38,8 +43,9 @@ public class Flyer extends Enemy {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.flyer, 6);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.9f, 0.9f, null, -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplate);
 
         s.mReferenceSprite = getSpriteFactory().createAnimated(Layers.ENEMY, s.mSpriteTemplate);
         s.mReferenceSprite.setSequenceForwardBackward();
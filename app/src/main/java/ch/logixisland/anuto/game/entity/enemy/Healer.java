@@ -2,24 +2,39 @@ package ch.logixisland.anuto.game.entity.enemy;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.entity.effect.HealEffect;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.TickTimer;
 import ch.logixisland.anuto.game.render.ReplicatedSprite;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.function.Function;
 import ch.logixisland.anuto.util.math.function.SampledFunction;
 
 public class Healer extends Enemy {
 
+    private final static Property HEAL_AMOUNT = Property.get("healAmount");
+    private final static Property HEAL_RADIUS = Property.get("healRadius");
+    private final static Property HEAL_INTERVAL = Property.get("healInterval");
+    private final static Property HEAL_DURATION = Property.get("healDuration");
+
     private final static float ANIMATION_SPEED = 1.5f;
     private final static float HEAL_SCALE_FACTOR = 2f;
     private final static float HEAL_ROTATION = 2.5f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.healer, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData implements Runnable {
         float mHealDuration;
         float mHealInterval;
@@ -72,8 +87,8 @@ public class Healer extends Enemy {
     private ReplicatedSprite mSprite;
 
     public Healer() {
-        mHealAmount = getProperty("healAmount");
-        mHealRange = getProperty("healRadius");
+        mHealAmount = getProperty(HEAL_AMOUNT);
+        mHealRange = getProperty(HEAL_RADIUS);
 
         mStatic = (StaticData)getStaticData();
 
@@ -85,8 +100,8 @@ public class Healer extends Enemy {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mHealInterval = getProperty("healInterval");
-        s.mHealDuration = getProperty("healDuration");
+        s.mHealInterval = getProperty(HEAL_INTERVAL);
+        s.mHealDuration = getProperty(HEAL_DURATION);
 
         s.mHealTimer = TickTimer.createInterval(s.mHealInterval);
 
@@ -104,7 +119,7 @@ public class Healer extends Enemy {
                 .stretch(GameEngine.TARGET_FRAME_RATE * s.mHealDuration * 0.66f / (float) Math.PI)
                 .sample();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.healer, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.9f, 0.9f, null, null);
 
         s.mReferenceSprite = getSpriteFactory().createAnimated(Layers.ENEMY, s.mSpriteTemplate);
@@ -138,6 +153,30 @@ public class Healer extends Enemy {
         canvas.scale(mStatic.mScale, mStatic.mScale);
     }
 
+    @Override
+    public void writeStaticState(SnapshotWriter out) throws IOException {
+        mStatic.mHealTimer.writeState(out);
+        mStatic.mReferenceSprite.writeState(out);
+        out.writeBoolean(mStatic.mHealing);
+        out.writeBoolean(mStatic.mDropEffect);
+        out.writeFloat(mStatic.mAngle);
+        out.writeFloat(mStatic.mScale);
+        out.writeVarInt(mStatic.mScaleFunction.getPosition());
+        out.writeVarInt(mStatic.mRotateFunction.getPosition());
+    }
+
+    @Override
+    public void readStaticState(SnapshotReader in) throws IOException {
+        mStatic.mHealTimer.readState(in);
+        mStatic.mReferenceSprite.readState(in);
+        mStatic.mHealing = in.readBoolean();
+        mStatic.mDropEffect = in.readBoolean();
+        mStatic.mAngle = in.readFloat();
+        mStatic.mScale = in.readFloat();
+        mStatic.mScaleFunction.setPosition(in.readVarInt());
+        mStatic.mRotateFunction.setPosition(in.readVarInt());
+    }
+
     @Override
     public void tick() {
         super.tick();
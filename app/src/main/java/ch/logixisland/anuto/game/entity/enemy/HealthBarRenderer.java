@@ -0,0 +1,136 @@
+package ch.logixisland.anuto.game.entity.enemy;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.SparseBooleanArray;
+
+import java.util.Arrays;
+
+import ch.logixisland.anuto.game.render.DetailPolicy;
+import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
+import ch.logixisland.anuto.game.theme.ThemeManager;
+
+/**
+ * Draws the health bars of all damaged enemies straight from the {@link EnemyStore}. All
+ * backgrounds are emitted before all foregrounds, so both runs share a single paint each. When
+ * the {@link DetailPolicy} reduces detail only one bar per bar sized cell is drawn, at its minimal
+ * level none.
+ */
+public class HealthBarRenderer implements Drawable {
+
+    /*
+    ------ Constants ------
+     */
+
+    private static final float HEALTHBAR_WIDTH = 1.0f;
+    private static final float HEALTHBAR_HEIGHT = 0.1f;
+    private static final float HEALTHBAR_OFFSET = 0.6f;
+
+    private static final float FULL_HEALTH_TOLERANCE = 1f;
+
+    /*
+    ------ Members ------
+     */
+
+    private final EnemyStore mStore;
+    private final DetailPolicy mDetailPolicy;
+    private final ThemeManager mThemeManager;
+
+    private final Paint mPaintBg = new Paint();
+    private final Paint mPaintFg = new Paint();
+
+    private int[] mVisible = new int[16];
+    private final SparseBooleanArray mOccupiedCells = new SparseBooleanArray();
+
+    /*
+    ------ Constructors ------
+     */
+
+    public HealthBarRenderer(EnemyStore store, DetailPolicy detailPolicy, ThemeManager themeManager) {
+        mStore = store;
+        mDetailPolicy = detailPolicy;
+        mThemeManager = themeManager;
+
+        mPaintFg.setColor(Color.GREEN);
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    @Override
+    public int getLayer() {
+        return Layers.ENEMY_HEALTHBAR;
+    }
+
+    @Override
+    public void draw(RenderBuffer buffer) {
+        int level = mDetailPolicy.getLevel();
+
+        if (level == DetailPolicy.LEVEL_MINIMAL) {
+            return;
+        }
+
+        final EnemyStore store = mStore;
+        boolean dropOverlapping = (level == DetailPolicy.LEVEL_REDUCED);
+        int count = 0;
+
+        mOccupiedCells.clear();
+
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.hasFlag(i, EnemyStore.FLAG_IN_GAME) ||
+                    store.getHealthMax(i) - store.getHealth(i) <= FULL_HEALTH_TOLERANCE ||
+                    !buffer.isVisible(store.getX(i), store.getY(i), HEALTHBAR_OFFSET + HEALTHBAR_WIDTH)) {
+                continue;
+            }
+
+            if (dropOverlapping && !occupyCell(store.getX(i), store.getY(i))) {
+                continue;
+            }
+
+            if (count == mVisible.length) {
+                mVisible = Arrays.copyOf(mVisible, count * 2);
+            }
+
+            mVisible[count++] = i;
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        mPaintBg.setColor(mThemeManager.getTheme().getAltBackgroundColor());
+
+        for (int i = 0; i < count; i++) {
+            int index = mVisible[i];
+            float left = store.getX(index) - HEALTHBAR_WIDTH / 2f;
+            float top = store.getY(index) + HEALTHBAR_OFFSET;
+
+            buffer.drawRect(left, top, left + HEALTHBAR_WIDTH, top + HEALTHBAR_HEIGHT, mPaintBg);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int index = mVisible[i];
+            float left = store.getX(index) - HEALTHBAR_WIDTH / 2f;
+            float top = store.getY(index) + HEALTHBAR_OFFSET;
+            float width = store.getHealth(index) / store.getHealthMax(index) * HEALTHBAR_WIDTH;
+
+            buffer.drawRect(left, top, left + width, top + HEALTHBAR_HEIGHT, mPaintFg);
+        }
+    }
+
+    private boolean occupyCell(float x, float y) {
+        int cellX = (int)Math.floor(x / HEALTHBAR_WIDTH);
+        int cellY = (int)Math.floor(y / (HEALTHBAR_HEIGHT * 2f));
+        int key = (cellX << 16) ^ cellY;
+
+        if (mOccupiedCells.get(key)) {
+            return false;
+        }
+
+        mOccupiedCells.put(key, true);
+        return true;
+    }
+}
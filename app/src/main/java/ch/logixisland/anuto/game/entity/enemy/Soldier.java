@@ -4,12 +4,17 @@ import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.ReplicatedSprite;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 
 public class Soldier extends Enemy {
 
     private final static float ANIMATION_SPEED = 1f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.soldier, 12);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData implements Runnable {
         SpriteTemplate mSpriteTemplate;
         AnimatedSprite mReferenceSprite;
@@ -33,7 +38,7 @@ public class Soldier extends Enemy {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.soldier, 12);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.9f, 0.9f, null, null);
 
         s.mReferenceSprite = getSpriteFactory().createAnimated(Layers.ENEMY, s.mSpriteTemplate);
@@ -2,13 +2,18 @@ package ch.logixisland.anuto.game.entity.enemy;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.ReplicatedSprite;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.function.Function;
 import ch.logixisland.anuto.util.math.function.SampledFunction;
 
@@ -16,6 +21,10 @@ public class Sprinter extends Enemy {
 
     private final static float ANIMATION_SPEED = 0.7f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.sprinter, 6);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData implements Runnable {
         SampledFunction mSpeedFunction;
 
@@ -52,8 +61,9 @@ public class Sprinter extends Enemy {
                 .stretch(GameEngine.TARGET_FRAME_RATE / ANIMATION_SPEED / (float)Math.PI)
                 .sample();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.sprinter, 6);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.9f, 0.9f, null, null);
+        getSpriteFactory().prerotate(s.mSpriteTemplate);
 
         s.mReferenceSprite = getSpriteFactory().createAnimated(Layers.ENEMY, s.mSpriteTemplate);
         s.mReferenceSprite.setSequenceForwardBackward();
@@ -85,6 +95,18 @@ public class Sprinter extends Enemy {
         getGameEngine().remove(mSprite);
     }
 
+    @Override
+    public void writeStaticState(SnapshotWriter out) throws IOException {
+        mStatic.mReferenceSprite.writeState(out);
+        out.writeVarInt(mStatic.mSpeedFunction.getPosition());
+    }
+
+    @Override
+    public void readStaticState(SnapshotReader in) throws IOException {
+        mStatic.mReferenceSprite.readState(in);
+        mStatic.mSpeedFunction.setPosition(in.readVarInt());
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -1,13 +1,19 @@
 package ch.logixisland.anuto.game.entity.plateau;
 
+import android.graphics.Bitmap;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
 
 public class BasicPlateau extends Plateau {
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.plateau1, 4, Bitmap.Config.RGB_565);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplate;
     }
@@ -18,7 +24,7 @@ public class BasicPlateau extends Plateau {
         StaticData s = (StaticData)getStaticData();
 
         mSprite = getSpriteFactory().createStatic(Layers.PLATEAU, s.mSpriteTemplate);
-        mSprite.setIndex(Random.next(4));
+        mSprite.setIndex(getRandom().next(4));
         mSprite.setListener(this);
     }
 
@@ -26,7 +32,7 @@ public class BasicPlateau extends Plateau {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.plateau1, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(1f, 1f, null, null);
 
         return s;
@@ -49,6 +49,10 @@ public abstract class Plateau extends Entity {
         return mOccupant != null;
     }
 
+    public Tower getOccupant() {
+        return mOccupant;
+    }
+
     public void setOccupant(Tower occupant) {
         mOccupant = occupant;
     }
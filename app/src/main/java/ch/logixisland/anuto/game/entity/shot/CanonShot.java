@@ -2,15 +2,19 @@ package ch.logixisland.anuto.game.entity.shot;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class CanonShot extends HomingShot {
@@ -19,6 +23,10 @@ public class CanonShot extends HomingShot {
     private final static float ROTATION_SPEED = 1.0f;
     private final static float ROTATION_STEP = ROTATION_SPEED * 360f / GameEngine.TARGET_FRAME_RATE;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.canon_shot, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         public SpriteTemplate mSpriteTemplate;
     }
@@ -40,14 +48,14 @@ public class CanonShot extends HomingShot {
 
         mSprite = getSpriteFactory().createStatic(Layers.SHOT, s.mSpriteTemplate);
         mSprite.setListener(this);
-        mSprite.setIndex(Random.next(4));
+        mSprite.setIndex(getRandom().next(4));
     }
 
     @Override
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.canon_shot, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.33f, 0.33f, null, null);
 
         return s;
@@ -74,6 +82,28 @@ public class CanonShot extends HomingShot {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeEntity(getTarget());
+        out.writeFloat(mDamage);
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+    }
+
     @Override
     public void tick() {
         setDirection(getDirectionTo(getTarget()));
@@ -2,14 +2,17 @@ package ch.logixisland.anuto.game.entity.shot;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class CanonShotMG extends Shot {
@@ -17,6 +20,10 @@ public class CanonShotMG extends Shot {
     private final static float HIT_RANGE = 0.5f;
     private final static float MOVEMENT_SPEED = 8.0f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.canon_mg_shot, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         public SpriteTemplate mSpriteTemplate;
     }
@@ -39,14 +46,14 @@ public class CanonShotMG extends Shot {
 
         mSprite = getSpriteFactory().createStatic(Layers.SHOT, s.mSpriteTemplate);
         mSprite.setListener(this);
-        mSprite.setIndex(Random.next(4));
+        mSprite.setIndex(getRandom().next(4));
     }
 
     @Override
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.canon_mg_shot, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.2f, null, null, -90f);
 
         return s;
@@ -73,6 +80,14 @@ public class CanonShotMG extends Shot {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeVector(getDirection());
+        out.writeFloat(mDamage);
+    }
+
     @Override
     public void tick() {
         super.tick();
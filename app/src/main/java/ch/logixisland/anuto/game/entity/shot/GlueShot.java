@@ -1,12 +1,16 @@
 package ch.logixisland.anuto.game.entity.shot;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.effect.GlueEffect;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class GlueShot extends Shot {
@@ -14,6 +18,10 @@ public class GlueShot extends Shot {
     public final static float MOVEMENT_SPEED = 4.0f;
     private final static float ANIMATION_SPEED = 1.0f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.glue_shot, 6);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         public SpriteTemplate mSpriteTemplate;
     }
@@ -47,7 +55,7 @@ public class GlueShot extends Shot {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.glue_shot, 6);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.33f, 0.33f, null, null);
 
         return s;
@@ -67,6 +75,15 @@ public class GlueShot extends Shot {
         getGameEngine().remove(mSprite);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeVector(mTarget);
+        out.writeFloat(mSpeedModifier);
+        out.writeFloat(mDuration);
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -1,8 +1,12 @@
 package ch.logixisland.anuto.game.entity.shot;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 
 public abstract class HomingShot extends Shot {
 
@@ -61,6 +65,22 @@ public abstract class HomingShot extends Shot {
         }
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeEntity(mTarget);
+        out.writeBoolean(mTargetReached);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        setTarget(in.readEntity(Enemy.class));
+        mTargetReached = in.readBoolean();
+    }
+
     public Enemy getTarget() {
         return mTarget;
     }
@@ -2,6 +2,8 @@ package ch.logixisland.anuto.game.entity.shot;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.Entity;
@@ -10,9 +12,11 @@ import ch.logixisland.anuto.game.entity.enemy.Flyer;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.iterator.Predicate;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 import ch.logixisland.anuto.util.math.function.Function;
@@ -30,6 +34,10 @@ public class Mine extends Shot {
     private final static float HEIGHT_SCALING_STOP = 1.0f;
     private final static float HEIGHT_SCALING_PEAK = 1.5f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.mine, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplate;
     }
@@ -54,7 +62,7 @@ public class Mine extends Shot {
         mDamage = damage;
         mRadius = radius;
 
-        mRotationStep = Random.next(ROTATION_RATE_MIN, ROTATION_RATE_MAX) * 360f / GameEngine.TARGET_FRAME_RATE;
+        mRotationStep = getRandom().next(ROTATION_RATE_MIN, ROTATION_RATE_MAX) * 360f / GameEngine.TARGET_FRAME_RATE;
 
         StaticData s = (StaticData)getStaticData();
 
@@ -67,7 +75,7 @@ public class Mine extends Shot {
                 .stretch(GameEngine.TARGET_FRAME_RATE * TIME_TO_TARGET / (x1 + x2))
                 .sample();
 
-        int index = Random.next(4);
+        int index = getRandom().next(4);
 
         mSpriteFlying = getSpriteFactory().createStatic(Layers.SHOT, s.mSpriteTemplate);
         mSpriteFlying.setListener(this);
@@ -82,7 +90,7 @@ public class Mine extends Shot {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.mine, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.7f, 0.7f, null, null);
 
         return s;
@@ -119,6 +127,44 @@ public class Mine extends Shot {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        // any target will do, the speed and the direction are restored with the state
+        out.writeVector(getPosition().copy().add(getDirection()));
+        out.writeFloat(mDamage);
+        out.writeFloat(mRadius);
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+        out.writeFloat(mRotationStep);
+        out.writeVarInt(mHeightScalingFunction.getPosition());
+        out.writeBoolean(mFlying);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+        mRotationStep = in.readFloat();
+        mHeightScalingFunction.setPosition(in.readVarInt());
+
+        boolean flying = in.readBoolean();
+
+        if (mFlying && !flying && isInGame()) {
+            getGameEngine().remove(mSpriteFlying);
+            getGameEngine().add(mSpriteMine);
+        }
+
+        mFlying = flying;
+    }
+
     @Override
     public void tick() {
         super.tick();
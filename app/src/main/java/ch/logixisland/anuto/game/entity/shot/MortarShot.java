@@ -2,15 +2,19 @@ package ch.logixisland.anuto.game.entity.shot;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.effect.Explosion;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.function.Function;
 import ch.logixisland.anuto.util.math.function.SampledFunction;
 import ch.logixisland.anuto.util.math.vector.Vector2;
@@ -22,6 +26,10 @@ public class MortarShot extends Shot {
     private final static float HEIGHT_SCALING_STOP = 1.0f;
     private final static float HEIGHT_SCALING_PEAK = 1.5f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.grenade, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplate;
     }
@@ -41,7 +49,7 @@ public class MortarShot extends Shot {
 
         mDamage = damage;
         mRadius = radius;
-        mAngle = Random.next(360f);
+        mAngle = getRandom().next(360f);
 
         StaticData s = (StaticData)getStaticData();
 
@@ -56,14 +64,14 @@ public class MortarShot extends Shot {
 
         mSprite = getSpriteFactory().createStatic(Layers.SHOT, s.mSpriteTemplate);
         mSprite.setListener(this);
-        mSprite.setIndex(Random.next(4));
+        mSprite.setIndex(getRandom().next(4));
     }
 
     @Override
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.grenade, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.7f, 0.7f, null, null);
 
         return s;
@@ -92,6 +100,32 @@ public class MortarShot extends Shot {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        // any target will do, the speed and the direction are restored with the state
+        out.writeVector(getPosition().copy().add(getDirection()));
+        out.writeFloat(mDamage);
+        out.writeFloat(mRadius);
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+        out.writeVarInt(mHeightScalingFunction.getPosition());
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+        mHeightScalingFunction.setPosition(in.readVarInt());
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -2,6 +2,8 @@ package ch.logixisland.anuto.game.entity.shot;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.effect.Explosion;
@@ -9,9 +11,11 @@ import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class Rocket extends HomingShot {
@@ -19,6 +23,11 @@ public class Rocket extends HomingShot {
     private final static float MOVEMENT_SPEED = 2.5f;
     private final static float ANIMATION_SPEED = 3f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.rocket, 4);
+    private final static SpriteSheet SHEET_FIRE = new SpriteSheet(R.drawable.rocket_fire, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET, SHEET_FIRE};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplate;
         SpriteTemplate mSpriteTemplateFire;
@@ -44,7 +53,7 @@ public class Rocket extends HomingShot {
 
         mSprite = getSpriteFactory().createStatic(Layers.SHOT, s.mSpriteTemplate);
         mSprite.setListener(this);
-        mSprite.setIndex(Random.next(4));
+        mSprite.setIndex(getRandom().next(4));
 
         mSpriteFire = getSpriteFactory().createAnimated(Layers.SHOT, s.mSpriteTemplateFire);
         mSpriteFire.setListener(this);
@@ -60,11 +69,13 @@ public class Rocket extends HomingShot {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.rocket, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(0.8f, 1f, null, -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplate);
 
-        s.mSpriteTemplateFire = getSpriteFactory().createTemplate(R.drawable.rocket_fire, 4);
+        s.mSpriteTemplateFire = getSpriteFactory().createTemplate(SHEET_FIRE);
         s.mSpriteTemplateFire.setMatrix(0.3f, 0.3f, new Vector2(0.15f, 0.6f), -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateFire);
 
         return s;
     }
@@ -111,6 +122,28 @@ public class Rocket extends HomingShot {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        super.writeCreation(out);
+
+        out.writeFloat(mDamage);
+        out.writeFloat(mRadius);
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+    }
+
     @Override
     public void tick() {
         if (isEnabled()) {
@@ -1,8 +1,12 @@
 package ch.logixisland.anuto.game.entity.shot;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.Types;
 import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public abstract class Shot extends Entity {
@@ -28,6 +32,7 @@ public abstract class Shot extends Entity {
 
     protected Shot(Entity origin) {
         mOrigin = origin;
+        deriveRandom(origin);
     }
 
     /*
@@ -49,6 +54,35 @@ public abstract class Shot extends Entity {
     }
 
 
+    /**
+     * Writes the origin and the position, the arguments all shots are created with.
+     */
+    @Override
+    public void writeCreation(SnapshotWriter out) throws IOException {
+        out.writeEntity(mOrigin);
+        out.writeVector(getPosition());
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mSpeed);
+        out.writeBoolean(mDirection != null);
+
+        if (mDirection != null) {
+            out.writeVector(mDirection);
+        }
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mSpeed = in.readFloat();
+        mDirection = in.readBoolean() ? in.readVector() : null;
+    }
+
     public Entity getOrigin() {
         return mOrigin;
     }
@@ -1,7 +1,12 @@
 package ch.logixisland.anuto.game.entity.tower;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
+import ch.logixisland.anuto.util.StateHash;
 
 public abstract class AimingTower extends Tower {
 
@@ -20,6 +25,22 @@ public abstract class AimingTower extends Tower {
     private static Strategy sDefaultStrategy = Strategy.Closest;
     private static boolean sDefaultLockTarget = true;
 
+    public static Strategy getDefaultStrategy() {
+        return sDefaultStrategy;
+    }
+
+    public static boolean getDefaultLockTarget() {
+        return sDefaultLockTarget;
+    }
+
+    /**
+     * Sets what new towers start with, which is otherwise what was last set on any tower.
+     */
+    public static void setDefaults(Strategy strategy, boolean lockTarget) {
+        sDefaultStrategy = strategy;
+        sDefaultLockTarget = lockTarget;
+    }
+
     /*
     ------ Members ------
      */
@@ -107,6 +128,39 @@ public abstract class AimingTower extends Tower {
         return upgrade;
     }
 
+    @Override
+    public void hash(StateHash hash) {
+        super.hash(hash);
+
+        hash.put(mStrategy.ordinal());
+        hash.put(mLockOnTarget);
+        hash.put(mTarget != null);
+
+        if (mTarget != null) {
+            hash.put(mTarget.getPosition().x);
+            hash.put(mTarget.getPosition().y);
+        }
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeVarInt(mStrategy.ordinal());
+        out.writeBoolean(mLockOnTarget);
+        out.writeEntity(mTarget);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        // not through the setters, which change the defaults
+        mStrategy = Strategy.values()[in.readVarInt()];
+        mLockOnTarget = in.readBoolean();
+        setTarget(in.readEntity(Enemy.class));
+    }
+
     public Enemy getTarget() {
         return mTarget;
     }
@@ -2,15 +2,20 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.shot.CanonShot;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.shot.Shot;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.function.Function;
 import ch.logixisland.anuto.util.math.function.SampledFunction;
 import ch.logixisland.anuto.util.math.vector.Vector2;
@@ -21,6 +26,11 @@ public class Canon extends AimingTower {
     private final static float REBOUND_RANGE = 0.25f;
     private final static float REBOUND_DURATION = 0.2f;
 
+    private final static SpriteSheet SHEET_BASE = new SpriteSheet(R.drawable.base1, 4);
+    private final static SpriteSheet SHEET_CANON = new SpriteSheet(R.drawable.canon, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET_BASE, SHEET_CANON};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplateBase;
         SpriteTemplate mSpriteTemplateCanon;
@@ -44,22 +54,22 @@ public class Canon extends AimingTower {
 
         mSpriteBase = getSpriteFactory().createStatic(Layers.TOWER_BASE, s.mSpriteTemplateBase);
         mSpriteBase.setListener(this);
-        mSpriteBase.setIndex(Random.next(4));
 
         mSpriteCanon = getSpriteFactory().createStatic(Layers.TOWER, s.mSpriteTemplateCanon);
         mSpriteCanon.setListener(this);
-        mSpriteCanon.setIndex(Random.next(4));
     }
 
     @Override
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(R.drawable.base1, 4);
+        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(SHEET_BASE);
         s.mSpriteTemplateBase.setMatrix(1f, 1f, null, null);
+        getSpriteFactory().prerotate(s.mSpriteTemplateBase);
 
-        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(R.drawable.canon, 4);
+        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(SHEET_CANON);
         s.mSpriteTemplateCanon.setMatrix(0.4f, 1.0f, new Vector2(0.2f, 0.2f), -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateCanon);
 
         return s;
     }
@@ -68,6 +78,9 @@ public class Canon extends AimingTower {
     public void init() {
         super.init();
 
+        mSpriteBase.setIndex(getRandom().next(4));
+        mSpriteCanon.setIndex(getRandom().next(4));
+
         getGameEngine().add(mSpriteBase);
         getGameEngine().add(mSpriteCanon);
     }
@@ -91,6 +104,20 @@ public class Canon extends AimingTower {
         }
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -118,8 +145,8 @@ public class Canon extends AimingTower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSpriteBase.draw(canvas);
-        mSpriteCanon.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSpriteBase.draw(buffer);
+        mSpriteCanon.draw(buffer);
     }
 }
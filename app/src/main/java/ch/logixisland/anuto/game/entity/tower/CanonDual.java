@@ -2,15 +2,20 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.entity.shot.CanonShot;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.shot.Shot;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.function.Function;
 import ch.logixisland.anuto.util.math.function.SampledFunction;
 import ch.logixisland.anuto.util.math.vector.Vector2;
@@ -21,6 +26,12 @@ public class CanonDual extends AimingTower {
     private final static float REBOUND_RANGE = 0.25f;
     private final static float REBOUND_DURATION = 0.2f;
 
+    private final static SpriteSheet SHEET_BASE = new SpriteSheet(R.drawable.base1, 4);
+    private final static SpriteSheet SHEET_TOWER = new SpriteSheet(R.drawable.canon_dual, 4);
+    private final static SpriteSheet SHEET_CANON = new SpriteSheet(R.drawable.canon, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET_BASE, SHEET_TOWER, SHEET_CANON};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplateBase;
         SpriteTemplate mSpriteTemplateTower;
@@ -49,11 +60,9 @@ public class CanonDual extends AimingTower {
 
         mSpriteBase = getSpriteFactory().createStatic(Layers.TOWER_BASE, s.mSpriteTemplateBase);
         mSpriteBase.setListener(this);
-        mSpriteBase.setIndex(Random.next(4));
 
         mSpriteTower = getSpriteFactory().createStatic(Layers.TOWER_LOWER, s.mSpriteTemplateTower);
         mSpriteTower.setListener(this);
-        mSpriteTower.setIndex(Random.next(4));
 
         for (int i = 0; i < mCanons.length; i++) {
             mCanons[i] = new SubCanon();
@@ -62,7 +71,6 @@ public class CanonDual extends AimingTower {
 
             mCanons[i].sprite = getSpriteFactory().createStatic(Layers.TOWER, s.mSpriteTemplateCanon);
             mCanons[i].sprite.setListener(this);
-            mCanons[i].sprite.setIndex(Random.next(4));
         }
     }
 
@@ -70,14 +78,17 @@ public class CanonDual extends AimingTower {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(R.drawable.base1, 4);
+        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(SHEET_BASE);
         s.mSpriteTemplateBase.setMatrix(1f, 1f, null, null);
+        getSpriteFactory().prerotate(s.mSpriteTemplateBase);
 
-        s.mSpriteTemplateTower = getSpriteFactory().createTemplate(R.drawable.canon_dual, 4);
+        s.mSpriteTemplateTower = getSpriteFactory().createTemplate(SHEET_TOWER);
         s.mSpriteTemplateTower.setMatrix(0.5f, 0.5f, null, -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateTower);
 
-        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(R.drawable.canon, 4);
+        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(SHEET_CANON);
         s.mSpriteTemplateCanon.setMatrix(0.3f, 1.0f, new Vector2(0.15f, 0.4f), -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateCanon);
 
         return s;
     }
@@ -86,10 +97,14 @@ public class CanonDual extends AimingTower {
     public void init() {
         super.init();
 
+        mSpriteBase.setIndex(getRandom().next(4));
+        mSpriteTower.setIndex(getRandom().next(4));
+
         getGameEngine().add(mSpriteBase);
         getGameEngine().add(mSpriteTower);
 
         for (SubCanon c : mCanons) {
+            c.sprite.setIndex(getRandom().next(4));
             getGameEngine().add(c.sprite);
         }
     }
@@ -131,6 +146,22 @@ public class CanonDual extends AimingTower {
         }
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+        out.writeBoolean(mShoot2);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+        mShoot2 = in.readBoolean();
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -179,10 +210,10 @@ public class CanonDual extends AimingTower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSpriteBase.draw(canvas);
-        mSpriteTower.draw(canvas);
-        mCanons[0].sprite.draw(canvas);
-        mCanons[1].sprite.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSpriteBase.draw(buffer);
+        mSpriteTower.draw(buffer);
+        mCanons[0].sprite.draw(buffer);
+        mCanons[1].sprite.draw(buffer);
     }
 }
@@ -2,15 +2,20 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.entity.shot.CanonShotMG;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.shot.Shot;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class CanonMG extends AimingTower {
@@ -18,6 +23,11 @@ public class CanonMG extends AimingTower {
     private final static float SHOT_SPAWN_OFFSET = 0.7f;
     private final static float MG_ROTATION_SPEED = 2f;
 
+    private final static SpriteSheet SHEET_BASE = new SpriteSheet(R.drawable.base1, 4);
+    private final static SpriteSheet SHEET_CANON = new SpriteSheet(R.drawable.canon_mg, 5);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET_BASE, SHEET_CANON};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplateBase;
         SpriteTemplate mSpriteTemplateCanon;
@@ -32,7 +42,6 @@ public class CanonMG extends AimingTower {
 
         mSpriteBase = getSpriteFactory().createStatic(Layers.TOWER_BASE, s.mSpriteTemplateBase);
         mSpriteBase.setListener(this);
-        mSpriteBase.setIndex(Random.next(4));
 
         mSpriteCanon = getSpriteFactory().createAnimated(Layers.TOWER, s.mSpriteTemplateCanon);
         mSpriteCanon.setListener(this);
@@ -44,11 +53,13 @@ public class CanonMG extends AimingTower {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(R.drawable.base1, 4);
+        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(SHEET_BASE);
         s.mSpriteTemplateBase.setMatrix(1f, 1f, null, null);
+        getSpriteFactory().prerotate(s.mSpriteTemplateBase);
 
-        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(R.drawable.canon_mg, 5);
+        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(SHEET_CANON);
         s.mSpriteTemplateCanon.setMatrix(0.8f, 1.0f, new Vector2(0.4f, 0.4f), -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateCanon);
 
         return s;
     }
@@ -57,6 +68,8 @@ public class CanonMG extends AimingTower {
     public void init() {
         super.init();
 
+        mSpriteBase.setIndex(getRandom().next(4));
+
         getGameEngine().add(mSpriteBase);
         getGameEngine().add(mSpriteCanon);
     }
@@ -76,6 +89,20 @@ public class CanonMG extends AimingTower {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -95,8 +122,8 @@ public class CanonMG extends AimingTower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSpriteBase.draw(canvas);
-        mSpriteCanon.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSpriteBase.draw(buffer);
+        mSpriteCanon.draw(buffer);
     }
 }
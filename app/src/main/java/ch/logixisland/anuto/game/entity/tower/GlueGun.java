@@ -2,21 +2,34 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.entity.shot.GlueShot;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class GlueGun extends AimingTower {
 
+    private final static Property GLUE_DURATION = Property.get("glueDuration");
+
     private final static float SHOT_SPAWN_OFFSET = 0.7f;
     private final static float REBOUND_DURATION = 0.5f;
 
+    private final static SpriteSheet SHEET_BASE = new SpriteSheet(R.drawable.base1, 4);
+    private final static SpriteSheet SHEET_CANON = new SpriteSheet(R.drawable.glue_gun, 6);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET_BASE, SHEET_CANON};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplateBase;
         SpriteTemplate mSpriteTemplateCanon;
@@ -30,13 +43,12 @@ public class GlueGun extends AimingTower {
     private AnimatedSprite mSpriteCanon;
 
     public GlueGun() {
-        mGlueDuration = getProperty("glueDuration");
+        mGlueDuration = getProperty(GLUE_DURATION);
 
         StaticData s = (StaticData)getStaticData();
 
         mSpriteBase = getSpriteFactory().createStatic(Layers.TOWER_BASE, s.mSpriteTemplateBase);
         mSpriteBase.setListener(this);
-        mSpriteBase.setIndex(Random.next(4));
 
         mSpriteCanon = getSpriteFactory().createAnimated(Layers.TOWER, s.mSpriteTemplateCanon);
         mSpriteCanon.setListener(this);
@@ -48,11 +60,13 @@ public class GlueGun extends AimingTower {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(R.drawable.base1, 4);
+        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(SHEET_BASE);
         s.mSpriteTemplateBase.setMatrix(1f, 1f, null, null);
+        getSpriteFactory().prerotate(s.mSpriteTemplateBase);
 
-        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(R.drawable.glue_gun, 6);
+        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(SHEET_CANON);
         s.mSpriteTemplateCanon.setMatrix(0.8f, 1.0f, new Vector2(0.4f, 0.4f), -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateCanon);
 
         return s;
     }
@@ -61,6 +75,8 @@ public class GlueGun extends AimingTower {
     public void init() {
         super.init();
 
+        mSpriteBase.setIndex(getRandom().next(4));
+
         getGameEngine().add(mSpriteBase);
         getGameEngine().add(mSpriteCanon);
     }
@@ -80,6 +96,20 @@ public class GlueGun extends AimingTower {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -107,8 +137,8 @@ public class GlueGun extends AimingTower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSpriteBase.draw(canvas);
-        mSpriteCanon.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSpriteBase.draw(buffer);
+        mSpriteCanon.draw(buffer);
     }
 }
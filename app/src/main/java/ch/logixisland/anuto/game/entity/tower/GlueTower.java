@@ -2,27 +2,40 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import ch.logixisland.anuto.R;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.entity.shot.GlueShot;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.render.SpriteInstance;
 import ch.logixisland.anuto.game.render.SpriteListener;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.iterator.Predicate;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class GlueTower extends Tower {
 
+    private final static Property GLUE_DURATION = Property.get("glueDuration");
+
     private final static float SHOT_SPAWN_OFFSET = 0.8f;
 
     private final static float CANON_OFFSET_MAX = 0.5f;
 
+    private final static SpriteSheet SHEET_BASE = new SpriteSheet(R.drawable.base4, 4);
+    private final static SpriteSheet SHEET_TOWER = new SpriteSheet(R.drawable.glue_shot, 6);
+    private final static SpriteSheet SHEET_CANON = new SpriteSheet(R.drawable.glue_tower_gun, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET_BASE, SHEET_TOWER, SHEET_CANON};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplateBase;
         SpriteTemplate mSpriteTemplateTower;
@@ -52,17 +65,15 @@ public class GlueTower extends Tower {
     private StaticSprite mSpriteTower;
 
     public GlueTower() {
-        mGlueDuration = getProperty("glueDuration");
+        mGlueDuration = getProperty(GLUE_DURATION);
 
         StaticData s = (StaticData)getStaticData();
 
         mSpriteBase = getSpriteFactory().createStatic(Layers.TOWER, s.mSpriteTemplateBase);
         mSpriteBase.setListener(this);
-        mSpriteBase.setIndex(Random.next(4));
 
         mSpriteTower = getSpriteFactory().createStatic(Layers.TOWER_UPPER, s.mSpriteTemplateTower);
         mSpriteTower.setListener(this);
-        mSpriteTower.setIndex(Random.next(6));
 
         for (int i = 0; i < mCanons.length; i++) {
             SubCanon c = new SubCanon();
@@ -77,13 +88,13 @@ public class GlueTower extends Tower {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(R.drawable.base4, 4);
+        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(SHEET_BASE);
         s.mSpriteTemplateBase.setMatrix(1f, 1f, null, null);
 
-        s.mSpriteTemplateTower = getSpriteFactory().createTemplate(R.drawable.glue_shot, 6);
+        s.mSpriteTemplateTower = getSpriteFactory().createTemplate(SHEET_TOWER);
         s.mSpriteTemplateTower.setMatrix(0.3f, 0.3f, null, null);
 
-        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(R.drawable.glue_tower_gun, 4);
+        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(SHEET_CANON);
         s.mSpriteTemplateCanon.setMatrix(0.3f, 0.4f, null, -90f);
 
         return s;
@@ -93,6 +104,9 @@ public class GlueTower extends Tower {
     public void init() {
         super.init();
 
+        mSpriteBase.setIndex(getRandom().next(4));
+        mSpriteTower.setIndex(getRandom().next(6));
+
         getGameEngine().add(mSpriteBase);
         getGameEngine().add(mSpriteTower);
 
@@ -127,6 +141,22 @@ public class GlueTower extends Tower {
         super.onDraw(sprite, canvas);
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeBoolean(mShooting);
+        out.writeFloat(mCanonOffset);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mShooting = in.readBoolean();
+        mCanonOffset = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -155,9 +185,9 @@ public class GlueTower extends Tower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSpriteBase.draw(canvas);
-        mSpriteTower.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSpriteBase.draw(buffer);
+        mSpriteTower.draw(buffer);
     }
 
     private void determineTargets() {
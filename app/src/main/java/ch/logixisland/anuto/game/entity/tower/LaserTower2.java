@@ -2,19 +2,33 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.entity.effect.Laser;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class LaserTower2 extends AimingTower {
 
+    private final static Property BOUNCE = Property.get("bounce");
+    private final static Property BOUNCE_DISTANCE = Property.get("bounceDistance");
+
     private final static float LASER_SPAWN_OFFSET = 0.7f;
 
+    private final static SpriteSheet SHEET_BASE = new SpriteSheet(R.drawable.base5, 4);
+    private final static SpriteSheet SHEET_CANON = new SpriteSheet(R.drawable.laser_tower2, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET_BASE, SHEET_CANON};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplateBase;
         SpriteTemplate mSpriteTemplateCanon;
@@ -28,17 +42,15 @@ public class LaserTower2 extends AimingTower {
     private StaticSprite mSpriteCanon;
 
     public LaserTower2() {
-        mBounce = (int)getProperty("bounce");
-        mBounceDistance = getProperty("bounceDistance");
+        mBounce = (int)getProperty(BOUNCE);
+        mBounceDistance = getProperty(BOUNCE_DISTANCE);
 
         StaticData s = (StaticData)getStaticData();
 
         mSpriteBase = getSpriteFactory().createStatic(Layers.TOWER_BASE, s.mSpriteTemplateBase);
-        mSpriteBase.setIndex(Random.next(4));
         mSpriteBase.setListener(this);
 
         mSpriteCanon = getSpriteFactory().createStatic(Layers.TOWER, s.mSpriteTemplateCanon);
-        mSpriteCanon.setIndex(Random.next(4));
         mSpriteCanon.setListener(this);
     }
 
@@ -46,11 +58,13 @@ public class LaserTower2 extends AimingTower {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(R.drawable.base5, 4);
+        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(SHEET_BASE);
         s.mSpriteTemplateBase.setMatrix(1f, 1f, null, -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateBase);
 
-        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(R.drawable.laser_tower2, 4);
+        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(SHEET_CANON);
         s.mSpriteTemplateCanon.setMatrix(0.4f, 1.0f, new Vector2(0.2f, 0.2f), -90f);
+        getSpriteFactory().prerotate(s.mSpriteTemplateCanon);
 
         return s;
     }
@@ -59,6 +73,9 @@ public class LaserTower2 extends AimingTower {
     public void init() {
         super.init();
 
+        mSpriteBase.setIndex(getRandom().next(4));
+        mSpriteCanon.setIndex(getRandom().next(4));
+
         getGameEngine().add(mSpriteBase);
         getGameEngine().add(mSpriteCanon);
     }
@@ -78,6 +95,20 @@ public class LaserTower2 extends AimingTower {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -94,8 +125,8 @@ public class LaserTower2 extends AimingTower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSpriteBase.draw(canvas);
-        mSpriteCanon.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSpriteBase.draw(buffer);
+        mSpriteCanon.draw(buffer);
     }
 }
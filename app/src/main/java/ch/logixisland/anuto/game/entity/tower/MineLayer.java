@@ -2,23 +2,37 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import ch.logixisland.anuto.R;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.entity.shot.Mine;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class MineLayer extends Tower {
 
+    private final static Property MAX_MINE_COUNT = Property.get("maxMineCount");
+    private final static Property EXPLOSION_RADIUS = Property.get("explosionRadius");
+    private final static Property ENHANCE_MAX_MINE_COUNT = Property.get("enhanceMaxMineCount");
+    private final static Property ENHANCE_EXPLOSION_RADIUS = Property.get("enhanceExplosionRadius");
+
     private final static float ANIMATION_DURATION = 1f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.minelayer, 6);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET};
+
     private class StaticData {
         public SpriteTemplate mSpriteTemplate;
     }
@@ -46,9 +60,8 @@ public class MineLayer extends Tower {
     };
 
     public MineLayer() {
-        mAngle = Random.next(360f);
-        mMaxMineCount = (int)getProperty("maxMineCount");
-        mExplosionRadius = getProperty("explosionRadius");
+        mMaxMineCount = (int)getProperty(MAX_MINE_COUNT);
+        mExplosionRadius = getProperty(EXPLOSION_RADIUS);
 
         StaticData s = (StaticData)getStaticData();
 
@@ -62,7 +75,7 @@ public class MineLayer extends Tower {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.minelayer, 6);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(1f, 1f, null, null);
 
         return s;
@@ -72,6 +85,8 @@ public class MineLayer extends Tower {
     public void init() {
         super.init();
 
+        mAngle = getRandom().next(360f);
+
         getGameEngine().add(mSprite);
     }
 
@@ -101,8 +116,8 @@ public class MineLayer extends Tower {
     @Override
     public void enhance() {
         super.enhance();
-        mMaxMineCount += getProperty("enhanceMaxMineCount");
-        mExplosionRadius += getProperty("enhanceExplosionRadius");
+        mMaxMineCount += getProperty(ENHANCE_MAX_MINE_COUNT);
+        mExplosionRadius += getProperty(ENHANCE_EXPLOSION_RADIUS);
     }
 
     @Override
@@ -112,6 +127,34 @@ public class MineLayer extends Tower {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+        out.writeVarInt(mMaxMineCount);
+        out.writeFloat(mExplosionRadius);
+        out.writeBoolean(mShooting);
+        mSprite.writeState(out);
+        out.writeEntities(mMines);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+        mMaxMineCount = in.readVarInt();
+        mExplosionRadius = in.readFloat();
+        mShooting = in.readBoolean();
+        mSprite.readState(in);
+
+        for (Mine m : in.readEntities(Mine.class)) {
+            m.addListener(mMineListener);
+            mMines.add(m);
+        }
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -140,8 +183,8 @@ public class MineLayer extends Tower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSprite.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSprite.draw(buffer);
     }
 
     private Vector2 getTarget() {
@@ -151,7 +194,7 @@ public class MineLayer extends Tower {
             totalLen += s.len;
         }
 
-        float dist = Random.next(totalLen);
+        float dist = getRandom().next(totalLen);
 
         for (PathSection s : mSections) {
             if (dist > s.len) {
@@ -2,21 +2,36 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.entity.shot.MortarShot;
 import ch.logixisland.anuto.game.render.AnimatedSprite;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class Mortar extends AimingTower {
 
+    private final static Property INACCURACY = Property.get("inaccuracy");
+    private final static Property EXPLOSION_RADIUS = Property.get("explosionRadius");
+    private final static Property ENHANCE_EXPLOSION_RADIUS = Property.get("enhanceExplosionRadius");
+
     private final static float SHOT_SPAWN_OFFSET = 0.6f;
     private final static float REBOUND_DURATION = 0.5f;
 
+    private final static SpriteSheet SHEET_BASE = new SpriteSheet(R.drawable.base2, 4);
+    private final static SpriteSheet SHEET_CANON = new SpriteSheet(R.drawable.mortar, 8);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET_BASE, SHEET_CANON};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplateBase;
         SpriteTemplate mSpriteTemplateCanon;
@@ -31,13 +46,12 @@ public class Mortar extends AimingTower {
     private AnimatedSprite mSpriteCanon;
 
     public Mortar() {
-        mInaccuracy = getProperty("inaccuracy");
-        mExplosionRadius = getProperty("explosionRadius");
+        mInaccuracy = getProperty(INACCURACY);
+        mExplosionRadius = getProperty(EXPLOSION_RADIUS);
 
         StaticData s = (StaticData)getStaticData();
 
         mSpriteBase = getSpriteFactory().createStatic(Layers.TOWER_BASE, s.mSpriteTemplateBase);
-        mSpriteBase.setIndex(Random.next(4));
         mSpriteBase.setListener(this);
 
         mSpriteCanon = getSpriteFactory().createAnimated(Layers.TOWER, s.mSpriteTemplateCanon);
@@ -50,10 +64,10 @@ public class Mortar extends AimingTower {
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(R.drawable.base2, 4);
+        s.mSpriteTemplateBase = getSpriteFactory().createTemplate(SHEET_BASE);
         s.mSpriteTemplateBase.setMatrix(1f, 1f, null, null);
 
-        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(R.drawable.mortar, 8);
+        s.mSpriteTemplateCanon = getSpriteFactory().createTemplate(SHEET_CANON);
         s.mSpriteTemplateCanon.setMatrix(0.8f, null, new Vector2(0.4f, 0.2f), -90f);
 
         return s;
@@ -63,6 +77,8 @@ public class Mortar extends AimingTower {
     public void init() {
         super.init();
 
+        mSpriteBase.setIndex(getRandom().next(4));
+
         getGameEngine().add(mSpriteBase);
         getGameEngine().add(mSpriteCanon);
     }
@@ -78,7 +94,7 @@ public class Mortar extends AimingTower {
     @Override
     public void enhance() {
         super.enhance();
-        mExplosionRadius += getProperty("enhanceExplosionRadius");
+        mExplosionRadius += getProperty(ENHANCE_EXPLOSION_RADIUS);
     }
 
     @Override
@@ -90,13 +106,29 @@ public class Mortar extends AimingTower {
         }
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+        out.writeFloat(mExplosionRadius);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+        mExplosionRadius = in.readFloat();
+    }
+
     @Override
     public void tick() {
         super.tick();
 
         if (getTarget() != null && isReloaded()) {
             Vector2 targetPos = getTarget().getPositionAfter(MortarShot.TIME_TO_TARGET);
-            targetPos.add(Vector2.polar(Random.next(mInaccuracy), Random.next(360f)));
+            targetPos.add(Vector2.polar(getRandom().next(mInaccuracy), getRandom().next(360f)));
             Vector2 shotPos = getPosition().copy().add(Vector2.polar(SHOT_SPAWN_OFFSET, mAngle));
             mAngle = getAngleTo(targetPos);
 
@@ -112,8 +144,8 @@ public class Mortar extends AimingTower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSpriteBase.draw(canvas);
-        mSpriteCanon.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSpriteBase.draw(buffer);
+        mSpriteCanon.draw(buffer);
     }
 }
@@ -2,19 +2,33 @@ package ch.logixisland.anuto.game.entity.tower;
 
 import android.graphics.Canvas;
 
+import java.io.IOException;
+
 import ch.logixisland.anuto.R;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.entity.shot.Rocket;
 import ch.logixisland.anuto.game.render.Layers;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.TickTimer;
 import ch.logixisland.anuto.game.render.SpriteInstance;
+import ch.logixisland.anuto.game.render.SpriteSheet;
 import ch.logixisland.anuto.game.render.SpriteTemplate;
 import ch.logixisland.anuto.game.render.StaticSprite;
-import ch.logixisland.anuto.util.Random;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
 
 public class RocketLauncher extends AimingTower {
 
+    private final static Property EXPLOSION_RADIUS = Property.get("explosionRadius");
+    private final static Property ENHANCE_EXPLOSION_RADIUS = Property.get("enhanceExplosionRadius");
+
     private final static float ROCKET_LOAD_TIME = 1.0f;
 
+    private final static SpriteSheet SHEET = new SpriteSheet(R.drawable.rocket_launcher, 4);
+    private final static SpriteSheet SHEET_ROCKET = new SpriteSheet(R.drawable.rocket, 4);
+
+    public final static SpriteSheet[] SPRITE_SHEETS = {SHEET, SHEET_ROCKET};
+
     private class StaticData {
         SpriteTemplate mSpriteTemplate;
         SpriteTemplate mSpriteTemplateRocket; // used for preview only
@@ -29,7 +43,7 @@ public class RocketLauncher extends AimingTower {
     private StaticSprite mSpriteRocket; // used for preview only
 
     public RocketLauncher() {
-        mExplosionRadius = getProperty("explosionRadius");
+        mExplosionRadius = getProperty(EXPLOSION_RADIUS);
 
         StaticData s = (StaticData)getStaticData();
 
@@ -37,21 +51,19 @@ public class RocketLauncher extends AimingTower {
 
         mSprite = getSpriteFactory().createStatic(Layers.TOWER_BASE, s.mSpriteTemplate);
         mSprite.setListener(this);
-        mSprite.setIndex(Random.next(4));
 
         mSpriteRocket = getSpriteFactory().createStatic(Layers.TOWER, s.mSpriteTemplateRocket);
         mSpriteRocket.setListener(this);
-        mSpriteRocket.setIndex(Random.next(4));
     }
 
     @Override
     public Object initStatic() {
         StaticData s = new StaticData();
 
-        s.mSpriteTemplate = getSpriteFactory().createTemplate(R.drawable.rocket_launcher, 4);
+        s.mSpriteTemplate = getSpriteFactory().createTemplate(SHEET);
         s.mSpriteTemplate.setMatrix(1.1f, 1.1f, null, -90f);
 
-        s.mSpriteTemplateRocket = getSpriteFactory().createTemplate(R.drawable.rocket, 4);
+        s.mSpriteTemplateRocket = getSpriteFactory().createTemplate(SHEET_ROCKET);
         s.mSpriteTemplateRocket.setMatrix(0.8f, 1f, null, -90f);
 
         return s;
@@ -61,6 +73,9 @@ public class RocketLauncher extends AimingTower {
     public void init() {
         super.init();
 
+        mSprite.setIndex(getRandom().next(4));
+        mSpriteRocket.setIndex(getRandom().next(4));
+
         getGameEngine().add(mSprite);
     }
 
@@ -78,7 +93,7 @@ public class RocketLauncher extends AimingTower {
     @Override
     public void enhance() {
         super.enhance();
-        mExplosionRadius += getProperty("enhanceExplosionRadius");
+        mExplosionRadius += getProperty(ENHANCE_EXPLOSION_RADIUS);
     }
 
     @Override
@@ -88,6 +103,26 @@ public class RocketLauncher extends AimingTower {
         canvas.rotate(mAngle);
     }
 
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeFloat(mAngle);
+        out.writeFloat(mExplosionRadius);
+        out.writeEntity(mRocket);
+        mRocketLoadTimer.writeState(out);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        mAngle = in.readFloat();
+        mExplosionRadius = in.readFloat();
+        mRocket = in.readEntity(Rocket.class);
+        mRocketLoadTimer.readState(in);
+    }
+
     @Override
     public void tick() {
         super.tick();
@@ -116,8 +151,8 @@ public class RocketLauncher extends AimingTower {
     }
 
     @Override
-    public void preview(Canvas canvas) {
-        mSprite.draw(canvas);
-        mSpriteRocket.draw(canvas);
+    public void preview(RenderBuffer buffer) {
+        mSprite.draw(buffer);
+        mSpriteRocket.draw(buffer);
     }
 }
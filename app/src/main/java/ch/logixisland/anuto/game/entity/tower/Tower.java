@@ -1,9 +1,9 @@
 package ch.logixisland.anuto.game.entity.tower;
 
-import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,11 +11,16 @@ import ch.logixisland.anuto.game.entity.enemy.Enemy;
 import ch.logixisland.anuto.game.entity.Entity;
 import ch.logixisland.anuto.game.entity.plateau.Plateau;
 import ch.logixisland.anuto.game.render.Drawable;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.render.Layers;
 import ch.logixisland.anuto.game.TickTimer;
 import ch.logixisland.anuto.game.entity.Types;
 import ch.logixisland.anuto.game.data.Path;
+import ch.logixisland.anuto.game.data.Property;
 import ch.logixisland.anuto.game.data.TowerConfig;
+import ch.logixisland.anuto.game.snapshot.SnapshotReader;
+import ch.logixisland.anuto.game.snapshot.SnapshotWriter;
+import ch.logixisland.anuto.util.StateHash;
 import ch.logixisland.anuto.util.iterator.StreamIterator;
 import ch.logixisland.anuto.util.math.vector.Intersections;
 import ch.logixisland.anuto.util.math.MathUtils;
@@ -37,11 +42,7 @@ public abstract class Tower extends Entity {
         private Paint mPen;
 
         public RangeIndicator() {
-            mPen = new Paint();
-            mPen.setStyle(Paint.Style.STROKE);
-            mPen.setStrokeWidth(0.05f);
-            mPen.setColor(Color.GREEN);
-            mPen.setAlpha(128);
+            mPen = getPaintPalette().stroke(Color.GREEN, 0.05f).get(128);
         }
 
         @Override
@@ -50,8 +51,8 @@ public abstract class Tower extends Entity {
         }
 
         @Override
-        public void draw(Canvas canvas) {
-            canvas.drawCircle(getPosition().x, getPosition().y, getRange(), mPen);
+        public void draw(RenderBuffer buffer) {
+            buffer.drawCircle(getPosition().x, getPosition().y, getRange(), mPen);
         }
     }
 
@@ -141,7 +142,7 @@ public abstract class Tower extends Entity {
         }
     }
 
-    public abstract void preview(Canvas canvas);
+    public abstract void preview(RenderBuffer buffer);
 
 
     public Plateau getPlateau() {
@@ -158,6 +159,12 @@ public abstract class Tower extends Entity {
         if (mPlateau != null) {
             mPlateau.setOccupant(this);
             setPosition(mPlateau.getPosition());
+
+            // towers draw from a generator split from the one of their plateau, so their results do
+            // not depend on how many entities were created before them
+            if (!isInGame()) {
+                deriveRandom(mPlateau);
+            }
         }
     }
 
@@ -201,6 +208,61 @@ public abstract class Tower extends Entity {
     }
 
 
+    /**
+     * Adds the gameplay state of this tower to the given hash.
+     */
+    public void hash(StateHash hash) {
+        hash.put(mConfig.getIndex());
+        hash.put(getPosition().x);
+        hash.put(getPosition().y);
+        hash.put(isEnabled());
+        hash.put(mValue);
+        hash.put(mLevel);
+        hash.put(mDamage);
+        hash.put(mRange);
+        hash.put(mReloadTime);
+        hash.put(mReloaded);
+        hash.put(mDamageInflicted);
+    }
+
+
+    @Override
+    public boolean isSaved() {
+        // towers dragged around before they are built have no plateau yet
+        return mPlateau != null;
+    }
+
+    @Override
+    public void writeState(SnapshotWriter out) throws IOException {
+        super.writeState(out);
+
+        out.writeEntity(mPlateau);
+        out.writeInt(mValue);
+        out.writeVarInt(mLevel);
+        out.writeFloat(mDamage);
+        out.writeFloat(mRange);
+        out.writeFloat(mReloadTime);
+        out.writeFloat(mDamageInflicted);
+        out.writeBoolean(mReloaded);
+        mReloadTimer.writeState(out);
+    }
+
+    @Override
+    public void readState(SnapshotReader in) throws IOException {
+        super.readState(in);
+
+        setPlateau(in.readEntity(Plateau.class));
+        mValue = in.readInt();
+        mLevel = in.readVarInt();
+        mDamage = in.readFloat();
+        mRange = in.readFloat();
+        mReloadTime = in.readFloat();
+        mDamageInflicted = in.readFloat();
+        mReloaded = in.readBoolean();
+        mReloadTimer.readState(in);
+    }
+
+
     public void buy() {
         getGameManager().takeCredits(mValue);
         mValue *= getGameManager().getSettings().getAgeModifier();
@@ -216,17 +278,7 @@ public abstract class Tower extends Entity {
 
     public Tower upgrade() {
         Plateau plateau = this.getPlateau();
-        Tower upgrade;
-
-        try {
-            upgrade = mConfig.getUpgradeTowerConfig().getTowerClass().newInstance();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-            throw new RuntimeException();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-            throw new RuntimeException();
-        }
+        Tower upgrade = mConfig.getUpgradeTowerConfig().createTower();
 
         int cost = getUpgradeCost();
         getGameManager().takeCredits(cost);
@@ -377,7 +429,7 @@ public abstract class Tower extends Entity {
         return mConfig;
     }
 
-    public float getProperty(String name) {
-        return mConfig.getProperties().get(name);
+    public float getProperty(Property property) {
+        return mConfig.getProperty(property);
     }
 }
@@ -1,5 +1,9 @@
 package ch.logixisland.anuto.game.render;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import ch.logixisland.anuto.game.TickTimer;
 
 public class AnimatedSprite extends SpriteInstance {
@@ -36,8 +40,8 @@ public class AnimatedSprite extends SpriteInstance {
     }
 
     public void setSequenceForward() {
-        int bitmapCount = getTemplate().getBitmapCount();
-        int seq[] = new int[bitmapCount];
+        int regionCount = getTemplate().getRegionCount();
+        int seq[] = new int[regionCount];
 
         for (int i = 0; i < seq.length; i++) {
             seq[i] = i;
@@ -47,14 +51,14 @@ public class AnimatedSprite extends SpriteInstance {
     }
 
     public void setSequenceForwardBackward() {
-        int bitmapCount = getTemplate().getBitmapCount();
-        int seq[] = new int[bitmapCount * 2 - 2];
+        int regionCount = getTemplate().getRegionCount();
+        int seq[] = new int[regionCount * 2 - 2];
 
         for (int i = 0; i < seq.length; i++) {
-            if (i < bitmapCount) {
+            if (i < regionCount) {
                 seq[i] = i;
             } else {
-                seq[i] = bitmapCount * 2 - 2 - i;
+                seq[i] = regionCount * 2 - 2 - i;
             }
         }
 
@@ -62,11 +66,11 @@ public class AnimatedSprite extends SpriteInstance {
     }
 
     public void setSequenceBackward() {
-        int bitmapCount = getTemplate().getBitmapCount();
-        int seq[] = new int[bitmapCount];
+        int regionCount = getTemplate().getRegionCount();
+        int seq[] = new int[regionCount];
 
         for (int i = 0; i < seq.length; i++) {
-            seq[i] = bitmapCount - 1 - i;
+            seq[i] = regionCount - 1 - i;
         }
 
         setSequence(seq);
@@ -92,4 +96,13 @@ public class AnimatedSprite extends SpriteInstance {
         return ret;
     }
 
+    public void writeState(DataOutput out) throws IOException {
+        mTimer.writeState(out);
+        out.writeByte(mSequenceIndex);
+    }
+
+    public void readState(DataInput in) throws IOException {
+        mTimer.readState(in);
+        mSequenceIndex = in.readUnsignedByte();
+    }
 }
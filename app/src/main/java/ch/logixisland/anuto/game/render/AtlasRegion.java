@@ -0,0 +1,53 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * A single sprite frame inside a {@link TextureAtlas} page.
+ */
+public class AtlasRegion {
+
+    /*
+    ------ Members ------
+     */
+
+    private final Bitmap mAtlas;
+    private final Rect mSource;
+    private final RectF mDestination;
+
+    /*
+    ------ Constructors ------
+     */
+
+    AtlasRegion(Bitmap atlas, Rect source) {
+        mAtlas = atlas;
+        mSource = source;
+        mDestination = new RectF(0, 0, source.width(), source.height());
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public Bitmap getAtlas() {
+        return mAtlas;
+    }
+
+    public Rect getSource() {
+        return mSource;
+    }
+
+    public RectF getDestination() {
+        return mDestination;
+    }
+
+    public int getWidth() {
+        return mSource.width();
+    }
+
+    public int getHeight() {
+        return mSource.height();
+    }
+}
@@ -0,0 +1,428 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the sliced sprite sheets in a {@link TextureAtlas}, keyed by resource, theme and scale,
+ * together with the {@link RotatedFrames} rendered from them. Templates keep a reference on their
+ * sheet and rotated frames. Unreferenced sheets stay cached so restarting a game
+ * does not decode them again, and are evicted in least recently used order once the atlas pages
+ * exceed the memory budget or {@link #evictUnused()} is called. A page is dropped as soon as no cached
+ * sheet is left on it and recycled by the next {@link #recycleEvicted()}, once no recorded frame can
+ * reference it anymore.
+ */
+public class BitmapCache {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = BitmapCache.class.getSimpleName();
+
+    /*
+    ------ Key Class ------
+     */
+
+    public static class Key {
+        private final int mResourceId;
+        private final int mSpriteCount;
+        private final int mThemeId;
+        private final float mScale;
+        private final Bitmap.Config mConfig;
+
+        public Key(int resourceId, int spriteCount, int themeId, float scale, Bitmap.Config config) {
+            mResourceId = resourceId;
+            mSpriteCount = spriteCount;
+            mThemeId = themeId;
+            mScale = scale;
+            mConfig = config;
+        }
+
+        public int getResourceId() {
+            return mResourceId;
+        }
+
+        public int getSpriteCount() {
+            return mSpriteCount;
+        }
+
+        public int getThemeId() {
+            return mThemeId;
+        }
+
+        public float getScale() {
+            return mScale;
+        }
+
+        public Bitmap.Config getConfig() {
+            return mConfig;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key)o;
+            return mResourceId == other.mResourceId && mSpriteCount == other.mSpriteCount &&
+                    mThemeId == other.mThemeId && mScale == other.mScale && mConfig == other.mConfig;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = mResourceId;
+            hash = 31 * hash + mSpriteCount;
+            hash = 31 * hash + mThemeId;
+            hash = 31 * hash + Float.floatToIntBits(mScale);
+            hash = 31 * hash + mConfig.hashCode();
+            return hash;
+        }
+    }
+
+    /*
+    ------ RotationKey Class ------
+     */
+
+    static class RotationKey {
+        private final Key mSheetKey;
+        private final int mAngleCount;
+        private final float[] mMatrixValues = new float[9];
+
+        RotationKey(Key sheetKey, int angleCount, Matrix matrix) {
+            mSheetKey = sheetKey;
+            mAngleCount = angleCount;
+            matrix.getValues(mMatrixValues);
+        }
+
+        Key getSheetKey() {
+            return mSheetKey;
+        }
+
+        int getAngleCount() {
+            return mAngleCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RotationKey)) {
+                return false;
+            }
+
+            RotationKey other = (RotationKey)o;
+            return mSheetKey.equals(other.mSheetKey) && mAngleCount == other.mAngleCount &&
+                    Arrays.equals(mMatrixValues, other.mMatrixValues);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = mSheetKey.hashCode();
+            hash = 31 * hash + mAngleCount;
+            hash = 31 * hash + Arrays.hashCode(mMatrixValues);
+            return hash;
+        }
+    }
+
+    /*
+    ------ Entry Class ------
+     */
+
+    private static class Entry {
+        final AtlasRegion[] mRegions;
+        final long mBytesSaved;
+        final RotatedFrames mRotatedFrames;
+        int mRefCount;
+
+        Entry(AtlasRegion[] regions, long bytesSaved, RotatedFrames rotatedFrames) {
+            mRegions = regions;
+            mBytesSaved = bytesSaved;
+            mRotatedFrames = rotatedFrames;
+        }
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final long mBudget;
+    private final TextureAtlas mAtlas = new TextureAtlas();
+
+    private final LinkedHashMap<Object, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Bitmap, Integer> mPageUsers = new IdentityHashMap<>();
+    private final List<Bitmap> mEvictedPages = new ArrayList<>();
+
+    private long mBytesHeld;
+    private long mBytesSaved;
+    private int mHitCount;
+    private int mMissCount;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public BitmapCache(long budget) {
+        mBudget = budget;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    /**
+     * Returns the regions of the given sheet, or null if it is not cached. When acquire is set,
+     * a reference is added that has to be given back by {@link #release(Key)}.
+     */
+    public synchronized AtlasRegion[] get(Key key, boolean acquire) {
+        Entry entry = mEntries.get(key);
+
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+
+        mHitCount++;
+
+        if (acquire) {
+            entry.mRefCount++;
+        }
+
+        return entry.mRegions;
+    }
+
+    /**
+     * Slices the decoded sheet into the atlas and recycles it. Sheets in another config than
+     * ARGB_8888 are kept as a page of their own, so they do not need a page of their config that
+     * might stay mostly empty. If another thread cached the same sheet in the meantime, its regions
+     * are returned instead.
+     */
+    public synchronized AtlasRegion[] put(Key key, Bitmap sheet, boolean acquire) {
+        Entry entry = mEntries.get(key);
+        boolean keepSheet = false;
+
+        if (entry == null) {
+            if (key.getConfig() == Bitmap.Config.ARGB_8888) {
+                entry = new Entry(slice(sheet, key.getSpriteCount(), mAtlas), 0, null);
+            } else {
+                long bytesSaved = (long)sheet.getWidth() * sheet.getHeight() * 4 - sheet.getByteCount();
+                entry = new Entry(slice(sheet, key.getSpriteCount(), null), bytesSaved, null);
+                mBytesSaved += bytesSaved;
+                keepSheet = true;
+            }
+
+            mEntries.put(key, entry);
+
+            for (Bitmap page : getPages(entry)) {
+                addPageUser(page);
+            }
+        }
+
+        if (!keepSheet) {
+            sheet.recycle();
+        }
+
+        if (acquire) {
+            entry.mRefCount++;
+        }
+
+        trim(key, mBudget);
+        return entry.mRegions;
+    }
+
+    /**
+     * Returns the given frames drawn with the given matrix and pre-rendered at the angles of the
+     * key, rendering them into the atlas if they are not cached. A reference is added that has to
+     * be given back by {@link #release(Object)}.
+     */
+    synchronized RotatedFrames getRotated(RotationKey key, List<AtlasRegion> frames, Matrix matrix) {
+        Entry entry = mEntries.get(key);
+
+        if (entry == null) {
+            mMissCount++;
+
+            long timeStart = System.nanoTime();
+            RotatedFrames rotatedFrames = new RotatedFrames(mAtlas, frames, matrix, key.getAngleCount());
+            entry = new Entry(rotatedFrames.getRegions(), 0, rotatedFrames);
+            mEntries.put(key, entry);
+
+            for (Bitmap page : getPages(entry)) {
+                addPageUser(page);
+            }
+
+            Log.d(TAG, String.format("pre-rotated %d frames at %d angles in %d ms",
+                    frames.size(), key.getAngleCount(), (System.nanoTime() - timeStart) / 1000000));
+        } else {
+            mHitCount++;
+        }
+
+        entry.mRefCount++;
+        trim(key, mBudget);
+        return entry.mRotatedFrames;
+    }
+
+    /**
+     * Gives back a reference on a sheet or on rotated frames.
+     */
+    public synchronized void release(Object key) {
+        Entry entry = mEntries.get(key);
+
+        if (entry == null || entry.mRefCount == 0) {
+            throw new RuntimeException("Released sprite sheet that was not acquired!");
+        }
+
+        entry.mRefCount--;
+        trim(null, mBudget);
+    }
+
+    /**
+     * Drops the given sheet or rotated frames right away if no template holds a reference on them.
+     */
+    public synchronized void evict(Object key) {
+        Entry entry = mEntries.get(key);
+
+        if (entry != null && entry.mRefCount == 0) {
+            mEntries.remove(key);
+            removeEntry(entry);
+        }
+    }
+
+    /**
+     * Drops all sheets no template holds a reference on, regardless of the budget.
+     */
+    public synchronized void evictUnused() {
+        trim(null, 0);
+    }
+
+    /**
+     * Keeps the given atlas page from being dropped until {@link #releasePage(Bitmap)}, even if
+     * the templates drawing from it are released. Used by views that draw sprites outside of the
+     * game, which may release its templates at any time.
+     */
+    public synchronized void holdPage(Bitmap page) {
+        addPageUser(page);
+    }
+
+    public synchronized void releasePage(Bitmap page) {
+        removePageUser(page);
+    }
+
+    public synchronized void recycleEvicted() {
+        for (Bitmap page : mEvictedPages) {
+            page.recycle();
+        }
+
+        mEvictedPages.clear();
+    }
+
+    public synchronized long getBudget() {
+        return mBudget;
+    }
+
+    public synchronized long getBytesHeld() {
+        return mBytesHeld;
+    }
+
+    /**
+     * Returns the heap the cached sheets save by not being held as ARGB_8888.
+     */
+    public synchronized long getBytesSaved() {
+        return mBytesSaved;
+    }
+
+    public synchronized int getEntryCount() {
+        return mEntries.size();
+    }
+
+    public synchronized float getHitRate() {
+        int total = mHitCount + mMissCount;
+        return (total == 0) ? 0f : (float)mHitCount / total;
+    }
+
+    private AtlasRegion[] slice(Bitmap sheet, int spriteCount, TextureAtlas atlas) {
+        AtlasRegion[] regions = new AtlasRegion[spriteCount];
+        int spriteWidth = sheet.getWidth() / spriteCount;
+        int spriteHeight = sheet.getHeight();
+
+        for (int i = 0; i < spriteCount; i++) {
+            Rect frame = new Rect(spriteWidth * i, 0, spriteWidth * (i + 1), spriteHeight);
+            regions[i] = (atlas != null) ? atlas.add(sheet, frame) : new AtlasRegion(sheet, frame);
+        }
+
+        return regions;
+    }
+
+    private Iterable<Bitmap> getPages(Entry entry) {
+        Map<Bitmap, Boolean> pages = new IdentityHashMap<>();
+
+        for (AtlasRegion region : entry.mRegions) {
+            pages.put(region.getAtlas(), Boolean.TRUE);
+        }
+
+        return pages.keySet();
+    }
+
+    private void addPageUser(Bitmap page) {
+        Integer users = mPageUsers.get(page);
+
+        if (users == null) {
+            users = 0;
+            mBytesHeld += page.getByteCount();
+        }
+
+        mPageUsers.put(page, users + 1);
+    }
+
+    private void removePageUser(Bitmap page) {
+        int users = mPageUsers.get(page) - 1;
+
+        if (users > 0) {
+            mPageUsers.put(page, users);
+            return;
+        }
+
+        mPageUsers.remove(page);
+        mBytesHeld -= page.getByteCount();
+        mAtlas.remove(page);
+        mEvictedPages.add(page);
+    }
+
+    private void removeEntry(Entry entry) {
+        mBytesSaved -= entry.mBytesSaved;
+
+        for (Bitmap page : getPages(entry)) {
+            removePageUser(page);
+        }
+    }
+
+    private void trim(Object keep, long budget) {
+        Iterator<Map.Entry<Object, Entry>> iterator = mEntries.entrySet().iterator();
+
+        while (mBytesHeld > budget && iterator.hasNext()) {
+            Map.Entry<Object, Entry> candidate = iterator.next();
+
+            if (candidate.getValue().mRefCount > 0 || candidate.getKey().equals(keep)) {
+                continue;
+            }
+
+            iterator.remove();
+            removeEntry(candidate.getValue());
+
+            Object key = candidate.getKey();
+            boolean rotated = key instanceof RotationKey;
+            Key sheetKey = rotated ? ((RotationKey)key).getSheetKey() : (Key)key;
+
+            Log.d(TAG, String.format("evicted %s %d, %d kB held, hit rate %.2f", rotated ? "rotated frames of sheet" : "sheet",
+                    sheetKey.getResourceId(), mBytesHeld / 1024, getHitRate()));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Matrix;
+import android.graphics.RectF;
+
+/**
+ * Maps the game grid to the screen. Without zoom the whole grid fits the screen like before,
+ * zooming in shows a part of it that can be panned around. The matrix, its inverse and the
+ * visible rectangle in game units are updated together whenever the camera changes.
+ */
+public class Camera {
+
+    /*
+    ------ Constants ------
+     */
+
+    public final static float MAX_ZOOM = 4f;
+
+    /*
+    ------ Members ------
+     */
+
+    private float mGameWidth = 10f;
+    private float mGameHeight = 10f;
+    private float mScreenWidth = 100f;
+    private float mScreenHeight = 100f;
+
+    private float mZoom = 1f;
+    private float mCenterX;
+    private float mCenterY;
+
+    private final Matrix mScreenMatrix = new Matrix();
+    private final Matrix mScreenMatrixInverse = new Matrix();
+    private final RectF mViewport = new RectF();
+    private final float[] mPoint = new float[2];
+
+    /*
+    ------ Constructors ------
+     */
+
+    public Camera() {
+        reset();
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public synchronized void setGameSize(float width, float height) {
+        mGameWidth = width;
+        mGameHeight = height;
+        reset();
+    }
+
+    public synchronized void setScreenSize(float width, float height) {
+        mScreenWidth = width;
+        mScreenHeight = height;
+        update();
+    }
+
+    /**
+     * Shows the whole grid again.
+     */
+    public synchronized void reset() {
+        mZoom = 1f;
+        mCenterX = mGameWidth / 2f - 0.5f;
+        mCenterY = mGameHeight / 2f - 0.5f;
+        update();
+    }
+
+    /**
+     * Moves the camera so the content follows a drag by the given distance in screen pixels.
+     */
+    public synchronized void pan(float dx, float dy) {
+        float tileSize = getTileSize();
+        mCenterX -= dx / tileSize;
+        mCenterY += dy / tileSize;
+        update();
+    }
+
+    /**
+     * Multiplies the zoom by the given factor, keeping the game position under the given screen
+     * position where it is.
+     */
+    public synchronized void zoom(float factor, float focusX, float focusY) {
+        float[] focus = mPoint;
+        focus[0] = focusX;
+        focus[1] = focusY;
+        mScreenMatrixInverse.mapPoints(focus);
+
+        float zoom = Math.max(1f, Math.min(MAX_ZOOM, mZoom * factor));
+        float ratio = mZoom / zoom;
+        mCenterX = focus[0] + (mCenterX - focus[0]) * ratio;
+        mCenterY = focus[1] + (mCenterY - focus[1]) * ratio;
+        mZoom = zoom;
+        update();
+    }
+
+    public synchronized float getZoom() {
+        return mZoom;
+    }
+
+    /**
+     * Returns the size of a game unit on screen in pixels.
+     */
+    public synchronized float getTileSize() {
+        return Math.min(mScreenWidth / mGameWidth, mScreenHeight / mGameHeight) * mZoom;
+    }
+
+    public synchronized void getScreenMatrix(Matrix matrix) {
+        matrix.set(mScreenMatrix);
+    }
+
+    /**
+     * Copies the part of the grid on screen, in game units, to the given rectangle.
+     */
+    public synchronized void getViewport(RectF viewport) {
+        viewport.set(mViewport);
+    }
+
+    /**
+     * Maps the given points from screen pixels to game units in place.
+     */
+    public synchronized void screenToGame(float[] points) {
+        mScreenMatrixInverse.mapPoints(points);
+    }
+
+    private void update() {
+        float tileSize = getTileSize();
+        float halfWidth = mScreenWidth / tileSize / 2f;
+        float halfHeight = mScreenHeight / tileSize / 2f;
+
+        mCenterX = clamp(mCenterX, halfWidth, mGameWidth);
+        mCenterY = clamp(mCenterY, halfHeight, mGameHeight);
+
+        mScreenMatrix.reset();
+        mScreenMatrix.postTranslate(-mCenterX, -mCenterY);
+        mScreenMatrix.postScale(tileSize, -tileSize);
+        mScreenMatrix.postTranslate(mScreenWidth / 2f, mScreenHeight / 2f);
+        mScreenMatrix.invert(mScreenMatrixInverse);
+
+        mViewport.set(mCenterX - halfWidth, mCenterY - halfHeight, mCenterX + halfWidth, mCenterY + halfHeight);
+    }
+
+    private static float clamp(float center, float halfExtent, float gameExtent) {
+        // the grid spans from -0.5 to size - 0.5, it stays centered while it fits the screen
+        if (halfExtent * 2f >= gameExtent) {
+            return gameExtent / 2f - 0.5f;
+        }
+
+        return Math.max(halfExtent - 0.5f, Math.min(gameExtent - 0.5f - halfExtent, center));
+    }
+}
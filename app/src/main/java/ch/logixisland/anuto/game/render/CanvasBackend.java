@@ -0,0 +1,59 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Draws the commands to an Android {@link Canvas}. Sprites go through a {@link SpriteBatch}, which
+ * is flushed before every other command so the drawing order is kept.
+ */
+public class CanvasBackend implements RenderBackend {
+
+    /*
+    ------ Members ------
+     */
+
+    private final SpriteBatch mSpriteBatch = new SpriteBatch();
+    private Canvas mCanvas;
+
+    /*
+    ------ Methods ------
+     */
+
+    public SpriteBatch getSpriteBatch() {
+        return mSpriteBatch;
+    }
+
+    public void begin(Canvas canvas) {
+        mCanvas = canvas;
+        mSpriteBatch.begin(canvas);
+    }
+
+    public void end() {
+        mSpriteBatch.end(mCanvas);
+        mCanvas = null;
+    }
+
+    @Override
+    public void drawSprite(AtlasRegion region, float[] transform, int offset, Paint paint) {
+        mSpriteBatch.draw(mCanvas, region, transform, offset, paint);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, Paint paint) {
+        mSpriteBatch.flush(mCanvas);
+        mCanvas.drawLine(x1, y1, x2, y2, paint);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        mSpriteBatch.flush(mCanvas);
+        mCanvas.drawCircle(cx, cy, radius, paint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        mSpriteBatch.flush(mCanvas);
+        mCanvas.drawRect(left, top, right, bottom, paint);
+    }
+}
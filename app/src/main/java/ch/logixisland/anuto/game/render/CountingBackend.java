@@ -0,0 +1,69 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Paint;
+
+/**
+ * Counts the commands of each type instead of drawing them.
+ */
+public class CountingBackend implements RenderBackend {
+
+    /*
+    ------ Members ------
+     */
+
+    private int mSpriteCount;
+    private int mLineCount;
+    private int mCircleCount;
+    private int mRectCount;
+
+    /*
+    ------ Methods ------
+     */
+
+    public void reset() {
+        mSpriteCount = 0;
+        mLineCount = 0;
+        mCircleCount = 0;
+        mRectCount = 0;
+    }
+
+    public int getSpriteCount() {
+        return mSpriteCount;
+    }
+
+    public int getLineCount() {
+        return mLineCount;
+    }
+
+    public int getCircleCount() {
+        return mCircleCount;
+    }
+
+    public int getRectCount() {
+        return mRectCount;
+    }
+
+    public int getTotalCount() {
+        return mSpriteCount + mLineCount + mCircleCount + mRectCount;
+    }
+
+    @Override
+    public void drawSprite(AtlasRegion region, float[] transform, int offset, Paint paint) {
+        mSpriteCount++;
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, Paint paint) {
+        mLineCount++;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        mCircleCount++;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        mRectCount++;
+    }
+}
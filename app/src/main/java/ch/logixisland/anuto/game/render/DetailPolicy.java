@@ -0,0 +1,108 @@
+package ch.logixisland.anuto.game.render;
+
+/**
+ * Decides how much detail is drawn for enemies, based on their count and on the frame time. At
+ * {@link #LEVEL_REDUCED} overlapping health bars are dropped, at {@link #LEVEL_MINIMAL} enemies
+ * are drawn as plain squares without health bars. The frame time only raises or lowers the level
+ * one step per {@link #HOLD_TICKS}, so it does not flicker between levels.
+ */
+public class DetailPolicy {
+
+    /*
+    ------ Constants ------
+     */
+
+    public final static int LEVEL_FULL = 0;
+    public final static int LEVEL_REDUCED = 1;
+    public final static int LEVEL_MINIMAL = 2;
+
+    public final static int DEFAULT_REDUCED_ENEMY_COUNT = 150;
+    public final static int DEFAULT_MINIMAL_ENEMY_COUNT = 400;
+
+    private final static int HOLD_TICKS = 30;
+    private final static float FRAME_TIME_SMOOTHING = 0.1f;
+    private final static float RECOVER_RATIO = 0.6f;
+
+    /*
+    ------ Members ------
+     */
+
+    private int mReducedEnemyCount = DEFAULT_REDUCED_ENEMY_COUNT;
+    private int mMinimalEnemyCount = DEFAULT_MINIMAL_ENEMY_COUNT;
+    private int mFrameTimeThreshold;
+
+    private float mFrameTime;
+    private int mLoadLevel = LEVEL_FULL;
+    private int mTicksSinceChange;
+    private int mLevel = LEVEL_FULL;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public DetailPolicy(int frameTimeThreshold) {
+        mFrameTimeThreshold = frameTimeThreshold;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    /**
+     * Sets the enemy counts above which the detail is reduced regardless of the frame time.
+     */
+    public void setEnemyThresholds(int reducedEnemyCount, int minimalEnemyCount) {
+        mReducedEnemyCount = reducedEnemyCount;
+        mMinimalEnemyCount = minimalEnemyCount;
+    }
+
+    /**
+     * Sets the frame time in ms above which the detail is reduced, 0 disables this.
+     */
+    public void setFrameTimeThreshold(int frameTimeThreshold) {
+        mFrameTimeThreshold = frameTimeThreshold;
+    }
+
+    public int getLevel() {
+        return mLevel;
+    }
+
+    public float getFrameTime() {
+        return mFrameTime;
+    }
+
+    /**
+     * Called once per tick with the number of enemies and the time the last frame took.
+     */
+    public void update(int enemyCount, int frameTime) {
+        mFrameTime += (frameTime - mFrameTime) * FRAME_TIME_SMOOTHING;
+        mTicksSinceChange++;
+
+        if (mFrameTimeThreshold > 0 && mTicksSinceChange >= HOLD_TICKS) {
+            if (mFrameTime > mFrameTimeThreshold && mLoadLevel < LEVEL_MINIMAL) {
+                mLoadLevel++;
+                mTicksSinceChange = 0;
+            } else if (mFrameTime < mFrameTimeThreshold * RECOVER_RATIO && mLoadLevel > LEVEL_FULL) {
+                mLoadLevel--;
+                mTicksSinceChange = 0;
+            }
+        }
+
+        int countLevel = LEVEL_FULL;
+
+        if (enemyCount > mMinimalEnemyCount) {
+            countLevel = LEVEL_MINIMAL;
+        } else if (enemyCount > mReducedEnemyCount) {
+            countLevel = LEVEL_REDUCED;
+        }
+
+        mLevel = Math.max(countLevel, mLoadLevel);
+    }
+
+    public void reset() {
+        mFrameTime = 0f;
+        mLoadLevel = LEVEL_FULL;
+        mTicksSinceChange = 0;
+        mLevel = LEVEL_FULL;
+    }
+}
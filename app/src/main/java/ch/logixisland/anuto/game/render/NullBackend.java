@@ -0,0 +1,25 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Paint;
+
+/**
+ * Discards all commands. Used when the game runs without a view.
+ */
+public class NullBackend implements RenderBackend {
+
+    @Override
+    public void drawSprite(AtlasRegion region, float[] transform, int offset, Paint paint) {
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, Paint paint) {
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+    }
+}
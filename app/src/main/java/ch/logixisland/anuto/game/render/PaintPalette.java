@@ -0,0 +1,98 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Paint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out shared paints for the effects and overlays. Each style is created once and keeps a
+ * paint for every one of {@link #ALPHA_LEVELS} alpha steps, so fading an effect just picks another
+ * paint instead of changing or allocating one. The paints must not be modified.
+ */
+public class PaintPalette {
+
+    /*
+    ------ Constants ------
+     */
+
+    public final static int ALPHA_LEVELS = 16;
+
+    /*
+    ------ Style Class ------
+     */
+
+    public static class Style {
+        private final Paint[] mVariants = new Paint[ALPHA_LEVELS + 1];
+
+        private Style(Paint.Style paintStyle, int color, float strokeWidth) {
+            for (int i = 0; i <= ALPHA_LEVELS; i++) {
+                Paint paint = new Paint();
+                paint.setStyle(paintStyle);
+                paint.setStrokeWidth(strokeWidth);
+                paint.setColor(color);
+                paint.setAlpha(i * 255 / ALPHA_LEVELS);
+                mVariants[i] = paint;
+            }
+        }
+
+        /**
+         * Returns the paint of this style whose alpha is closest to the given one (0-255).
+         */
+        public Paint get(int alpha) {
+            if (alpha <= 0) {
+                return mVariants[0];
+            }
+
+            if (alpha >= 255) {
+                return mVariants[ALPHA_LEVELS];
+            }
+
+            return mVariants[(alpha * ALPHA_LEVELS + 127) / 255];
+        }
+
+        public Paint get() {
+            return mVariants[ALPHA_LEVELS];
+        }
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final Map<String, Style> mStyles = new HashMap<>();
+
+    /*
+    ------ Methods ------
+     */
+
+    public Style fill(int color) {
+        return getStyle(Paint.Style.FILL, color, 0f);
+    }
+
+    public Style stroke(int color, float strokeWidth) {
+        return getStyle(Paint.Style.STROKE, color, strokeWidth);
+    }
+
+    /**
+     * Returns a style for drawing bitmaps, which only uses the alpha of the paint.
+     */
+    public Style bitmap() {
+        return fill(0xFF000000);
+    }
+
+    private synchronized Style getStyle(Paint.Style paintStyle, int color, float strokeWidth) {
+        // opaque variant of the colour, the alpha is chosen per paint
+        color |= 0xFF000000;
+
+        String key = paintStyle.name() + color + "/" + strokeWidth;
+        Style style = mStyles.get(key);
+
+        if (style == null) {
+            style = new Style(paintStyle, color, strokeWidth);
+            mStyles.put(key, style);
+        }
+
+        return style;
+    }
+}
@@ -0,0 +1,15 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Paint;
+
+/**
+ * Target of a {@link RenderBuffer} replay. Sprite transforms are passed as the six affine values
+ * of a {@link android.graphics.Matrix} in the order scaleX, skewX, transX, skewY, scaleY, transY.
+ * The paint of a sprite command may be null.
+ */
+public interface RenderBackend {
+    void drawSprite(AtlasRegion region, float[] transform, int offset, Paint paint);
+    void drawLine(float x1, float y1, float x2, float y2, Paint paint);
+    void drawCircle(float cx, float cy, float radius, Paint paint);
+    void drawRect(float left, float top, float right, float bottom, Paint paint);
+}
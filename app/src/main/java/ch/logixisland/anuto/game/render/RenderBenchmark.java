@@ -0,0 +1,130 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ch.logixisland.anuto.R;
+
+/**
+ * Records a fixed scene of rotated sprites into a {@link RenderBuffer} and replays it to an
+ * offscreen bitmap, once sprite by sprite and once through a {@link SpriteBatch}, and logs the
+ * average frame times of both paths. The same is repeated with the frames pre-rotated.
+ */
+public class RenderBenchmark {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = RenderBenchmark.class.getSimpleName();
+
+    private final static int SCREEN_WIDTH = 1080;
+    private final static int SCREEN_HEIGHT = 1620;
+    private final static int GAME_WIDTH = 10;
+    private final static int GAME_HEIGHT = 15;
+    private final static int ROTATION_STEPS = 64;
+
+    /*
+    ------ Methods ------
+     */
+
+    public static void run(SpriteFactory spriteFactory, int spriteCount, int frameCount) {
+        SpriteTemplate template = spriteFactory.createTemplate(new SpriteSheet(R.drawable.soldier, 12));
+        template.setMatrix(0.9f, 0.9f, null, null);
+
+        Random random = new Random(spriteCount);
+        List<SpriteInstance> sprites = new ArrayList<>(spriteCount);
+
+        for (int i = 0; i < spriteCount; i++) {
+            final float x = random.nextFloat() * GAME_WIDTH;
+            final float y = random.nextFloat() * GAME_HEIGHT;
+            final float angle = random.nextFloat() * 360f;
+
+            StaticSprite sprite = spriteFactory.createStatic(Layers.ENEMY, template);
+            sprite.setIndex(random.nextInt(12));
+            sprite.setListener(new SpriteListener() {
+                @Override
+                public void onDraw(SpriteInstance sprite, Canvas canvas) {
+                    canvas.translate(x, y);
+                    canvas.rotate(angle);
+                }
+            });
+
+            sprites.add(sprite);
+        }
+
+        Bitmap target = Bitmap.createBitmap(SCREEN_WIDTH, SCREEN_HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(target);
+        canvas.scale((float)SCREEN_WIDTH / GAME_WIDTH, (float)SCREEN_HEIGHT / GAME_HEIGHT);
+
+        RenderBuffer buffer = new RenderBuffer();
+        long timeStart = System.nanoTime();
+
+        for (int i = 0; i < frameCount; i++) {
+            record(buffer, sprites);
+        }
+
+        float recordTime = (System.nanoTime() - timeStart) / 1e6f / frameCount;
+
+        CountingBackend counter = new CountingBackend();
+        buffer.replay(counter);
+
+        CanvasBackend backend = new CanvasBackend();
+        SpriteBatch batch = backend.getSpriteBatch();
+
+        batch.setEnabled(false);
+        float directTime = measure(canvas, backend, buffer, frameCount);
+
+        batch.setEnabled(true);
+        float batchedTime = measure(canvas, backend, buffer, frameCount);
+
+        Log.d(TAG, String.format("%d sprites: record=%.2f ms, direct=%.2f ms, batched=%.2f ms, commands=%d, draw calls=%d",
+                spriteCount, recordTime, directTime, batchedTime, counter.getTotalCount(), batch.getBatchCount()));
+
+        spriteFactory.prerotate(template, ROTATION_STEPS);
+        record(buffer, sprites);
+
+        batch.setEnabled(false);
+        directTime = measure(canvas, backend, buffer, frameCount);
+
+        batch.setEnabled(true);
+        batchedTime = measure(canvas, backend, buffer, frameCount);
+
+        Log.d(TAG, String.format("%d sprites pre-rotated at %d angles: direct=%.2f ms, batched=%.2f ms",
+                spriteCount, ROTATION_STEPS, directTime, batchedTime));
+
+        target.recycle();
+        spriteFactory.release(template);
+    }
+
+    private static void record(RenderBuffer buffer, List<SpriteInstance> sprites) {
+        buffer.clear();
+
+        for (SpriteInstance sprite : sprites) {
+            sprite.draw(buffer);
+        }
+    }
+
+    private static float measure(Canvas canvas, CanvasBackend backend, RenderBuffer buffer, int frameCount) {
+        drawFrame(canvas, backend, buffer);
+
+        long timeStart = System.nanoTime();
+
+        for (int i = 0; i < frameCount; i++) {
+            drawFrame(canvas, backend, buffer);
+        }
+
+        return (System.nanoTime() - timeStart) / 1e6f / frameCount;
+    }
+
+    private static void drawFrame(Canvas canvas, CanvasBackend backend, RenderBuffer buffer) {
+        backend.begin(canvas);
+        buffer.replay(backend);
+        backend.end();
+    }
+}
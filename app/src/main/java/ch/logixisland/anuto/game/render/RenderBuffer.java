@@ -0,0 +1,228 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * List of draw commands recorded by the {@link Drawable}s on the game thread and replayed to a
+ * {@link RenderBackend} by whoever renders the frame. The commands are kept in primitive arrays
+ * and reference their paint by an id that is valid until the next {@link #clear()}.
+ */
+public class RenderBuffer {
+
+    /*
+    ------ Constants ------
+     */
+
+    public final static int NO_PAINT = -1;
+
+    private final static int OP_SPRITE = 0;
+    private final static int OP_LINE = 1;
+    private final static int OP_CIRCLE = 2;
+    private final static int OP_RECT = 3;
+
+    private final static int SPRITE_PARAMS = 6;
+    private final static int INITIAL_CAPACITY = 256;
+
+    /*
+    ------ Members ------
+     */
+
+    private int mCommandCount;
+    private int[] mOps = new int[INITIAL_CAPACITY];
+    private int[] mPaintIds = new int[INITIAL_CAPACITY];
+
+    private int mParamCount;
+    private float[] mParams = new float[INITIAL_CAPACITY * SPRITE_PARAMS];
+
+    private int mRegionCount;
+    private AtlasRegion[] mRegions = new AtlasRegion[INITIAL_CAPACITY];
+
+    private final List<Paint> mPaints = new ArrayList<>();
+    private final Map<Paint, Integer> mPaintIdMap = new IdentityHashMap<>();
+
+    private final RectF mViewport = new RectF();
+    private boolean mCulling;
+
+    private final TransformCanvas mTransformCanvas = new TransformCanvas();
+    private final float[] mMatrixValues = new float[9];
+
+    /*
+    ------ Methods ------
+     */
+
+    public int getCommandCount() {
+        return mCommandCount;
+    }
+
+    public void clear() {
+        for (int i = 0; i < mRegionCount; i++) {
+            mRegions[i] = null;
+        }
+
+        mCommandCount = 0;
+        mParamCount = 0;
+        mRegionCount = 0;
+        mPaints.clear();
+        mPaintIdMap.clear();
+    }
+
+    /**
+     * Sets the part of the game in view, drawables may skip recording what lies outside of it.
+     * Null disables culling.
+     */
+    public void setViewport(RectF viewport) {
+        mCulling = (viewport != null);
+
+        if (mCulling) {
+            mViewport.set(viewport);
+        }
+    }
+
+    /**
+     * Returns whether anything within the given radius around a position in game units can be
+     * in view.
+     */
+    public boolean isVisible(float x, float y, float radius) {
+        return !mCulling || (x + radius >= mViewport.left && x - radius <= mViewport.right &&
+                y + radius >= mViewport.top && y - radius <= mViewport.bottom);
+    }
+
+    public int getPaintId(Paint paint) {
+        if (paint == null) {
+            return NO_PAINT;
+        }
+
+        Integer id = mPaintIdMap.get(paint);
+
+        if (id == null) {
+            id = mPaints.size();
+            mPaints.add(paint);
+            mPaintIdMap.put(paint, id);
+        }
+
+        return id;
+    }
+
+    public Paint getPaint(int paintId) {
+        return (paintId == NO_PAINT) ? null : mPaints.get(paintId);
+    }
+
+    public void drawSprite(AtlasRegion region, Matrix transform, Paint paint) {
+        transform.getValues(mMatrixValues);
+
+        int offset = addCommand(OP_SPRITE, paint, SPRITE_PARAMS);
+        System.arraycopy(mMatrixValues, 0, mParams, offset, SPRITE_PARAMS);
+
+        if (mRegionCount == mRegions.length) {
+            mRegions = Arrays.copyOf(mRegions, mRegionCount * 2);
+        }
+
+        mRegions[mRegionCount++] = region;
+    }
+
+    public void drawLine(float x1, float y1, float x2, float y2, Paint paint) {
+        int offset = addCommand(OP_LINE, paint, 4);
+        mParams[offset] = x1;
+        mParams[offset + 1] = y1;
+        mParams[offset + 2] = x2;
+        mParams[offset + 3] = y2;
+    }
+
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        int offset = addCommand(OP_CIRCLE, paint, 3);
+        mParams[offset] = cx;
+        mParams[offset + 1] = cy;
+        mParams[offset + 2] = radius;
+    }
+
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        int offset = addCommand(OP_RECT, paint, 4);
+        mParams[offset] = left;
+        mParams[offset + 1] = top;
+        mParams[offset + 2] = right;
+        mParams[offset + 3] = bottom;
+    }
+
+    /**
+     * Adds the atlas pages the recorded sprites are drawn from to the given collection.
+     */
+    public void getPages(Collection<Bitmap> pages) {
+        for (int i = 0; i < mRegionCount; i++) {
+            pages.add(mRegions[i].getAtlas());
+        }
+    }
+
+    public void replay(RenderBackend backend) {
+        final float[] p = mParams;
+        int offset = 0;
+        int region = 0;
+
+        for (int i = 0; i < mCommandCount; i++) {
+            Paint paint = getPaint(mPaintIds[i]);
+
+            switch (mOps[i]) {
+                case OP_SPRITE:
+                    backend.drawSprite(mRegions[region++], p, offset, paint);
+                    offset += SPRITE_PARAMS;
+                    break;
+
+                case OP_LINE:
+                    backend.drawLine(p[offset], p[offset + 1], p[offset + 2], p[offset + 3], paint);
+                    offset += 4;
+                    break;
+
+                case OP_CIRCLE:
+                    backend.drawCircle(p[offset], p[offset + 1], p[offset + 2], paint);
+                    offset += 3;
+                    break;
+
+                case OP_RECT:
+                    backend.drawRect(p[offset], p[offset + 1], p[offset + 2], p[offset + 3], paint);
+                    offset += 4;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns a canvas that only collects transformations, reset to identity. Used by sprites to
+     * run their {@link SpriteListener} while recording.
+     */
+    TransformCanvas beginTransform() {
+        mTransformCanvas.reset();
+        return mTransformCanvas;
+    }
+
+    float[] getMatrixValues() {
+        return mMatrixValues;
+    }
+
+    private int addCommand(int op, Paint paint, int paramCount) {
+        if (mCommandCount == mOps.length) {
+            mOps = Arrays.copyOf(mOps, mCommandCount * 2);
+            mPaintIds = Arrays.copyOf(mPaintIds, mCommandCount * 2);
+        }
+
+        if (mParamCount + paramCount > mParams.length) {
+            mParams = Arrays.copyOf(mParams, mParams.length * 2);
+        }
+
+        mOps[mCommandCount] = op;
+        mPaintIds[mCommandCount] = getPaintId(paint);
+        mCommandCount++;
+
+        int offset = mParamCount;
+        mParamCount += paramCount;
+        return offset;
+    }
+}
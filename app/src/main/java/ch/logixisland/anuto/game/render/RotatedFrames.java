@@ -0,0 +1,150 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.List;
+
+/**
+ * The frames of a {@link SpriteTemplate} pre-rendered at a fixed number of angles. A sprite whose
+ * transformation is a rotation with uniform scale picks the nearest angle and is drawn with
+ * translation and scale only, so no rotated bitmap has to be filtered per frame.
+ */
+class RotatedFrames {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static float TOLERANCE = 1e-3f;
+
+    /*
+    ------ Members ------
+     */
+
+    private final int mAngleCount;
+    private final float mAngleStep;
+    private final float mUnitsPerPixel;
+
+    private final AtlasRegion[][] mRegions;
+    private final float[] mOffsetX;
+    private final float[] mOffsetY;
+
+    /*
+    ------ Constructors ------
+     */
+
+    RotatedFrames(TextureAtlas atlas, List<AtlasRegion> frames, Matrix matrix, int angleCount) {
+        mAngleCount = angleCount;
+        mAngleStep = 360f / angleCount;
+
+        float[] values = new float[9];
+        matrix.getValues(values);
+        mUnitsPerPixel = Math.max(
+                (float)Math.hypot(values[Matrix.MSCALE_X], values[Matrix.MSKEW_Y]),
+                (float)Math.hypot(values[Matrix.MSKEW_X], values[Matrix.MSCALE_Y]));
+
+        int frameCount = frames.size();
+        AtlasRegion first = frames.get(0);
+        float diagonal = (float)Math.hypot(first.getWidth(), first.getHeight());
+        int maxSize = (int)Math.ceil(diagonal) + 2;
+
+        mRegions = new AtlasRegion[frameCount][angleCount];
+        mOffsetX = new float[angleCount];
+        mOffsetY = new float[angleCount];
+
+        Bitmap scratch = Bitmap.createBitmap(maxSize, maxSize, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(scratch);
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        Matrix rotated = new Matrix();
+        RectF bounds = new RectF();
+
+        for (int i = 0; i < angleCount; i++) {
+            rotated.set(matrix);
+            rotated.postRotate(i * mAngleStep);
+            rotated.mapRect(bounds, first.getDestination());
+
+            mOffsetX[i] = bounds.left;
+            mOffsetY[i] = bounds.top;
+
+            rotated.postTranslate(-bounds.left, -bounds.top);
+            rotated.postScale(1f / mUnitsPerPixel, 1f / mUnitsPerPixel);
+
+            Rect target = new Rect(0, 0,
+                    Math.min(maxSize, (int)Math.ceil(bounds.width() / mUnitsPerPixel)),
+                    Math.min(maxSize, (int)Math.ceil(bounds.height() / mUnitsPerPixel)));
+
+            for (int j = 0; j < frameCount; j++) {
+                AtlasRegion region = frames.get(j);
+
+                scratch.eraseColor(Color.TRANSPARENT);
+                canvas.save();
+                canvas.concat(rotated);
+                canvas.drawBitmap(region.getAtlas(), region.getSource(), region.getDestination(), paint);
+                canvas.restore();
+
+                mRegions[j][i] = atlas.add(scratch, target);
+            }
+        }
+
+        scratch.recycle();
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    int getAngleCount() {
+        return mAngleCount;
+    }
+
+    AtlasRegion[] getRegions() {
+        AtlasRegion[] regions = new AtlasRegion[mRegions.length * mAngleCount];
+
+        for (int i = 0; i < mRegions.length; i++) {
+            System.arraycopy(mRegions[i], 0, regions, i * mAngleCount, mAngleCount);
+        }
+
+        return regions;
+    }
+
+    /**
+     * Replaces the given transformation, which does not yet include the template matrix, by one
+     * that draws the returned region with translation and scale only. Returns null and leaves the
+     * transformation untouched if it is not a rotation with uniform scale.
+     */
+    AtlasRegion select(Matrix transform, int frame, float[] values) {
+        transform.getValues(values);
+
+        float scaleX = values[Matrix.MSCALE_X];
+        float skewX = values[Matrix.MSKEW_X];
+        float skewY = values[Matrix.MSKEW_Y];
+        float scaleY = values[Matrix.MSCALE_Y];
+
+        float scale = (float)Math.hypot(scaleX, skewY);
+
+        if (scale == 0f || Math.abs(scaleX - scaleY) > TOLERANCE * scale ||
+                Math.abs(skewX + skewY) > TOLERANCE * scale) {
+            return null;
+        }
+
+        float angle = (float)Math.toDegrees(Math.atan2(skewY, scaleX));
+        int index = Math.round(angle / mAngleStep) % mAngleCount;
+
+        if (index < 0) {
+            index += mAngleCount;
+        }
+
+        transform.setTranslate(values[Matrix.MTRANS_X], values[Matrix.MTRANS_Y]);
+        transform.preScale(scale, scale);
+        transform.preTranslate(mOffsetX[index], mOffsetY[index]);
+        transform.preScale(mUnitsPerPixel, mUnitsPerPixel);
+
+        return mRegions[frame][index];
+    }
+}
@@ -0,0 +1,182 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.os.Build;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Collects consecutive sprites that use the same atlas page and draws them with a single
+ * drawVertices call. The quads are transformed on the CPU. Sprites that are not batchable
+ * flush the current batch and are drawn directly, so the drawing order is kept.
+ */
+public class SpriteBatch {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static int MAX_SPRITES = 256;
+
+    // drawVertices is only supported by hardware accelerated canvases since API 29
+    private final static int HARDWARE_VERTICES_API = 29;
+
+    /*
+    ------ Members ------
+     */
+
+    private final Map<Bitmap, Paint> mPaints = new IdentityHashMap<>();
+    private final Matrix mMatrix = new Matrix();
+    private final float[] mMatrixValues = { 1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f };
+
+    private final float[] mVertices = new float[MAX_SPRITES * 8];
+    private final float[] mTexCoords = new float[MAX_SPRITES * 8];
+    private final short[] mIndices = new short[MAX_SPRITES * 6];
+
+    private boolean mEnabled = true;
+    private boolean mActive;
+    private Bitmap mAtlas;
+    private int mSpriteCount;
+    private int mBatchCount;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public SpriteBatch() {
+        for (int i = 0; i < MAX_SPRITES; i++) {
+            short base = (short)(i * 4);
+
+            mIndices[i * 6] = base;
+            mIndices[i * 6 + 1] = (short)(base + 1);
+            mIndices[i * 6 + 2] = (short)(base + 2);
+            mIndices[i * 6 + 3] = base;
+            mIndices[i * 6 + 4] = (short)(base + 2);
+            mIndices[i * 6 + 5] = (short)(base + 3);
+        }
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public static boolean isSupported(Canvas canvas) {
+        return !canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= HARDWARE_VERTICES_API;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    /**
+     * Returns the number of draw calls issued for sprites since the last {@link #begin(Canvas)}.
+     */
+    public int getBatchCount() {
+        return mBatchCount;
+    }
+
+    public void begin(Canvas canvas) {
+        mActive = mEnabled && isSupported(canvas);
+        mBatchCount = 0;
+    }
+
+    /**
+     * Adds a sprite with the given affine transform (see {@link RenderBackend}). Sprites with their
+     * own paint cannot share the atlas shader and are drawn directly.
+     */
+    public void draw(Canvas canvas, AtlasRegion region, float[] transform, int offset, Paint paint) {
+        if (!mActive || paint != null) {
+            flush(canvas);
+            drawDirect(canvas, region, transform, offset, paint);
+            mBatchCount++;
+            return;
+        }
+
+        if (region.getAtlas() != mAtlas || mSpriteCount == MAX_SPRITES) {
+            flush(canvas);
+            mAtlas = region.getAtlas();
+        }
+
+        float sx = transform[offset];
+        float kx = transform[offset + 1];
+        float tx = transform[offset + 2];
+        float ky = transform[offset + 3];
+        float sy = transform[offset + 4];
+        float ty = transform[offset + 5];
+
+        float width = region.getWidth();
+        float height = region.getHeight();
+
+        int index = mSpriteCount * 8;
+        mVertices[index] = tx;
+        mVertices[index + 1] = ty;
+        mVertices[index + 2] = sx * width + tx;
+        mVertices[index + 3] = ky * width + ty;
+        mVertices[index + 4] = sx * width + kx * height + tx;
+        mVertices[index + 5] = ky * width + sy * height + ty;
+        mVertices[index + 6] = kx * height + tx;
+        mVertices[index + 7] = sy * height + ty;
+
+        Rect source = region.getSource();
+        mTexCoords[index] = source.left;
+        mTexCoords[index + 1] = source.top;
+        mTexCoords[index + 2] = source.right;
+        mTexCoords[index + 3] = source.top;
+        mTexCoords[index + 4] = source.right;
+        mTexCoords[index + 5] = source.bottom;
+        mTexCoords[index + 6] = source.left;
+        mTexCoords[index + 7] = source.bottom;
+
+        mSpriteCount++;
+    }
+
+    public void end(Canvas canvas) {
+        flush(canvas);
+        mAtlas = null;
+    }
+
+    public void flush(Canvas canvas) {
+        if (mSpriteCount == 0) {
+            return;
+        }
+
+        canvas.drawVertices(Canvas.VertexMode.TRIANGLES, mSpriteCount * 8, mVertices, 0,
+                mTexCoords, 0, null, 0, mIndices, 0, mSpriteCount * 6, getPaint(mAtlas));
+
+        mSpriteCount = 0;
+        mBatchCount++;
+    }
+
+    private void drawDirect(Canvas canvas, AtlasRegion region, float[] transform, int offset, Paint paint) {
+        System.arraycopy(transform, offset, mMatrixValues, 0, 6);
+        mMatrix.setValues(mMatrixValues);
+
+        canvas.save();
+        canvas.concat(mMatrix);
+        canvas.drawBitmap(region.getAtlas(), region.getSource(), region.getDestination(), paint);
+        canvas.restore();
+    }
+
+    private Paint getPaint(Bitmap atlas) {
+        Paint paint = mPaints.get(atlas);
+
+        if (paint == null) {
+            paint = new Paint();
+            paint.setShader(new BitmapShader(atlas, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+            mPaints.put(atlas, paint);
+        }
+
+        return paint;
+    }
+}
@@ -3,32 +3,332 @@ package ch.logixisland.anuto.game.render;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ch.logixisland.anuto.game.theme.Theme;
 import ch.logixisland.anuto.game.theme.ThemeManager;
 
 public class SpriteFactory {
 
+    /*
+    ------ Rescale Class ------
+     */
+
+    /**
+     * Frames of the templates decoded for a new tile size by {@link #prepareTileSize(float)}, to be
+     * swapped in by {@link #applyTileSize(Rescale)}.
+     */
+    public static class Rescale {
+        private final List<Item> mItems = new ArrayList<>();
+    }
+
+    private static class Item {
+        SpriteTemplate mTemplate;
+        int mVersion;
+        BitmapCache.Key mCurrentKey;
+        BitmapCache.Key mKey;
+        AtlasRegion[] mRegions;
+        BitmapCache.RotationKey mRotationKey;
+        RotatedFrames mRotatedFrames;
+    }
+
+    /*
+    ------ Constants ------
+     */
+
+    public final static int ROTATION_STEPS_OFF = 0;
+
+    // share of the heap the cached sprite sheets may keep when they are not in use
+    private final static int CACHE_BUDGET_DIVISOR = 8;
+
+    // decode scales are rounded up to multiples of 1/SCALE_STEPS to limit the number of variants
+    private final static int SCALE_STEPS = 16;
+
+    /*
+    ------ Members ------
+     */
+
     private final Resources mResources;
     private final ThemeManager mThemeManager;
 
+    private final BitmapCache mCache = new BitmapCache(Runtime.getRuntime().maxMemory() / CACHE_BUDGET_DIVISOR);
+    private final List<SpriteTemplate> mTemplates = new ArrayList<>();
+    private final Set<BitmapCache.Key> mDecoding = new HashSet<>();
+
+    private volatile int mRotationSteps = ROTATION_STEPS_OFF;
+
+    private float mTileSize;
+
+    /*
+    ------ Constructors ------
+     */
+
     public SpriteFactory(Resources resources, ThemeManager themeManager) {
         mResources = resources;
         mThemeManager = themeManager;
     }
 
-    public SpriteTemplate createTemplate(int resourceId, int spriteCount) {
-        resourceId = mThemeManager.getTheme().resourceMap(resourceId);
+    /*
+    ------ Methods ------
+     */
+
+    public BitmapCache getCache() {
+        return mCache;
+    }
+
+    /**
+     * Creates a template that holds a reference on its sprite sheet until it is released by
+     * {@link #release(SpriteTemplate)} or {@link #releaseTemplates()}. Sheets in RGB_565 suit
+     * sprites without transparency.
+     */
+    public SpriteTemplate createTemplate(SpriteSheet sheet) {
+        BitmapCache.Key key = getKey(sheet);
+        AtlasRegion[] regions = obtain(key, true, null);
+        SpriteTemplate template = new SpriteTemplate(this, key, regions);
+
+        synchronized (mTemplates) {
+            mTemplates.add(template);
+        }
+
+        return template;
+    }
+
+    public void release(SpriteTemplate template) {
+        synchronized (mTemplates) {
+            if (mTemplates.remove(template)) {
+                template.releaseRotatedFrames();
+                mCache.release(template.getCacheKey());
+            }
+        }
+    }
+
+    /**
+     * Releases all templates created so far. Called when the game drops its static data.
+     */
+    public void releaseTemplates() {
+        synchronized (mTemplates) {
+            for (SpriteTemplate template : mTemplates) {
+                template.releaseRotatedFrames();
+                mCache.release(template.getCacheKey());
+            }
+
+            mTemplates.clear();
+        }
+    }
+
+    /**
+     * Decodes the given sheet for the current theme so later templates of it are created without
+     * touching the resources. Safe to call from any thread.
+     */
+    public void preload(SpriteSheet sheet) {
+        obtain(getKey(sheet), false, null);
+    }
+
+    /**
+     * Drops the sheets of released templates that are kept for the next game. Their atlas pages
+     * are recycled by the next {@link #recycleEvicted()}.
+     */
+    public void evictUnused() {
+        mCache.evictUnused();
+    }
+
+    /**
+     * Recycles the atlas pages the cache dropped. Only safe while no recorded frame is drawn.
+     */
+    public void recycleEvicted() {
+        mCache.recycleEvicted();
+    }
+
+    /**
+     * Sets the size of a game unit on screen in pixels and decodes the frames of the existing
+     * templates for it, so that they are not larger than drawn, which saves memory and filtering
+     * on every draw. Templates created from now on are decoded for the new size right away. Takes
+     * a while, so it is meant to run on a worker while the game goes on with the old frames.
+     */
+    public Rescale prepareTileSize(float tileSize) {
+        List<SpriteTemplate> templates;
+
+        synchronized (mTemplates) {
+            mTileSize = tileSize;
+            templates = new ArrayList<>(mTemplates);
+        }
+
+        Rescale rescale = new Rescale();
+
+        for (SpriteTemplate template : templates) {
+            Item item = new Item();
+            int angleCount;
+
+            synchronized (mTemplates) {
+                if (!mTemplates.contains(template)) {
+                    continue;
+                }
+
+                item.mTemplate = template;
+                item.mVersion = template.getVersion();
+                item.mCurrentKey = template.getCacheKey();
+                item.mKey = getScaledKey(template, tileSize);
+
+                RotatedFrames rotatedFrames = template.getRotatedFrames();
+                angleCount = (rotatedFrames != null) ? rotatedFrames.getAngleCount() : ROTATION_STEPS_OFF;
+            }
+
+            if (item.mKey == null) {
+                continue;
+            }
+
+            item.mRegions = obtain(item.mKey, true, template);
+
+            if (angleCount != ROTATION_STEPS_OFF) {
+                Matrix matrix = template.getMatrix(item.mRegions[0]);
+                item.mRotationKey = new BitmapCache.RotationKey(item.mKey, angleCount, matrix);
+                item.mRotatedFrames = mCache.getRotated(item.mRotationKey, Arrays.asList(item.mRegions), matrix);
+            }
+
+            rescale.mItems.add(item);
+        }
+
+        return rescale;
+    }
+
+    /**
+     * Swaps the prepared frames into the templates and drops the frames of the previous tile
+     * size. Templates that were changed or released in the meantime keep their frames. No
+     * recorded frame may be drawn while this runs.
+     */
+    public void applyTileSize(Rescale rescale) {
+        synchronized (mTemplates) {
+            for (Item item : rescale.mItems) {
+                SpriteTemplate template = item.mTemplate;
+
+                if (!mTemplates.contains(template) || template.getVersion() != item.mVersion) {
+                    cancel(item);
+                    continue;
+                }
+
+                BitmapCache.RotationKey currentRotationKey = template.getRotationKey();
+                template.setRegions(item.mKey, item.mRegions);
+                template.setRotatedFrames(item.mRotationKey, item.mRotatedFrames);
+                mCache.release(item.mCurrentKey);
+                evictScaled(item.mCurrentKey, currentRotationKey);
+            }
+        }
+    }
+
+    /**
+     * Gives back the prepared frames without using them, when a newer tile size is pending.
+     */
+    public void cancelTileSize(Rescale rescale) {
+        for (Item item : rescale.mItems) {
+            cancel(item);
+        }
+    }
+
+    void rescale(SpriteTemplate template) {
+        synchronized (mTemplates) {
+            if (!mTemplates.contains(template)) {
+                return;
+            }
+
+            BitmapCache.Key key = getScaledKey(template, mTileSize);
+
+            if (key == null) {
+                return;
+            }
+
+            BitmapCache.Key current = template.getCacheKey();
+            BitmapCache.RotationKey currentRotationKey = template.getRotationKey();
+            AtlasRegion[] regions = obtain(key, true, template);
+            RotatedFrames rotatedFrames = template.getRotatedFrames();
+            template.setRegions(key, regions);
+            mCache.release(current);
+            evictScaled(current, currentRotationKey);
+
+            if (rotatedFrames != null) {
+                prerotate(template, rotatedFrames.getAngleCount());
+            }
+        }
+    }
+
+    /**
+     * Returns the key of the template sheet decoded for the given tile size, or null if the
+     * current frames already fit.
+     */
+    private BitmapCache.Key getScaledKey(SpriteTemplate template, float tileSize) {
+        if (tileSize <= 0f || template.getWidth() <= 0f) {
+            return null;
+        }
+
+        float scale = (float)Math.ceil(template.getWidth() * tileSize / template.getFrameWidth() * SCALE_STEPS) / SCALE_STEPS;
+        scale = Math.min(1f, scale);
+
+        BitmapCache.Key current = template.getCacheKey();
+
+        if (scale == current.getScale()) {
+            return null;
+        }
+
+        return new BitmapCache.Key(current.getResourceId(), current.getSpriteCount(),
+                current.getThemeId(), scale, current.getConfig());
+    }
+
+    /**
+     * Drops the frames a template used before it was rescaled. Frames of another tile size are
+     * unlikely to be needed again, unlike the sheets at full size that templates are created from.
+     */
+    private void evictScaled(BitmapCache.Key key, BitmapCache.RotationKey rotationKey) {
+        if (key.getScale() != 1f) {
+            mCache.evict(key);
+        }
+
+        if (rotationKey != null) {
+            mCache.evict(rotationKey);
+        }
+    }
 
-        Bitmap sheet = BitmapFactory.decodeResource(mResources, resourceId);
-        Bitmap[] sprites = new Bitmap[spriteCount];
-        int spriteWidth = sheet.getWidth() / spriteCount;
-        int spriteHeight = sheet.getHeight();
+    private void cancel(Item item) {
+        mCache.release(item.mKey);
 
-        for (int i = 0; i < spriteCount; i++) {
-            sprites[i] = Bitmap.createBitmap(sheet, spriteWidth * i, 0, spriteWidth, spriteHeight);
+        if (item.mRotationKey != null) {
+            mCache.release(item.mRotationKey);
         }
+    }
+
+    public int getRotationSteps() {
+        return mRotationSteps;
+    }
+
+    /**
+     * Sets the number of angles {@link #prerotate(SpriteTemplate)} renders frames at. More steps
+     * look smoother but take more memory, {@link #ROTATION_STEPS_OFF} disables pre-rotation.
+     */
+    public void setRotationSteps(int rotationSteps) {
+        mRotationSteps = rotationSteps;
+    }
 
-        return new SpriteTemplate(sprites);
+    /**
+     * Pre-renders the frames of a template whose sprites are rotated every frame. Has to be called
+     * after the template matrix is set. Templates with the same sheet and matrix share the frames.
+     */
+    public void prerotate(SpriteTemplate template) {
+        prerotate(template, mRotationSteps);
+    }
+
+    public void prerotate(SpriteTemplate template, int rotationSteps) {
+        if (rotationSteps == ROTATION_STEPS_OFF) {
+            template.setRotatedFrames(null, null);
+            return;
+        }
+
+        BitmapCache.RotationKey key = new BitmapCache.RotationKey(template.getCacheKey(), rotationSteps,
+                template.getMatrix());
+        template.setRotatedFrames(key, mCache.getRotated(key, template.getRegions(), template.getMatrix()));
     }
 
     public StaticSprite createStatic(int layer, SpriteTemplate template) {
@@ -43,4 +343,78 @@ public class SpriteFactory {
         return new ReplicatedSprite(original);
     }
 
+    private BitmapCache.Key getKey(SpriteSheet sheet) {
+        Theme theme = mThemeManager.getTheme();
+        return new BitmapCache.Key(sheet.getResourceId(), sheet.getSpriteCount(), theme.getId(), 1f,
+                sheet.getConfig());
+    }
+
+    /**
+     * Returns the cached regions of the given sheet or decodes it, scaled from the frames of the
+     * given template if there is one. A sheet is decoded by one thread at a time, the others wait
+     * and take the cached regions.
+     */
+    private AtlasRegion[] obtain(BitmapCache.Key key, boolean acquire, SpriteTemplate template) {
+        synchronized (mDecoding) {
+            try {
+                while (mDecoding.contains(key)) {
+                    mDecoding.wait();
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            AtlasRegion[] regions = mCache.get(key, acquire);
+
+            if (regions != null) {
+                return regions;
+            }
+
+            mDecoding.add(key);
+        }
+
+        try {
+            Bitmap sheet = (template != null) ? decodeScaled(key, template) : decode(key);
+            return mCache.put(key, sheet, acquire);
+        } finally {
+            synchronized (mDecoding) {
+                mDecoding.remove(key);
+                mDecoding.notifyAll();
+            }
+        }
+    }
+
+    private Bitmap decodeScaled(BitmapCache.Key key, SpriteTemplate template) {
+        int sourceWidth = template.getFrameWidth() * key.getSpriteCount();
+        int frameWidth = Math.max(1, Math.round(template.getFrameWidth() * key.getScale()));
+        int width = frameWidth * key.getSpriteCount();
+        int height = Math.max(1, Math.round(template.getFrameHeight() * key.getScale()));
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = 1;
+
+        while (sourceWidth / (options.inSampleSize * 2) >= width) {
+            options.inSampleSize *= 2;
+        }
+
+        Bitmap sampled = decodeResource(key, options);
+        Bitmap scaled = Bitmap.createScaledBitmap(sampled, width, height, true);
+
+        if (scaled != sampled) {
+            sampled.recycle();
+        }
+
+        return scaled;
+    }
+
+    private Bitmap decode(BitmapCache.Key key) {
+        return decodeResource(key, new BitmapFactory.Options());
+    }
+
+    private Bitmap decodeResource(BitmapCache.Key key, BitmapFactory.Options options) {
+        Theme theme = Theme.getTheme(key.getThemeId());
+        options.inPreferredConfig = key.getConfig();
+        return BitmapFactory.decodeResource(mResources, theme.resourceMap(key.getResourceId()), options);
+    }
+
 }
@@ -1,6 +1,5 @@
 package ch.logixisland.anuto.game.render;
 
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Matrix;
 import android.graphics.Paint;
@@ -24,6 +23,16 @@ public abstract class SpriteInstance implements Drawable {
 
     abstract int getIndex();
 
+    AtlasRegion getRegion() {
+        return mTemplate.getRegions().get(getIndex());
+    }
+
+    void applyTransform(Canvas canvas) {
+        if (mListener != null) {
+            mListener.onDraw(this, canvas);
+        }
+    }
+
     public void setListener(SpriteListener listener) {
         mListener = listener;
     }
@@ -38,17 +47,40 @@ public abstract class SpriteInstance implements Drawable {
     }
 
     @Override
-    public void draw(Canvas canvas) {
-        canvas.save();
+    public void draw(RenderBuffer buffer) {
+        TransformCanvas canvas = buffer.beginTransform();
+        applyTransform(canvas);
 
-        if (mListener != null) {
-            mListener.onDraw(this, canvas);
+        Matrix transform = canvas.getTransform();
+
+        if (!isVisible(buffer, transform)) {
+            return;
         }
 
-        Bitmap bitmap = mTemplate.getBitmaps().get(getIndex());
-        Matrix matrix = mTemplate.getMatrix();
-        canvas.drawBitmap(bitmap, matrix, mPaint);
-        canvas.restore();
+        RotatedFrames rotatedFrames = mTemplate.getRotatedFrames();
+        AtlasRegion region = null;
+
+        if (rotatedFrames != null) {
+            region = rotatedFrames.select(transform, getIndex(), buffer.getMatrixValues());
+        }
+
+        if (region == null) {
+            transform.preConcat(mTemplate.getMatrix());
+            region = getRegion();
+        }
+
+        buffer.drawSprite(region, transform, mPaint);
+    }
+
+    private boolean isVisible(RenderBuffer buffer, Matrix transform) {
+        float[] values = buffer.getMatrixValues();
+        transform.getValues(values);
+
+        float scale = Math.max(Math.abs(values[Matrix.MSCALE_X]) + Math.abs(values[Matrix.MSKEW_X]),
+                Math.abs(values[Matrix.MSKEW_Y]) + Math.abs(values[Matrix.MSCALE_Y]));
+        float radius = mTemplate.getBoundingRadius() * scale;
+
+        return buffer.isVisible(values[Matrix.MTRANS_X], values[Matrix.MTRANS_Y], radius);
     }
 
 }
@@ -0,0 +1,64 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+
+/**
+ * Identifies a drawable resource that is sliced into a fixed number of sprites, and the bitmap
+ * config it is held in.
+ */
+public class SpriteSheet {
+
+    /*
+    ------ Members ------
+     */
+
+    private final int mResourceId;
+    private final int mSpriteCount;
+    private final Bitmap.Config mConfig;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public SpriteSheet(int resourceId, int spriteCount) {
+        this(resourceId, spriteCount, Bitmap.Config.ARGB_8888);
+    }
+
+    public SpriteSheet(int resourceId, int spriteCount, Bitmap.Config config) {
+        mResourceId = resourceId;
+        mSpriteCount = spriteCount;
+        mConfig = config;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public int getResourceId() {
+        return mResourceId;
+    }
+
+    public int getSpriteCount() {
+        return mSpriteCount;
+    }
+
+    public Bitmap.Config getConfig() {
+        return mConfig;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SpriteSheet)) {
+            return false;
+        }
+
+        SpriteSheet other = (SpriteSheet)o;
+        return mResourceId == other.mResourceId && mSpriteCount == other.mSpriteCount &&
+                mConfig == other.mConfig;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * mResourceId + mSpriteCount) + mConfig.hashCode();
+    }
+}
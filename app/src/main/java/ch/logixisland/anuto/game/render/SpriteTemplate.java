@@ -1,6 +1,5 @@
 package ch.logixisland.anuto.game.render;
 
-import android.graphics.Bitmap;
 import android.graphics.Matrix;
 
 import java.util.Arrays;
@@ -10,31 +9,142 @@ import ch.logixisland.anuto.util.math.vector.Vector2;
 
 public class SpriteTemplate {
 
-    private final List<Bitmap> mBitmaps;
+    private final SpriteFactory mFactory;
+    private final int mFrameWidth;
+    private final int mFrameHeight;
+
+    private BitmapCache.Key mCacheKey;
+    private List<AtlasRegion> mRegions;
     private final Matrix mMatrix = new Matrix();
+    private BitmapCache.RotationKey mRotationKey;
+    private RotatedFrames mRotatedFrames;
+
+    private boolean mSized;
+    private float mWidth;
+    private float mHeight;
+    private Vector2 mCenter;
+    private Float mRotate;
+    private float mBoundingRadius;
+    private int mVersion;
+
+    SpriteTemplate(SpriteFactory factory, BitmapCache.Key cacheKey, AtlasRegion... regions) {
+        mFactory = factory;
+        mCacheKey = cacheKey;
+        mRegions = Arrays.asList(regions);
+        mFrameWidth = regions[0].getWidth();
+        mFrameHeight = regions[0].getHeight();
+    }
+
+    BitmapCache.Key getCacheKey() {
+        return mCacheKey;
+    }
+
+    List<AtlasRegion> getRegions() {
+        return mRegions;
+    }
+
+    int getRegionCount() {
+        return mRegions.size();
+    }
+
+    /**
+     * Replaces the frames by the same sheet decoded at another scale and adjusts the matrix so
+     * the sprites keep their size in game units.
+     */
+    void setRegions(BitmapCache.Key cacheKey, AtlasRegion... regions) {
+        mCacheKey = cacheKey;
+        mRegions = Arrays.asList(regions);
+        mVersion++;
+        releaseRotatedFrames();
+
+        if (mSized) {
+            updateMatrix();
+        }
+    }
 
-    SpriteTemplate(Bitmap... bitmaps) {
-        mBitmaps = Arrays.asList(bitmaps);
+    /**
+     * Returns the width of a frame in pixels of the source resource, regardless of the scale the
+     * frames are currently decoded at.
+     */
+    int getFrameWidth() {
+        return mFrameWidth;
     }
 
-    List<Bitmap> getBitmaps() {
-        return mBitmaps;
+    int getFrameHeight() {
+        return mFrameHeight;
     }
 
-    int getBitmapCount() {
-        return mBitmaps.size();
+    /**
+     * Returns the width of a frame in game units, or 0 if the template was given a raw matrix.
+     */
+    float getWidth() {
+        return mSized ? mWidth : 0f;
+    }
+
+    /**
+     * Returns a radius around the sprite origin that contains the whole frame, or infinity if the
+     * template was given a raw matrix.
+     */
+    float getBoundingRadius() {
+        return mSized ? mBoundingRadius : Float.POSITIVE_INFINITY;
     }
 
     Matrix getMatrix() {
         return mMatrix;
     }
 
+    /**
+     * Returns the matrix a sized template would have if its frames had the size of the given one.
+     */
+    Matrix getMatrix(AtlasRegion frame) {
+        Matrix matrix = new Matrix();
+        buildMatrix(matrix, frame);
+        return matrix;
+    }
+
+    /**
+     * Returns a number that changes whenever the frames or the matrix of the template change.
+     */
+    int getVersion() {
+        return mVersion;
+    }
+
+    BitmapCache.RotationKey getRotationKey() {
+        return mRotationKey;
+    }
+
+    RotatedFrames getRotatedFrames() {
+        return mRotatedFrames;
+    }
+
+    /**
+     * Sets the rotated frames the template holds a reference on by the given key, and gives back
+     * the previous ones.
+     */
+    void setRotatedFrames(BitmapCache.RotationKey rotationKey, RotatedFrames rotatedFrames) {
+        releaseRotatedFrames();
+        mRotationKey = rotationKey;
+        mRotatedFrames = rotatedFrames;
+    }
+
+    void releaseRotatedFrames() {
+        if (mRotationKey != null) {
+            mFactory.getCache().release(mRotationKey);
+            mRotationKey = null;
+        }
+
+        mRotatedFrames = null;
+    }
+
     public void setMatrix(Matrix src) {
         mMatrix.set(src);
+        mVersion++;
+        releaseRotatedFrames();
+        mSized = false;
     }
 
     public void setMatrix(Float width, Float height, Vector2 center, Float rotate) {
-        float aspect = (float)mBitmaps.get(0).getWidth() / mBitmaps.get(0).getHeight();
+        float aspect = (float)mFrameWidth / mFrameHeight;
 
         if (width == null && height == null) {
             height = 1f;
@@ -52,19 +162,43 @@ public class SpriteTemplate {
             center = new Vector2(width / 2, height / 2);
         }
 
-        float scaleX = width / mBitmaps.get(0).getWidth();
-        float scaleY = height / mBitmaps.get(0).getHeight();
+        mSized = true;
+        mWidth = width;
+        mHeight = height;
+        mCenter = center;
+        mRotate = rotate;
+
+        float extentX = Math.max(center.x, width - center.x);
+        float extentY = Math.max(center.y, height - center.y);
+        mBoundingRadius = (float)Math.hypot(extentX, extentY);
+
+        mVersion++;
+        updateMatrix();
+
+        if (mFactory != null) {
+            mFactory.rescale(this);
+        }
+    }
+
+    private void updateMatrix() {
+        releaseRotatedFrames();
+        buildMatrix(mMatrix, mRegions.get(0));
+    }
+
+    private void buildMatrix(Matrix matrix, AtlasRegion frame) {
+        float scaleX = mWidth / frame.getWidth();
+        float scaleY = mHeight / frame.getHeight();
 
-        mMatrix.reset();
+        matrix.reset();
 
-        mMatrix.postScale(1f, -1f);
-        mMatrix.postTranslate(0f, mBitmaps.get(0).getHeight());
+        matrix.postScale(1f, -1f);
+        matrix.postTranslate(0f, frame.getHeight());
 
-        mMatrix.postScale(scaleX, scaleY);
-        mMatrix.postTranslate(-center.x, -center.y);
+        matrix.postScale(scaleX, scaleY);
+        matrix.postTranslate(-mCenter.x, -mCenter.y);
 
-        if (rotate != null) {
-            mMatrix.postRotate(rotate);
+        if (mRotate != null) {
+            matrix.postRotate(mRotate);
         }
     }
 
@@ -0,0 +1,98 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs sprite frames into a few large bitmaps using simple shelf packing. Frames that do not
+ * fit into a page get a page of their own.
+ */
+public class TextureAtlas {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = TextureAtlas.class.getSimpleName();
+
+    private final static int PAGE_SIZE = 1024;
+    private final static int PADDING = 1;
+
+    /*
+    ------ Members ------
+     */
+
+    private final List<Bitmap> mPages = new ArrayList<>();
+
+    private Bitmap mPage;
+    private Canvas mCanvas;
+    private int mShelfX;
+    private int mShelfY;
+    private int mShelfHeight;
+
+    /*
+    ------ Methods ------
+     */
+
+    public synchronized AtlasRegion add(Bitmap source, Rect sourceRect) {
+        int width = sourceRect.width();
+        int height = sourceRect.height();
+
+        if (width > PAGE_SIZE || height > PAGE_SIZE) {
+            Bitmap page = createPage(width, height);
+            new Canvas(page).drawBitmap(source, sourceRect, new Rect(0, 0, width, height), null);
+            return new AtlasRegion(page, new Rect(0, 0, width, height));
+        }
+
+        if (mPage != null && mShelfX + width > PAGE_SIZE) {
+            mShelfX = 0;
+            mShelfY += mShelfHeight + PADDING;
+            mShelfHeight = 0;
+        }
+
+        if (mPage == null || mShelfY + height > PAGE_SIZE) {
+            mPage = createPage(PAGE_SIZE, PAGE_SIZE);
+            mCanvas = new Canvas(mPage);
+            mShelfX = 0;
+            mShelfY = 0;
+            mShelfHeight = 0;
+        }
+
+        Rect target = new Rect(mShelfX, mShelfY, mShelfX + width, mShelfY + height);
+        mCanvas.drawBitmap(source, sourceRect, target, null);
+
+        mShelfX += width + PADDING;
+        mShelfHeight = Math.max(mShelfHeight, height);
+
+        return new AtlasRegion(mPage, target);
+    }
+
+    /**
+     * Forgets the given page. The caller has to make sure no region on it is in use anymore.
+     */
+    public synchronized void remove(Bitmap page) {
+        mPages.remove(page);
+
+        if (page == mPage) {
+            mPage = null;
+            mCanvas = null;
+        }
+    }
+
+    public synchronized int getPageCount() {
+        return mPages.size();
+    }
+
+    private Bitmap createPage(int width, int height) {
+        Bitmap page = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        mPages.add(page);
+
+        Log.d(TAG, String.format("created atlas page %d (%dx%d)", mPages.size(), width, height));
+        return page;
+    }
+}
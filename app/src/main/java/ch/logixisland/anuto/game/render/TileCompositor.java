@@ -0,0 +1,166 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Draws a {@link RenderBuffer} on several threads. The screen is split into horizontal strips,
+ * each worker replays the whole buffer into the offscreen bitmap of its strip, where everything
+ * outside is clipped by the bitmap bounds, and the finished strips are blitted to the target.
+ * Screens too small to gain from this are left to the caller.
+ */
+public class TileCompositor {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = TileCompositor.class.getSimpleName();
+
+    // below this many pixels the blit and the thread hand-over cost more than they save
+    private final static int MIN_PARALLEL_PIXELS = 1280 * 720;
+
+    /*
+    ------ Tile Class ------
+     */
+
+    private static class Tile implements Callable<Void> {
+        final Bitmap mBitmap;
+        final Canvas mCanvas;
+        final int mTop;
+        final CanvasBackend mBackend = new CanvasBackend();
+
+        RenderBuffer mBuffer;
+        Matrix mScreenMatrix;
+        int mBackgroundColor;
+
+        Tile(int width, int top, int height) {
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mCanvas = new Canvas(mBitmap);
+            mTop = top;
+        }
+
+        @Override
+        public Void call() {
+            mCanvas.drawColor(mBackgroundColor);
+            mCanvas.save();
+            mCanvas.translate(0, -mTop);
+            mCanvas.concat(mScreenMatrix);
+
+            mBackend.begin(mCanvas);
+            mBuffer.replay(mBackend);
+            mBackend.end();
+
+            mCanvas.restore();
+            return null;
+        }
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final int mThreadCount;
+    private final ExecutorService mExecutor;
+    private final List<Tile> mTiles = new ArrayList<>();
+    private final List<Future<Void>> mFutures = new ArrayList<>();
+
+    private int mWidth;
+    private int mHeight;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public TileCompositor(int threadCount) {
+        mThreadCount = threadCount;
+        mExecutor = Executors.newFixedThreadPool(threadCount);
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public static boolean isWorthwhile(int width, int height, int threadCount) {
+        return threadCount > 1 && width * height >= MIN_PARALLEL_PIXELS;
+    }
+
+    /**
+     * Draws the buffer to the target canvas, whose size is given, in screen coordinates. Returns
+     * false without drawing anything if the caller should draw single-threaded instead.
+     */
+    public boolean render(Canvas target, int width, int height, RenderBuffer buffer,
+                          Matrix screenMatrix, int backgroundColor) {
+        if (!isWorthwhile(width, height, mThreadCount)) {
+            return false;
+        }
+
+        if (width != mWidth || height != mHeight) {
+            createTiles(width, height);
+        }
+
+        mFutures.clear();
+
+        for (Tile tile : mTiles) {
+            tile.mBuffer = buffer;
+            tile.mScreenMatrix = screenMatrix;
+            tile.mBackgroundColor = backgroundColor;
+            mFutures.add(mExecutor.submit(tile));
+        }
+
+        try {
+            for (Future<Void> future : mFutures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+
+        for (Tile tile : mTiles) {
+            target.drawBitmap(tile.mBitmap, 0, tile.mTop, null);
+            tile.mBuffer = null;
+        }
+
+        return true;
+    }
+
+    public void shutdown() {
+        mExecutor.shutdownNow();
+        recycleTiles();
+    }
+
+    private void createTiles(int width, int height) {
+        recycleTiles();
+
+        int tileHeight = (height + mThreadCount - 1) / mThreadCount;
+
+        for (int top = 0; top < height; top += tileHeight) {
+            mTiles.add(new Tile(width, top, Math.min(tileHeight, height - top)));
+        }
+
+        mWidth = width;
+        mHeight = height;
+
+        Log.d(TAG, String.format("created %d tiles of %dx%d", mTiles.size(), width, tileHeight));
+    }
+
+    private void recycleTiles() {
+        for (Tile tile : mTiles) {
+            tile.mBitmap.recycle();
+        }
+
+        mTiles.clear();
+        mWidth = 0;
+        mHeight = 0;
+    }
+}
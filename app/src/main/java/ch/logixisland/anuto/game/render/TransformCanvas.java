@@ -0,0 +1,41 @@
+package ch.logixisland.anuto.game.render;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+
+/**
+ * Canvas that does not draw anything but collects the transformations applied to it, so that
+ * {@link SpriteListener}s can be reused to position sprites on the CPU.
+ */
+class TransformCanvas extends Canvas {
+
+    private final Matrix mTransform = new Matrix();
+
+    void reset() {
+        mTransform.reset();
+    }
+
+    Matrix getTransform() {
+        return mTransform;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        mTransform.preTranslate(dx, dy);
+    }
+
+    @Override
+    public void rotate(float degrees) {
+        mTransform.preRotate(degrees);
+    }
+
+    @Override
+    public void scale(float sx, float sy) {
+        mTransform.preScale(sx, sy);
+    }
+
+    @Override
+    public void concat(Matrix matrix) {
+        mTransform.preConcat(matrix);
+    }
+}
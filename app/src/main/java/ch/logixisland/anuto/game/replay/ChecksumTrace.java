@@ -0,0 +1,115 @@
+package ch.logixisland.anuto.game.replay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import ch.logixisland.anuto.util.VarInt;
+
+/**
+ * The {@link WorldChecksum} after every tick of a played replay. Written to a file, it lets a
+ * later build or another configuration check that it still plays the replay the same.
+ */
+public class ChecksumTrace {
+
+    /*
+    ------ Constants ------
+     */
+
+    private static final int MAGIC = 0x414E4354;
+    private static final int VERSION = 1;
+
+    /*
+    ------ Members ------
+     */
+
+    private int mSize;
+    private long[] mChecksums;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public ChecksumTrace(int capacity) {
+        mChecksums = new long[Math.max(capacity, 1)];
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public void add(long checksum) {
+        if (mSize == mChecksums.length) {
+            mChecksums = Arrays.copyOf(mChecksums, mSize * 2);
+        }
+
+        mChecksums[mSize++] = checksum;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns the checksum after the given number of ticks, starting at one.
+     */
+    public long get(int tickCount) {
+        return mChecksums[tickCount - 1];
+    }
+
+    /**
+     * Returns the first tick count after which the checksums of both traces differ, or -1 if they
+     * are the same. If one trace is shorter, the tick after its end counts as different.
+     */
+    public int findDivergence(ChecksumTrace other) {
+        int size = Math.min(mSize, other.mSize);
+
+        for (int i = 0; i < size; i++) {
+            if (mChecksums[i] != other.mChecksums[i]) {
+                return i + 1;
+            }
+        }
+
+        return (mSize != other.mSize) ? size + 1 : -1;
+    }
+
+
+    public void write(OutputStream outStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        VarInt.writeUnsigned(out, mSize);
+
+        for (int i = 0; i < mSize; i++) {
+            out.writeLong(mChecksums[i]);
+        }
+
+        out.flush();
+    }
+
+    public static ChecksumTrace read(InputStream inStream) throws IOException {
+        DataInputStream in = new DataInputStream(inStream);
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a checksum trace file!");
+        }
+
+        int version = in.readInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported checksum trace version " + version + "!");
+        }
+
+        int size = VarInt.readUnsigned(in);
+        ChecksumTrace trace = new ChecksumTrace(size);
+
+        for (int i = 0; i < size; i++) {
+            trace.add(in.readLong());
+        }
+
+        return trace;
+    }
+}
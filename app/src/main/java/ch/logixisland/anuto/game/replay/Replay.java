@@ -0,0 +1,221 @@
+package ch.logixisland.anuto.game.replay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import ch.logixisland.anuto.util.VarInt;
+
+/**
+ * The input of one game as a list of commands, each with the tick it was applied before. Together
+ * with the level, the seed and the tower defaults this is enough to play the game again. Towers
+ * are referred to by the index of their plateau, tower types by the index of their config.
+ *
+ * In the binary form ticks are stored as the difference to the previous command and all numbers
+ * as variable length integers, so most commands take three or four bytes.
+ */
+public class Replay {
+
+    /*
+    ------ Constants ------
+     */
+
+    public static final int BUILD_TOWER = 0;
+    public static final int SELL_TOWER = 1;
+    public static final int UPGRADE_TOWER = 2;
+    public static final int ENHANCE_TOWER = 3;
+    public static final int SET_STRATEGY = 4;
+    public static final int SET_LOCK_TARGET = 5;
+    public static final int START_NEXT_WAVE = 6;
+
+    private static final int[] ARG_COUNTS = {2, 1, 1, 1, 2, 2, 0};
+
+    private static final int MAGIC = 0x414E5250;
+    private static final int VERSION = 1;
+
+    /*
+    ------ Members ------
+     */
+
+    private final String mLevelName;
+    private final long mSeed;
+    private final long mTimestamp;
+    private final int mDefaultStrategy;
+    private final boolean mDefaultLockTarget;
+
+    private int mTickCount;
+    private int mSize;
+    private int[] mTicks = new int[64];
+    private int[] mCommands = new int[64];
+    private int[] mArgs = new int[128];
+
+    /*
+    ------ Constructors ------
+     */
+
+    public Replay(String levelName, long seed, int defaultStrategy, boolean defaultLockTarget) {
+        this(levelName, seed, System.currentTimeMillis(), defaultStrategy, defaultLockTarget);
+    }
+
+    private Replay(String levelName, long seed, long timestamp, int defaultStrategy, boolean defaultLockTarget) {
+        mLevelName = levelName;
+        mSeed = seed;
+        mTimestamp = timestamp;
+        mDefaultStrategy = defaultStrategy;
+        mDefaultLockTarget = defaultLockTarget;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public String getLevelName() {
+        return mLevelName;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * Returns the wall clock time in ms the recording was started.
+     */
+    public long getTimestamp() {
+        return mTimestamp;
+    }
+
+    public int getDefaultStrategy() {
+        return mDefaultStrategy;
+    }
+
+    public boolean getDefaultLockTarget() {
+        return mDefaultLockTarget;
+    }
+
+    /**
+     * Returns the number of ticks the recorded game ran.
+     */
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    public void setTickCount(int tickCount) {
+        mTickCount = tickCount;
+    }
+
+
+    public void add(int tick, int command, int arg0, int arg1) {
+        if (mSize > 0 && tick < mTicks[mSize - 1]) {
+            throw new RuntimeException("Commands must be added in tick order!");
+        }
+
+        if (mSize == mTicks.length) {
+            mTicks = Arrays.copyOf(mTicks, mSize * 2);
+            mCommands = Arrays.copyOf(mCommands, mSize * 2);
+            mArgs = Arrays.copyOf(mArgs, mSize * 4);
+        }
+
+        mTicks[mSize] = tick;
+        mCommands[mSize] = command;
+        mArgs[mSize * 2] = arg0;
+        mArgs[mSize * 2 + 1] = arg1;
+        mSize++;
+
+        if (tick > mTickCount) {
+            mTickCount = tick;
+        }
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int getTick(int index) {
+        return mTicks[index];
+    }
+
+    public int getCommand(int index) {
+        return mCommands[index];
+    }
+
+    public int getArg(int index, int arg) {
+        return mArgs[index * 2 + arg];
+    }
+
+
+    public void write(OutputStream outStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(mLevelName);
+        out.writeLong(mSeed);
+        out.writeLong(mTimestamp);
+        VarInt.writeUnsigned(out, mDefaultStrategy);
+        out.writeBoolean(mDefaultLockTarget);
+        VarInt.writeUnsigned(out, mTickCount);
+        VarInt.writeUnsigned(out, mSize);
+
+        int lastTick = 0;
+
+        for (int i = 0; i < mSize; i++) {
+            VarInt.writeUnsigned(out, mTicks[i] - lastTick);
+            VarInt.writeUnsigned(out, mCommands[i]);
+
+            for (int j = 0; j < ARG_COUNTS[mCommands[i]]; j++) {
+                VarInt.writeUnsigned(out, mArgs[i * 2 + j]);
+            }
+
+            lastTick = mTicks[i];
+        }
+
+        out.flush();
+    }
+
+    public static Replay read(InputStream inStream) throws IOException {
+        DataInputStream in = new DataInputStream(inStream);
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a replay file!");
+        }
+
+        int version = in.readInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay format version " + version + "!");
+        }
+
+        String levelName = in.readUTF();
+        long seed = in.readLong();
+        long timestamp = in.readLong();
+        int defaultStrategy = VarInt.readUnsigned(in);
+        boolean defaultLockTarget = in.readBoolean();
+
+        Replay replay = new Replay(levelName, seed, timestamp, defaultStrategy, defaultLockTarget);
+        int tickCount = VarInt.readUnsigned(in);
+        int size = VarInt.readUnsigned(in);
+        int tick = 0;
+
+        for (int i = 0; i < size; i++) {
+            tick += VarInt.readUnsigned(in);
+            int command = VarInt.readUnsigned(in);
+
+            if (command < 0 || command >= ARG_COUNTS.length) {
+                throw new IOException("Unknown replay command " + command + "!");
+            }
+
+            int[] args = new int[2];
+
+            for (int j = 0; j < ARG_COUNTS[command]; j++) {
+                args[j] = VarInt.readUnsigned(in);
+            }
+
+            replay.add(tick, command, args[0], args[1]);
+        }
+
+        replay.setTickCount(tickCount);
+        return replay;
+    }
+}
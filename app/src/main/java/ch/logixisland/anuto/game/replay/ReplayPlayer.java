@@ -0,0 +1,141 @@
+package ch.logixisland.anuto.game.replay;
+
+import android.util.Log;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.data.Level;
+import ch.logixisland.anuto.game.entity.tower.AimingTower;
+import ch.logixisland.anuto.game.entity.tower.Tower;
+import ch.logixisland.anuto.game.render.RenderBackend;
+
+/**
+ * Plays a {@link Replay} by stepping the game without the game loop, as fast as the ticks can be
+ * computed. The game loop has to be stopped meanwhile.
+ */
+public class ReplayPlayer {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = ReplayPlayer.class.getSimpleName();
+
+    /*
+    ------ Listener Interface ------
+     */
+
+    public interface Listener {
+        /**
+         * Called after each tick with the number of ticks played so far.
+         */
+        void onTick(int tickCount);
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final GameEngine mGameEngine;
+    private final GameManager mGameManager;
+    private Listener mListener;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public ReplayPlayer(GameEngine gameEngine, GameManager gameManager) {
+        mGameEngine = gameEngine;
+        mGameManager = gameManager;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Restarts the given level, which has to be the one the replay was recorded on, and plays the
+     * replay to its end. If a backend is given, every frame is recorded and replayed to it.
+     */
+    public void play(Replay replay, Level level, RenderBackend backend) {
+        long timeStart = System.nanoTime();
+
+        mGameEngine.setSeed(replay.getSeed());
+        AimingTower.setDefaults(AimingTower.Strategy.values()[replay.getDefaultStrategy()],
+                replay.getDefaultLockTarget());
+        mGameManager.setLevel(level);
+
+        int next = 0;
+
+        for (int tick = 0; tick < replay.getTickCount(); tick++) {
+            while (next < replay.size() && replay.getTick(next) == tick) {
+                apply(replay, next++, level);
+            }
+
+            mGameEngine.step(backend);
+
+            if (mListener != null) {
+                mListener.onTick(tick + 1);
+            }
+        }
+
+        // commands recorded after the last tick
+        while (next < replay.size()) {
+            apply(replay, next++, level);
+        }
+
+        long time = (System.nanoTime() - timeStart) / 1000000;
+
+        Log.i(TAG, String.format("played %d ticks and %d commands in %d ms, %.0f ticks/s", replay.getTickCount(),
+                replay.size(), time, replay.getTickCount() * 1000f / Math.max(time, 1)));
+    }
+
+    private void apply(Replay replay, int index, Level level) {
+        int arg0 = replay.getArg(index, 0);
+        int arg1 = replay.getArg(index, 1);
+
+        switch (replay.getCommand(index)) {
+            case Replay.BUILD_TOWER:
+                mGameManager.buildTower(level.getTowerConfigs().get(arg0), mGameManager.getPlateau(arg1));
+                break;
+
+            case Replay.SELL_TOWER:
+                mGameManager.sellTower(getTower(arg0));
+                break;
+
+            case Replay.UPGRADE_TOWER:
+                mGameManager.upgradeTower(getTower(arg0));
+                break;
+
+            case Replay.ENHANCE_TOWER:
+                mGameManager.enhanceTower(getTower(arg0));
+                break;
+
+            case Replay.SET_STRATEGY:
+                mGameManager.setTowerStrategy((AimingTower)getTower(arg0), AimingTower.Strategy.values()[arg1]);
+                break;
+
+            case Replay.SET_LOCK_TARGET:
+                mGameManager.setTowerLockTarget((AimingTower)getTower(arg0), arg1 != 0);
+                break;
+
+            case Replay.START_NEXT_WAVE:
+                mGameManager.startNextWave();
+                break;
+        }
+    }
+
+    private Tower getTower(int plateauIndex) {
+        Tower tower = mGameManager.getPlateau(plateauIndex).getOccupant();
+
+        if (tower == null) {
+            throw new RuntimeException("Replay refers to an empty plateau, it does not match the game!");
+        }
+
+        return tower;
+    }
+}
@@ -0,0 +1,78 @@
+package ch.logixisland.anuto.game.replay;
+
+import android.util.Log;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.data.Level;
+
+/**
+ * Plays replays with a {@link WorldChecksum} taken after every tick, to show that a change to the
+ * engine did not change how games play. A trace is taken once as reference, e.g. with the build
+ * before the change, and later plays are compared against it.
+ */
+public class ReplayVerifier {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = ReplayVerifier.class.getSimpleName();
+
+    /*
+    ------ Members ------
+     */
+
+    private final ReplayPlayer mPlayer;
+    private final WorldChecksum mChecksum;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public ReplayVerifier(GameEngine gameEngine, GameManager gameManager) {
+        mPlayer = new ReplayPlayer(gameEngine, gameManager);
+        mChecksum = new WorldChecksum(gameEngine, gameManager);
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public ChecksumTrace trace(Replay replay, Level level) {
+        final ChecksumTrace trace = new ChecksumTrace(replay.getTickCount());
+
+        mPlayer.setListener(new ReplayPlayer.Listener() {
+            @Override
+            public void onTick(int tickCount) {
+                trace.add(mChecksum.compute());
+            }
+        });
+
+        try {
+            mPlayer.play(replay, level, null);
+        } finally {
+            mPlayer.setListener(null);
+        }
+
+        return trace;
+    }
+
+    /**
+     * Plays the replay and returns the first tick count after which the game differs from the
+     * reference, or -1 if it played the same.
+     */
+    public int verify(Replay replay, Level level, ChecksumTrace reference) {
+        ChecksumTrace trace = trace(replay, level);
+        int divergence = trace.findDivergence(reference);
+
+        if (divergence < 0) {
+            Log.i(TAG, String.format("replay matches the reference for all %d ticks", trace.size()));
+        } else {
+            Log.i(TAG, String.format("replay diverges from the reference after tick %d of %d", divergence,
+                    reference.size()));
+        }
+
+        return divergence;
+    }
+}
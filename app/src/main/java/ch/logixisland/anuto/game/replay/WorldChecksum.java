@@ -0,0 +1,63 @@
+package ch.logixisland.anuto.game.replay;
+
+import java.util.Iterator;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.entity.tower.Tower;
+import ch.logixisland.anuto.util.StateHash;
+
+/**
+ * Hashes the state that decides how a game goes on: enemy positions and health, tower state,
+ * credits, lives and the wave number. Two games with the same checksum at every tick played the
+ * same, up to hash collisions.
+ */
+public class WorldChecksum {
+
+    /*
+    ------ Members ------
+     */
+
+    private final GameEngine mGameEngine;
+    private final GameManager mGameManager;
+    private final StateHash mHash = new StateHash();
+
+    /*
+    ------ Constructors ------
+     */
+
+    public WorldChecksum(GameEngine gameEngine, GameManager gameManager) {
+        mGameEngine = gameEngine;
+        mGameManager = gameManager;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public long compute() {
+        synchronized (mGameEngine.getTickLock()) {
+            mHash.reset();
+            mHash.put(mGameEngine.getTickCount());
+            mHash.put(mGameManager.getCredits());
+            mHash.put(mGameManager.getLives());
+            mHash.put(mGameManager.getScore());
+            mHash.put(mGameManager.getWaveNumber());
+
+            mHash.put(mGameEngine.getEnemyStore().size());
+
+            Iterator<Enemy> enemies = mGameEngine.get(Enemy.TYPE_ID).cast(Enemy.class);
+            while (enemies.hasNext()) {
+                enemies.next().hash(mHash);
+            }
+
+            Iterator<Tower> it = mGameEngine.get(Tower.TYPE_ID).cast(Tower.class);
+            while (it.hasNext()) {
+                it.next().hash(mHash);
+            }
+
+            return mHash.get();
+        }
+    }
+}
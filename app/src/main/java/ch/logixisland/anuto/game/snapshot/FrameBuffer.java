@@ -0,0 +1,26 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Byte buffer that gives access to its array, so that frames are read in place and not copied
+ * once more.
+ */
+class FrameBuffer extends ByteArrayOutputStream {
+
+    /*
+    ------ Constructors ------
+     */
+
+    FrameBuffer() {
+        super(64 * 1024);
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    byte[] getData() {
+        return buf;
+    }
+}
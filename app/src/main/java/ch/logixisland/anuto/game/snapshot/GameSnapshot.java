@@ -0,0 +1,484 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.data.Level;
+import ch.logixisland.anuto.game.data.Path;
+import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.entity.EntityRegistry;
+import ch.logixisland.anuto.game.entity.Types;
+import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.entity.enemy.EnemyStore;
+import ch.logixisland.anuto.game.entity.plateau.Plateau;
+import ch.logixisland.anuto.game.entity.tower.AimingTower;
+import ch.logixisland.anuto.util.VarInt;
+import ch.logixisland.anuto.util.iterator.StreamIterator;
+
+/**
+ * Saves the complete state of a game to a compact binary stream and restores it. Enemies in the
+ * game are written as records of the same size from a copy of the {@link EnemyStore}, in the order
+ * they were added to the game. Every other entity is written as its type, its class and the
+ * arguments it is created with, followed by its state, which includes positions, timers and
+ * references to other entities. Enemies of a wave that are not spawned yet are included, as well
+ * as the economy and wave state of the {@link GameManager} and the game generator, so a restored
+ * game goes on the same way as the saved one.
+ *
+ * Writing is split in two steps: {@link #capture} copies the state during the tick, the copy is
+ * then written on any thread.
+ */
+public class GameSnapshot {
+
+    /*
+    ------ Constants ------
+     */
+
+    private static final int MAGIC = 0x414E5353;
+    private static final int VERSION = 2;
+
+    // enemies in the game are written as records, only the pending ones as entities
+    private static final int[] TYPES = {Types.PLATEAU, Types.TOWER, Types.SHOT, Types.EFFECT};
+    private static final int FLAG_IN_GAME = 0x80;
+
+    // the id, slot and class of an enemy record
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    /*
+    ------ Capture Class ------
+     */
+
+    /**
+     * The state of a game copied during the tick. Captures are reused, so the enemy arrays and the
+     * state buffer are only allocated when they grow.
+     */
+    static class Capture {
+        final EnemyStore mEnemies = new EnemyStore();
+        final FrameBuffer mState = new FrameBuffer();
+
+        String mLevelName;
+        List<Path> mPaths;
+        int mDefaultStrategy;
+        boolean mDefaultLockTarget;
+
+        // the id in the upper and the slot in the lower half
+        private long[] mOrder = new long[0];
+
+        /**
+         * Returns the size of the enemy records, which start with the id as their first word.
+         */
+        int getRecordSize() {
+            return RECORD_HEADER_SIZE + mEnemies.getRecordSize();
+        }
+
+        /**
+         * Returns the slots of the enemies sorted by their ids, in the lower half of the first
+         * {@link EnemyStore#size()} values.
+         */
+        long[] sortEnemies() {
+            int count = mEnemies.size();
+
+            if (mOrder.length < count) {
+                mOrder = new long[Math.max(count, mOrder.length * 2)];
+            }
+
+            for (int i = 0; i < count; i++) {
+                mOrder[i] = (long)mEnemies.getId(i) << 32 | i;
+            }
+
+            Arrays.sort(mOrder, 0, count);
+            return mOrder;
+        }
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final GameEngine mGameEngine;
+    private final GameManager mGameManager;
+
+    // reused by every capture, so that snapshots taken while the game runs allocate little
+    private final SnapshotWriter mWriter = new SnapshotWriter(null);
+    private final List<Entity> mEntities = new ArrayList<>();
+    private final Map<Class<?>, Integer> mClassIndices = new IdentityHashMap<>();
+    private final Set<Class<?>> mStaticWritten = Collections.newSetFromMap(new IdentityHashMap<Class<?>, Boolean>());
+    private final List<Enemy> mEnemySamples = new ArrayList<>();
+
+    // the enemy classes of all captures written so far, only used by the thread writing them
+    private final List<Class<?>> mEnemyClasses = new ArrayList<>();
+    private final Map<Class<?>, Integer> mEnemyClassIndices = new IdentityHashMap<>();
+    private Capture mCapture;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public GameSnapshot(GameEngine gameEngine, GameManager gameManager) {
+        mGameEngine = gameEngine;
+        mGameManager = gameManager;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    /**
+     * Writes the state of the current game, which was started on the level with the given asset
+     * name. Takes the tick lock, so it can be called while the game loop runs. The stream is not
+     * buffered, files should be wrapped in a {@link java.io.BufferedOutputStream}.
+     */
+    public void write(OutputStream outStream, String levelName) throws IOException {
+        if (mCapture == null) {
+            mCapture = new Capture();
+        }
+
+        capture(mCapture, levelName);
+
+        DataOutputStream out = new DataOutputStream(outStream);
+        write(mCapture, out, out, out);
+        out.flush();
+    }
+
+    /**
+     * Copies the state of the current game into the given capture under the tick lock. The enemies
+     * in the game are copied array by array, only the other entities are written.
+     */
+    void capture(Capture capture, String levelName) throws IOException {
+        synchronized (mGameEngine.getTickLock()) {
+            EnemyStore store = mGameEngine.getEnemyStore();
+            store.copyTo(capture.mEnemies);
+
+            capture.mLevelName = levelName;
+            capture.mPaths = mGameManager.getLevel().getPaths();
+            capture.mDefaultStrategy = AimingTower.getDefaultStrategy().ordinal();
+            capture.mDefaultLockTarget = AimingTower.getDefaultLockTarget();
+            capture.mState.reset();
+
+            SnapshotWriter out = mWriter;
+            out.reset(capture.mState);
+            out.setEnemyCount(store.size());
+
+            try {
+                writeState(out, store);
+                out.flush();
+            } finally {
+                // the entities are not kept alive until the next snapshot
+                out.reset(null);
+                mEntities.clear();
+                mClassIndices.clear();
+                mStaticWritten.clear();
+                mEnemySamples.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a capture in three parts, which make up a snapshot when written to the same stream:
+     * the header, the enemy records and the state of everything else. Each record is the id, slot
+     * and class of an enemy followed by its {@link EnemyStore} record. Captures have to be written
+     * by one thread at a time.
+     */
+    void write(Capture capture, DataOutput head, DataOutput enemies, DataOutput state) throws IOException {
+        EnemyStore store = capture.mEnemies;
+        int count = store.size();
+        long[] order = capture.sortEnemies();
+
+        // all classes are known before the header is written
+        for (int i = 0; i < count; i++) {
+            getEnemyClassIndex(store.getEnemy(i).getClass());
+        }
+
+        head.writeInt(MAGIC);
+        head.writeInt(VERSION);
+        head.writeUTF(capture.mLevelName);
+        VarInt.writeUnsigned(head, capture.mDefaultStrategy);
+        head.writeBoolean(capture.mDefaultLockTarget);
+        VarInt.writeUnsigned(head, mEnemyClasses.size());
+
+        for (int i = 0; i < mEnemyClasses.size(); i++) {
+            head.writeUTF(mEnemyClasses.get(i).getSimpleName());
+        }
+
+        VarInt.writeUnsigned(head, store.getSpeedModifierSlots());
+        VarInt.writeUnsigned(head, count);
+
+        for (int i = 0; i < count; i++) {
+            int index = (int)order[i];
+            enemies.writeInt(store.getId(index));
+            enemies.writeInt(index);
+            enemies.writeInt(getEnemyClassIndex(store.getEnemy(index).getClass()));
+            store.writeRecord(index, enemies, capture.mPaths);
+        }
+
+        state.write(capture.mState.getData(), 0, capture.mState.size());
+    }
+
+    /**
+     * Returns the name of the level asset a snapshot was taken on, which has to be loaded before
+     * the snapshot can be restored.
+     */
+    public static String readLevelName(InputStream inStream) throws IOException {
+        return readHeader(new DataInputStream(inStream));
+    }
+
+    /**
+     * Restarts the given level, which has to be the one the snapshot was taken on, and continues
+     * it from the snapshot. The game loop has to be stopped meanwhile.
+     */
+    public void read(InputStream inStream, Level level) throws IOException {
+        SnapshotReader in = new SnapshotReader(new BufferedInputStream(inStream));
+
+        readHeader(in);
+        AimingTower.setDefaults(AimingTower.Strategy.values()[in.readVarInt()], in.readBoolean());
+
+        synchronized (mGameEngine.getTickLock()) {
+            mGameManager.setLevel(level);
+            List<Path> paths = level.getPaths();
+
+            int classCount = in.readVarInt();
+            List<String> enemyClasses = new ArrayList<>(classCount);
+
+            for (int i = 0; i < classCount; i++) {
+                enemyClasses.add(in.readUTF());
+            }
+
+            int speedModifierSlots = in.readVarInt();
+            int enemyCount = in.readVarInt();
+            Enemy[] enemies = new Enemy[enemyCount];
+            Enemy[] classSamples = new Enemy[classCount];
+
+            // added in the order of their ids, which is the order they were added to the game in
+            for (int i = 0; i < enemyCount; i++) {
+                in.readInt();
+                int slot = in.readInt();
+                int classIndex = in.readInt();
+
+                if (slot < 0 || slot >= enemyCount || enemies[slot] != null) {
+                    throw new IOException("Invalid enemy slot " + slot + "!");
+                }
+
+                if (classIndex < 0 || classIndex >= classCount) {
+                    throw new IOException("Invalid class reference " + classIndex + "!");
+                }
+
+                Enemy e = (Enemy)create(Types.ENEMY, enemyClasses.get(classIndex), in);
+                mGameEngine.add(e);
+                e.readRecord(in, paths, speedModifierSlots);
+                enemies[slot] = e;
+
+                if (classSamples[classIndex] == null) {
+                    classSamples[classIndex] = e;
+                }
+            }
+
+            int entityCount = in.readVarInt();
+            in.setEntityCount(enemyCount + entityCount);
+
+            // the other entities refer to enemies in the game by their slot
+            for (Enemy e : enemies) {
+                in.register(e);
+            }
+
+            List<Entity> entities = new ArrayList<>(entityCount);
+            List<String> classNames = new ArrayList<>();
+
+            // entities are created first, as their state may refer to any other entity
+            for (int i = 0; i < entityCount; i++) {
+                int flags = in.readUnsignedByte();
+                int type = flags & ~FLAG_IN_GAME;
+                int classIndex = in.readVarInt();
+
+                if (classIndex == classNames.size()) {
+                    classNames.add(in.readUTF());
+                } else if (classIndex > classNames.size()) {
+                    throw new IOException("Invalid class reference " + classIndex + "!");
+                }
+
+                Entity e = create(type, classNames.get(classIndex), in);
+                in.register(e);
+                entities.add(e);
+
+                // plateaus are added when the level is started
+                if ((flags & FLAG_IN_GAME) != 0 && type != Types.PLATEAU) {
+                    mGameEngine.add(e);
+                }
+            }
+
+            mGameManager.readState(in);
+
+            Set<Class<?>> staticRead = new HashSet<>();
+
+            for (Entity e : entities) {
+                if (staticRead.add(e.getClass())) {
+                    e.readStaticState(in);
+                }
+
+                e.readState(in);
+            }
+
+            // the enemy classes that only have enemies in the game
+            int staticCount = in.readVarInt();
+
+            for (int i = 0; i < staticCount; i++) {
+                String className = in.readUTF();
+                int classIndex = enemyClasses.indexOf(className);
+
+                if (classIndex < 0 || classSamples[classIndex] == null) {
+                    throw new IOException("No enemy of class " + className + " to read its state!");
+                }
+
+                classSamples[classIndex].readStaticState(in);
+            }
+
+            // last, as creating the entities draws from the game generator
+            mGameEngine.readState(in);
+        }
+    }
+
+    private void writeState(SnapshotWriter out, EnemyStore store) throws IOException {
+        List<Entity> entities = mEntities;
+        collectEntities(entities);
+
+        // all entities are known before the first one refers to another
+        for (int i = 0; i < entities.size(); i++) {
+            out.register(entities.get(i));
+        }
+
+        out.writeVarInt(entities.size());
+
+        for (int i = 0; i < entities.size(); i++) {
+            Entity e = entities.get(i);
+            out.writeByte(e.isInGame() ? e.getType() | FLAG_IN_GAME : e.getType());
+
+            Integer classIndex = mClassIndices.get(e.getClass());
+
+            if (classIndex == null) {
+                out.writeVarInt(mClassIndices.size());
+                out.writeUTF(e.getClass().getSimpleName());
+                mClassIndices.put(e.getClass(), mClassIndices.size());
+            } else {
+                out.writeVarInt(classIndex);
+            }
+
+            if (e.getType() == Types.PLATEAU) {
+                out.writeVarInt(mGameManager.getPlateauIndex((Plateau)e));
+            } else {
+                e.writeCreation(out);
+            }
+        }
+
+        mGameManager.writeState(out);
+
+        for (int i = 0; i < entities.size(); i++) {
+            Entity e = entities.get(i);
+
+            if (mStaticWritten.add(e.getClass())) {
+                e.writeStaticState(out);
+            }
+
+            e.writeState(out);
+        }
+
+        // the enemy classes that only have enemies in the game
+        List<Enemy> samples = mEnemySamples;
+        store.getClassSamples(samples);
+
+        for (int i = samples.size() - 1; i >= 0; i--) {
+            if (mStaticWritten.contains(samples.get(i).getClass())) {
+                samples.remove(i);
+            }
+        }
+
+        out.writeVarInt(samples.size());
+
+        for (int i = 0; i < samples.size(); i++) {
+            Enemy e = samples.get(i);
+            out.writeUTF(e.getClass().getSimpleName());
+            e.writeStaticState(out);
+        }
+
+        mGameEngine.writeState(out);
+    }
+
+    private void collectEntities(List<Entity> entities) {
+        for (int type : TYPES) {
+            StreamIterator<Entity> it = mGameEngine.get(type);
+
+            while (it.hasNext()) {
+                Entity e = it.next();
+
+                if (e.isSaved()) {
+                    entities.add(e);
+                }
+            }
+        }
+
+        mGameManager.getPendingEnemies(entities);
+    }
+
+    private int getEnemyClassIndex(Class<?> enemyClass) {
+        Integer classIndex = mEnemyClassIndices.get(enemyClass);
+
+        if (classIndex == null) {
+            classIndex = mEnemyClasses.size();
+            mEnemyClasses.add(enemyClass);
+            mEnemyClassIndices.put(enemyClass, classIndex);
+        }
+
+        return classIndex;
+    }
+
+    private Entity create(int type, String className, SnapshotReader in) throws IOException {
+        try {
+            switch (type) {
+                case Types.PLATEAU:
+                    return mGameManager.getPlateau(in.readVarInt());
+
+                case Types.ENEMY:
+                    return EntityRegistry.getEnemyFactory(className).create();
+
+                case Types.TOWER:
+                    return EntityRegistry.getTowerFactory(className).create();
+
+                case Types.SHOT:
+                case Types.EFFECT:
+                    return SnapshotRegistry.getCreator(className).create(in);
+
+                default:
+                    throw new IOException("Unknown entity type " + type + "!");
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown entity class " + className + "!", e);
+        }
+    }
+
+    private static String readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a snapshot file!");
+        }
+
+        int version = in.readInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot format version " + version + "!");
+        }
+
+        return in.readUTF();
+    }
+}
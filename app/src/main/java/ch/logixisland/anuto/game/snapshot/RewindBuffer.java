@@ -0,0 +1,668 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.util.VarInt;
+
+/**
+ * Keeps the recent history of a game to rewind it. Every few ticks the state of the game is
+ * captured on the game thread into one of two reused {@link GameSnapshot.Capture}s, which copies
+ * the enemy arrays and writes only the few other entities. A worker thread then writes the
+ * snapshot from the capture, encodes it as the difference to the previous frame and adds it to a
+ * ring of frames, the oldest frames are dropped once the memory budget is exceeded. The enemy
+ * records are compared by the id of the enemy, so an enemy that spawns or dies only costs its own
+ * record, the other sections of the snapshot are compared byte by byte.
+ *
+ * Every {@link #KEYFRAME_INTERVAL} frames a complete one is kept, so the oldest frames can be
+ * dropped without decoding the following ones. If the worker is still busy when the next frame is
+ * due, that frame is skipped.
+ */
+public class RewindBuffer implements Runnable, GameManager.OnGameStartedListener {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = RewindBuffer.class.getSimpleName();
+
+    public final static int DEFAULT_INTERVAL = GameEngine.TARGET_FRAME_RATE / 2;
+    public final static int DEFAULT_BUDGET = 4 * 1024 * 1024;
+
+    private final static int KEYFRAME_INTERVAL = 8;
+    private final static int MIN_MATCH = 4;
+
+    private final static int OP_SAME = 0;
+    private final static int OP_CHANGED = 1;
+    private final static int OP_ADDED = 2;
+    private final static int OP_REMOVED = 3;
+
+    /*
+    ------ Frame Class ------
+     */
+
+    private static class Frame {
+        final long mTick;
+        final boolean mKey;
+        final byte[] mData;
+
+        Frame(long tick, boolean key, byte[] data) {
+            mTick = tick;
+            mKey = key;
+            mData = data;
+        }
+    }
+
+    /**
+     * The header, enemy records and remaining state of a snapshot, written by the worker.
+     */
+    private static class Sections {
+        final FrameBuffer mHead = new FrameBuffer();
+        final FrameBuffer mRecords = new FrameBuffer();
+        final FrameBuffer mState = new FrameBuffer();
+        final DataOutputStream mHeadStream = new DataOutputStream(mHead);
+        final DataOutputStream mRecordsStream = new DataOutputStream(mRecords);
+        final DataOutputStream mStateStream = new DataOutputStream(mState);
+        int mRecordSize;
+
+        int size() {
+            return mHead.size() + mRecords.size() + mState.size();
+        }
+    }
+
+    /*
+    ------ Members ------
+     */
+
+    private final GameEngine mGameEngine;
+    private final GameManager mGameManager;
+    private final GameSnapshot mSnapshot;
+    private final String mLevelName;
+    private final int mInterval;
+    private final int mBudget;
+
+    private final ExecutorService mEncoder = Executors.newSingleThreadExecutor();
+    private volatile boolean mEncoding;
+    private GameSnapshot.Capture mCaptureFrame = new GameSnapshot.Capture();
+    private GameSnapshot.Capture mEncodeFrame = new GameSnapshot.Capture();
+    private long mEncodeTick;
+    private int mEncodeGeneration;
+    private final Runnable mEncodeTask = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                encode(mEncodeFrame, mEncodeTick, mEncodeGeneration);
+            } finally {
+                mEncoding = false;
+            }
+        }
+    };
+
+    // only used by the worker
+    private Sections mFrame = new Sections();
+    private Sections mBase = new Sections();
+    private int mBaseGeneration = -1;
+    private int mFramesSinceKey;
+
+    private final List<Frame> mFrames = new ArrayList<>();
+    private int mSize;
+    private int mGeneration;
+    private boolean mRestoring;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public RewindBuffer(GameEngine gameEngine, GameManager gameManager, String levelName, int interval, int budget) {
+        if (interval <= 0 || budget <= 0) {
+            throw new RuntimeException("Rewind interval and budget must be positive!");
+        }
+
+        mGameEngine = gameEngine;
+        mGameManager = gameManager;
+        mSnapshot = new GameSnapshot(gameEngine, gameManager);
+        mLevelName = levelName;
+        mInterval = interval;
+        mBudget = budget;
+
+        mGameManager.addListener(this);
+        mGameEngine.add(this);
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    /**
+     * Stops keeping frames and drops the ones kept so far.
+     */
+    public void release() {
+        synchronized (mGameEngine.getTickLock()) {
+            mGameEngine.remove(this);
+        }
+
+        mGameManager.removeListener(this);
+        mEncoder.shutdown();
+        clear();
+    }
+
+    /**
+     * Returns the number of ticks the oldest kept frame lies back.
+     */
+    public long getLength() {
+        long tick = mGameEngine.getTickCount();
+
+        synchronized (mFrames) {
+            return mFrames.isEmpty() ? 0 : tick - mFrames.get(0).mTick;
+        }
+    }
+
+    /**
+     * Continues the game from the newest frame at least the given number of ticks back, or from
+     * the oldest frame if the history is shorter. Frames after it are dropped. Returns false if no
+     * frame is kept yet. The game loop has to be stopped meanwhile.
+     */
+    public boolean rewind(int ticks) {
+        long timeStart = System.nanoTime();
+
+        synchronized (mGameEngine.getTickLock()) {
+            long tick = mGameEngine.getTickCount() - ticks;
+            byte[] data;
+
+            synchronized (mFrames) {
+                int index = mFrames.size() - 1;
+
+                while (index > 0 && mFrames.get(index).mTick > tick) {
+                    index--;
+                }
+
+                if (index < 0) {
+                    return false;
+                }
+
+                data = decode(index);
+                tick = mFrames.get(index).mTick;
+
+                // the frames after it are no longer the history of the game
+                while (mFrames.size() > index + 1) {
+                    mSize -= mFrames.remove(mFrames.size() - 1).mData.length;
+                }
+
+                mGeneration++;
+                mRestoring = true;
+            }
+
+            try {
+                mSnapshot.read(new ByteArrayInputStream(data), mGameManager.getLevel());
+            } catch (IOException e) {
+                throw new RuntimeException("Could not restore rewind frame!", e);
+            } finally {
+                synchronized (mFrames) {
+                    mRestoring = false;
+                }
+            }
+
+            Log.d(TAG, String.format("rewound to tick %d in %d us", tick, (System.nanoTime() - timeStart) / 1000));
+            return true;
+        }
+    }
+
+    private void clear() {
+        synchronized (mFrames) {
+            mFrames.clear();
+            mSize = 0;
+            mGeneration++;
+        }
+    }
+
+    private void capture() {
+        int generation;
+
+        synchronized (mFrames) {
+            generation = mGeneration;
+        }
+
+        try {
+            mSnapshot.capture(mCaptureFrame, mLevelName);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not capture rewind frame!", e);
+        }
+
+        // the worker is idle, so the capture it encodes from and the task can be handed over again
+        GameSnapshot.Capture capture = mCaptureFrame;
+        mCaptureFrame = mEncodeFrame;
+        mEncodeFrame = capture;
+        mEncodeTick = mGameEngine.getTickCount();
+        mEncodeGeneration = generation;
+        mEncoding = true;
+
+        mEncoder.execute(mEncodeTask);
+    }
+
+    private void encode(GameSnapshot.Capture capture, long tick, int generation) {
+        Sections frame = mFrame;
+        frame.mHead.reset();
+        frame.mRecords.reset();
+        frame.mState.reset();
+        frame.mRecordSize = capture.getRecordSize();
+
+        try {
+            mSnapshot.write(capture, frame.mHeadStream, frame.mRecordsStream, frame.mStateStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write rewind frame!", e);
+        }
+
+        boolean key = generation != mBaseGeneration || frame.mRecordSize != mBase.mRecordSize ||
+                mFramesSinceKey >= KEYFRAME_INTERVAL;
+        byte[] data = null;
+
+        if (!key) {
+            data = encodeFrame(frame, mBase);
+            key = data.length >= frame.size();
+        }
+
+        if (key) {
+            data = encodeKey(frame);
+        }
+
+        // the frame is the base of the next one
+        mFrame = mBase;
+        mBase = frame;
+        mBaseGeneration = generation;
+        mFramesSinceKey = key ? 1 : mFramesSinceKey + 1;
+
+        synchronized (mFrames) {
+            if (generation != mGeneration) {
+                return;
+            }
+
+            mFrames.add(new Frame(tick, key, data));
+            mSize += data.length;
+
+            // whole groups are dropped, as a difference cannot be decoded without its keyframe
+            while (mSize > mBudget) {
+                int next = 1;
+
+                while (next < mFrames.size() && !mFrames.get(next).mKey) {
+                    next++;
+                }
+
+                if (next == mFrames.size()) {
+                    break;
+                }
+
+                for (int i = 0; i < next; i++) {
+                    mSize -= mFrames.remove(0).mData.length;
+                }
+            }
+        }
+    }
+
+    private byte[] decode(int index) {
+        int key = index;
+
+        while (!mFrames.get(key).mKey) {
+            key--;
+        }
+
+        try {
+            byte[][] sections = decodeKey(mFrames.get(key).mData);
+
+            for (int i = key + 1; i <= index; i++) {
+                sections = decodeFrame(mFrames.get(i).mData, sections);
+            }
+
+            byte[] data = new byte[sections[0].length + sections[1].length + sections[2].length];
+            System.arraycopy(sections[0], 0, data, 0, sections[0].length);
+            System.arraycopy(sections[1], 0, data, sections[0].length, sections[1].length);
+            System.arraycopy(sections[2], 0, data, sections[0].length + sections[1].length, sections[2].length);
+            return data;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not decode rewind frame!", e);
+        }
+    }
+
+    /*
+    ------ Delta Encoding ------
+     */
+
+    /**
+     * Encodes a keyframe as the record size followed by the length and bytes of each section.
+     */
+    private static byte[] encodeKey(Sections frame) {
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream(frame.size() + 16);
+        DataOutputStream out = new DataOutputStream(outStream);
+
+        try {
+            VarInt.writeUnsigned(out, frame.mRecordSize);
+            VarInt.writeUnsigned(out, frame.mHead.size());
+            out.write(frame.mHead.getData(), 0, frame.mHead.size());
+            VarInt.writeUnsigned(out, frame.mRecords.size());
+            out.write(frame.mRecords.getData(), 0, frame.mRecords.size());
+            VarInt.writeUnsigned(out, frame.mState.size());
+            out.write(frame.mState.getData(), 0, frame.mState.size());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return outStream.toByteArray();
+    }
+
+    private static byte[][] decodeKey(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        byte[][] sections = new byte[3][];
+        VarInt.readUnsigned(in);
+
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = new byte[VarInt.readUnsigned(in)];
+            in.readFully(sections[i]);
+        }
+
+        return sections;
+    }
+
+    /**
+     * Encodes a frame as the record size followed by the difference of each section to the base,
+     * which has records of the same size.
+     */
+    private static byte[] encodeFrame(Sections frame, Sections base) {
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream(frame.size() / 4);
+        DataOutputStream out = new DataOutputStream(outStream);
+
+        try {
+            VarInt.writeUnsigned(out, frame.mRecordSize);
+            encodeDelta(out, frame.mHead.getData(), frame.mHead.size(), base.mHead.getData(), base.mHead.size());
+            encodeRecords(out, frame.mRecords.getData(), frame.mRecords.size(), base.mRecords.getData(), base.mRecords.size(), frame.mRecordSize);
+            encodeDelta(out, frame.mState.getData(), frame.mState.size(), base.mState.getData(), base.mState.size());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return outStream.toByteArray();
+    }
+
+    private static byte[][] decodeFrame(byte[] delta, byte[][] base) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(delta));
+        int recordSize = VarInt.readUnsigned(in);
+
+        return new byte[][] {
+                decodeDelta(in, base[0]),
+                decodeRecords(in, base[1], recordSize),
+                decodeDelta(in, base[2])
+        };
+    }
+
+    /**
+     * Encodes a section as pairs of the number of bytes equal to the base and the number of bytes
+     * that differ, followed by these bytes.
+     */
+    private static void encodeDelta(DataOutput out, byte[] data, int length, byte[] base, int baseLength) throws IOException {
+        VarInt.writeUnsigned(out, length);
+        int i = 0;
+
+        while (i < length) {
+            int start = i;
+
+            while (i < length && i < baseLength && data[i] == base[i]) {
+                i++;
+            }
+
+            VarInt.writeUnsigned(out, i - start);
+            start = i;
+
+            // short matches cost more than they save
+            while (i < length && !matches(data, length, base, baseLength, i)) {
+                i++;
+            }
+
+            VarInt.writeUnsigned(out, i - start);
+            out.write(data, start, i - start);
+        }
+    }
+
+    private static boolean matches(byte[] data, int length, byte[] base, int baseLength, int index) {
+        int end = Math.min(index + MIN_MATCH, length);
+
+        if (end > baseLength) {
+            return false;
+        }
+
+        for (int i = index; i < end; i++) {
+            if (data[i] != base[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static byte[] decodeDelta(DataInput in, byte[] base) throws IOException {
+        byte[] data = new byte[VarInt.readUnsigned(in)];
+        int i = 0;
+
+        while (i < data.length) {
+            int same = VarInt.readUnsigned(in);
+            System.arraycopy(base, i, data, i, same);
+            i += same;
+
+            int different = VarInt.readUnsigned(in);
+            in.readFully(data, i, different);
+            i += different;
+        }
+
+        return data;
+    }
+
+    /**
+     * Encodes records of the given size sorted by the id in their first word. The records of both
+     * frames are walked side by side by id and written as runs: records that are the same, records
+     * of which only the words marked in a bit mask are written, new records that are written
+     * completely and records of the base that are gone. Each run starts with its length and type.
+     */
+    static void encodeRecords(DataOutput out, byte[] data, int length, byte[] base, int baseLength, int recordSize) throws IOException {
+        int count = length / recordSize;
+        int baseCount = baseLength / recordSize;
+        int i = 0;
+        int j = 0;
+
+        VarInt.writeUnsigned(out, count);
+
+        while (i < count) {
+            int end;
+
+            if (j < baseCount && getId(base, j, recordSize) < getId(data, i, recordSize)) {
+                end = j;
+
+                while (end < baseCount && getId(base, end, recordSize) < getId(data, i, recordSize)) {
+                    end++;
+                }
+
+                writeRun(out, OP_REMOVED, end - j);
+                j = end;
+            } else if (j < baseCount && getId(base, j, recordSize) == getId(data, i, recordSize)) {
+                boolean same = isSameRecord(data, i, base, j, recordSize);
+                end = i;
+
+                while (end < count && j + end - i < baseCount &&
+                        getId(data, end, recordSize) == getId(base, j + end - i, recordSize) &&
+                        isSameRecord(data, end, base, j + end - i, recordSize) == same) {
+                    end++;
+                }
+
+                writeRun(out, same ? OP_SAME : OP_CHANGED, end - i);
+
+                for (; i < end; i++, j++) {
+                    if (!same) {
+                        writeChangedWords(out, data, i, base, j, recordSize);
+                    }
+                }
+            } else {
+                end = i;
+
+                while (end < count && (j >= baseCount || getId(data, end, recordSize) < getId(base, j, recordSize))) {
+                    end++;
+                }
+
+                writeRun(out, OP_ADDED, end - i);
+                out.write(data, i * recordSize, (end - i) * recordSize);
+                i = end;
+            }
+        }
+    }
+
+    static byte[] decodeRecords(DataInput in, byte[] base, int recordSize) throws IOException {
+        byte[] data = new byte[VarInt.readUnsigned(in) * recordSize];
+        int count = data.length / recordSize;
+        int baseCount = base.length / recordSize;
+        int i = 0;
+        int j = 0;
+
+        while (i < count) {
+            int run = VarInt.readUnsigned(in);
+            int op = run & 3;
+            int length = run >>> 2;
+
+            if (i + (op != OP_REMOVED ? length : 0) > count || j + (op != OP_ADDED ? length : 0) > baseCount) {
+                throw new IOException("Invalid record run " + length + "!");
+            }
+
+            switch (op) {
+                case OP_SAME:
+                    System.arraycopy(base, j * recordSize, data, i * recordSize, length * recordSize);
+                    i += length;
+                    j += length;
+                    break;
+
+                case OP_CHANGED:
+                    for (int k = 0; k < length; k++, i++, j++) {
+                        System.arraycopy(base, j * recordSize, data, i * recordSize, recordSize);
+                        readChangedWords(in, data, i, recordSize);
+                    }
+                    break;
+
+                case OP_ADDED:
+                    in.readFully(data, i * recordSize, length * recordSize);
+                    i += length;
+                    break;
+
+                case OP_REMOVED:
+                    j += length;
+                    break;
+            }
+        }
+
+        return data;
+    }
+
+    private static void writeRun(DataOutput out, int op, int length) throws IOException {
+        VarInt.writeUnsigned(out, length << 2 | op);
+    }
+
+    /**
+     * Writes a bit mask for every eight words of the record, each followed by the marked words.
+     */
+    private static void writeChangedWords(DataOutput out, byte[] data, int index, byte[] base, int baseIndex, int recordSize) throws IOException {
+        int offset = index * recordSize;
+        int baseOffset = baseIndex * recordSize;
+
+        for (int group = 0; group < recordSize; group += 32) {
+            int end = Math.min(group + 32, recordSize);
+            int mask = 0;
+
+            for (int word = group; word < end; word += 4) {
+                if (!isSameWord(data, offset + word, base, baseOffset + word)) {
+                    mask |= 1 << ((word - group) / 4);
+                }
+            }
+
+            out.writeByte(mask);
+
+            for (int word = group; word < end; word += 4) {
+                if ((mask & 1 << ((word - group) / 4)) != 0) {
+                    out.write(data, offset + word, 4);
+                }
+            }
+        }
+    }
+
+    private static void readChangedWords(DataInput in, byte[] data, int index, int recordSize) throws IOException {
+        int offset = index * recordSize;
+
+        for (int group = 0; group < recordSize; group += 32) {
+            int end = Math.min(group + 32, recordSize);
+            int mask = in.readUnsignedByte();
+
+            for (int word = group; word < end; word += 4) {
+                if ((mask & 1 << ((word - group) / 4)) != 0) {
+                    in.readFully(data, offset + word, 4);
+                }
+            }
+        }
+    }
+
+    private static int getId(byte[] records, int index, int recordSize) {
+        int offset = index * recordSize;
+        return (records[offset] & 0xFF) << 24 | (records[offset + 1] & 0xFF) << 16 |
+                (records[offset + 2] & 0xFF) << 8 | (records[offset + 3] & 0xFF);
+    }
+
+    private static boolean isSameRecord(byte[] data, int index, byte[] base, int baseIndex, int recordSize) {
+        int offset = index * recordSize;
+        int baseOffset = baseIndex * recordSize;
+
+        for (int i = 0; i < recordSize; i++) {
+            if (data[offset + i] != base[baseOffset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSameWord(byte[] data, int offset, byte[] base, int baseOffset) {
+        return data[offset] == base[baseOffset] && data[offset + 1] == base[baseOffset + 1] &&
+                data[offset + 2] == base[baseOffset + 2] && data[offset + 3] == base[baseOffset + 3];
+    }
+
+    /*
+    ------ Runnable Implementation ------
+     */
+
+    @Override
+    public void run() {
+        // the frame is skipped while the worker is busy with the last one
+        if (mGameEngine.getTickCount() % mInterval == 0 && !mEncoding) {
+            capture();
+        }
+    }
+
+    /*
+    ------ GameManager.OnGameStartedListener Implementation ------
+     */
+
+    @Override
+    public void onGameStarted() {
+        // clearing the game removes all runnables
+        mGameEngine.remove(this);
+        mGameEngine.add(this);
+
+        synchronized (mFrames) {
+            if (!mRestoring) {
+                clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.data.Level;
+import ch.logixisland.anuto.game.entity.enemy.EnemyBenchmark;
+
+/**
+ * Starts the given level with a large number of enemies taken from its waves, spread along the
+ * paths, and logs the size of a {@link GameSnapshot} and the average times to write and to
+ * restore it. The game loop has to be stopped meanwhile, the level is left in the restored state.
+ */
+public class SnapshotBenchmark {
+
+    /*
+    ------ Constants ------
+     */
+
+    private final static String TAG = SnapshotBenchmark.class.getSimpleName();
+
+    /*
+    ------ Methods ------
+     */
+
+    public static void run(GameEngine gameEngine, GameManager gameManager, Level level, String levelName,
+                           int enemyCount, int runCount) {
+        gameManager.setLevel(level);
+        EnemyBenchmark.addEnemies(gameEngine, level, enemyCount);
+
+        GameSnapshot snapshot = new GameSnapshot(gameEngine, gameManager);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            long timeStart = System.nanoTime();
+
+            for (int i = 0; i < runCount; i++) {
+                out.reset();
+                snapshot.write(out, levelName);
+            }
+
+            float writeTime = (System.nanoTime() - timeStart) / 1e6f / runCount;
+            byte[] data = out.toByteArray();
+
+            timeStart = System.nanoTime();
+
+            for (int i = 0; i < runCount; i++) {
+                snapshot.read(new ByteArrayInputStream(data), level);
+            }
+
+            float readTime = (System.nanoTime() - timeStart) / 1e6f / runCount;
+
+            Log.d(TAG, String.format("%d enemies: size=%d bytes, write=%.2f ms, restore=%.2f ms",
+                    enemyCount, data.length, writeTime, readTime));
+        } catch (IOException e) {
+            throw new RuntimeException("Snapshot benchmark failed!", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.util.VarInt;
+import ch.logixisland.anuto.util.math.vector.Vector2;
+
+/**
+ * Stream the game state is read from, see {@link SnapshotWriter}.
+ */
+public class SnapshotReader extends DataInputStream {
+
+    /*
+    ------ Members ------
+     */
+
+    private final List<Entity> mEntities = new ArrayList<>();
+    private int mEntityCount;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public SnapshotReader(InputStream in) {
+        super(in);
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    void setEntityCount(int entityCount) {
+        mEntityCount = entityCount;
+    }
+
+    void register(Entity entity) {
+        mEntities.add(entity);
+    }
+
+    public int readVarInt() throws IOException {
+        return VarInt.readUnsigned(this);
+    }
+
+    public <T extends Entity> T readEntity(Class<T> entityClass) throws IOException {
+        int id = readVarInt() - 1;
+
+        if (id < 0) {
+            return null;
+        }
+
+        if (id >= mEntityCount) {
+            throw new IOException("Invalid entity reference " + id + "!");
+        }
+
+        // entities only refer to the ones created before them
+        if (id >= mEntities.size()) {
+            throw new IOException("Forward entity reference " + id + "!");
+        }
+
+        Entity entity = mEntities.get(id);
+
+        if (!entityClass.isInstance(entity)) {
+            throw new IOException("Entity " + id + " is not a " + entityClass.getSimpleName() + "!");
+        }
+
+        return entityClass.cast(entity);
+    }
+
+    public <T extends Entity> List<T> readEntities(Class<T> entityClass) throws IOException {
+        int count = readVarInt();
+        List<T> entities = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            entities.add(readEntity(entityClass));
+        }
+
+        return entities;
+    }
+
+    public Vector2 readVector() throws IOException {
+        float x = readFloat();
+        float y = readFloat();
+        return new Vector2(x, y);
+    }
+}
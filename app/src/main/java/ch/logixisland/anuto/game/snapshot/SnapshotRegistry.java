@@ -0,0 +1,164 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.entity.EntityRegistry;
+import ch.logixisland.anuto.game.entity.effect.Explosion;
+import ch.logixisland.anuto.game.entity.effect.GlueEffect;
+import ch.logixisland.anuto.game.entity.effect.HealEffect;
+import ch.logixisland.anuto.game.entity.effect.Laser;
+import ch.logixisland.anuto.game.entity.effect.LaserStraight;
+import ch.logixisland.anuto.game.entity.effect.TeleportEffect;
+import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.game.entity.shot.CanonShot;
+import ch.logixisland.anuto.game.entity.shot.CanonShotMG;
+import ch.logixisland.anuto.game.entity.shot.GlueShot;
+import ch.logixisland.anuto.game.entity.shot.Mine;
+import ch.logixisland.anuto.game.entity.shot.MortarShot;
+import ch.logixisland.anuto.game.entity.shot.Rocket;
+
+/**
+ * Maps the class names of shots and effects to creators that read the arguments written by
+ * {@link Entity#writeCreation} and call the constructor. Enemies, towers and plateaus are created
+ * through the {@link EntityRegistry} instead.
+ */
+public final class SnapshotRegistry {
+
+    /*
+    ------ Creator Class ------
+     */
+
+    public static abstract class Creator<T extends Entity> {
+        private final Class<T> mEntityClass;
+
+        protected Creator(Class<T> entityClass) {
+            mEntityClass = entityClass;
+        }
+
+        public String getName() {
+            return mEntityClass.getSimpleName();
+        }
+
+        public abstract T create(SnapshotReader in) throws IOException;
+    }
+
+    /*
+    ------ Static ------
+     */
+
+    private static final Map<String, Creator<?>> sCreators = new HashMap<>();
+
+    static {
+        register(new Creator<CanonShot>(CanonShot.class) {
+            @Override
+            public CanonShot create(SnapshotReader in) throws IOException {
+                return new CanonShot(in.readEntity(Entity.class), in.readVector(), in.readEntity(Enemy.class),
+                        in.readFloat());
+            }
+        });
+
+        register(new Creator<CanonShotMG>(CanonShotMG.class) {
+            @Override
+            public CanonShotMG create(SnapshotReader in) throws IOException {
+                return new CanonShotMG(in.readEntity(Entity.class), in.readVector(), in.readVector(),
+                        in.readFloat());
+            }
+        });
+
+        register(new Creator<GlueShot>(GlueShot.class) {
+            @Override
+            public GlueShot create(SnapshotReader in) throws IOException {
+                return new GlueShot(in.readEntity(Entity.class), in.readVector(), in.readVector(),
+                        in.readFloat(), in.readFloat());
+            }
+        });
+
+        register(new Creator<Mine>(Mine.class) {
+            @Override
+            public Mine create(SnapshotReader in) throws IOException {
+                return new Mine(in.readEntity(Entity.class), in.readVector(), in.readVector(),
+                        in.readFloat(), in.readFloat());
+            }
+        });
+
+        register(new Creator<MortarShot>(MortarShot.class) {
+            @Override
+            public MortarShot create(SnapshotReader in) throws IOException {
+                return new MortarShot(in.readEntity(Entity.class), in.readVector(), in.readVector(),
+                        in.readFloat(), in.readFloat());
+            }
+        });
+
+        register(new Creator<Rocket>(Rocket.class) {
+            @Override
+            public Rocket create(SnapshotReader in) throws IOException {
+                return new Rocket(in.readEntity(Entity.class), in.readVector(), in.readFloat(), in.readFloat());
+            }
+        });
+
+        register(new Creator<Explosion>(Explosion.class) {
+            @Override
+            public Explosion create(SnapshotReader in) throws IOException {
+                return new Explosion(in.readEntity(Entity.class), in.readVector(), in.readFloat(), in.readFloat());
+            }
+        });
+
+        register(new Creator<GlueEffect>(GlueEffect.class) {
+            @Override
+            public GlueEffect create(SnapshotReader in) throws IOException {
+                return new GlueEffect(in.readEntity(Entity.class), in.readVector(), in.readFloat(), in.readFloat());
+            }
+        });
+
+        register(new Creator<HealEffect>(HealEffect.class) {
+            @Override
+            public HealEffect create(SnapshotReader in) throws IOException {
+                return new HealEffect(in.readEntity(Entity.class), in.readVector(), in.readFloat(), in.readFloat());
+            }
+        });
+
+        register(new Creator<Laser>(Laser.class) {
+            @Override
+            public Laser create(SnapshotReader in) throws IOException {
+                return new Laser(in.readEntity(Entity.class), in.readVector(), in.readEntity(Enemy.class),
+                        in.readFloat(), in.readVarInt(), in.readFloat());
+            }
+        });
+
+        register(new Creator<LaserStraight>(LaserStraight.class) {
+            @Override
+            public LaserStraight create(SnapshotReader in) throws IOException {
+                return new LaserStraight(in.readEntity(Entity.class), in.readVector(), in.readVector(),
+                        in.readFloat());
+            }
+        });
+
+        register(new Creator<TeleportEffect>(TeleportEffect.class) {
+            @Override
+            public TeleportEffect create(SnapshotReader in) throws IOException {
+                return new TeleportEffect(in.readEntity(Entity.class), in.readVector(), in.readEntity(Enemy.class),
+                        in.readFloat());
+            }
+        });
+    }
+
+    private static void register(Creator<?> creator) {
+        sCreators.put(creator.getName(), creator);
+    }
+
+    public static Creator<?> getCreator(String name) throws ClassNotFoundException {
+        Creator<?> creator = sCreators.get(name);
+
+        if (creator == null) {
+            throw new ClassNotFoundException("No snapshot creator registered for " + name + "!");
+        }
+
+        return creator;
+    }
+
+    private SnapshotRegistry() {
+    }
+}
@@ -0,0 +1,119 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.entity.enemy.Enemy;
+import ch.logixisland.anuto.util.VarInt;
+import ch.logixisland.anuto.util.math.vector.Vector2;
+
+/**
+ * Stream the game state is written to. Entities are referred to by their position in the
+ * snapshot, entities that are not part of it are written as null. The enemies in the game come
+ * first in the order of their store slots, so they are referred to without being registered.
+ */
+public class SnapshotWriter extends DataOutputStream {
+
+    /*
+    ------ Members ------
+     */
+
+    private final Map<Entity, Integer> mIds = new IdentityHashMap<>();
+    private int mEnemyCount;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public SnapshotWriter(OutputStream out) {
+        super(out);
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    /**
+     * Starts a new snapshot on the given stream, so one writer can be used for many snapshots.
+     */
+    void reset(OutputStream out) {
+        this.out = out;
+        written = 0;
+        mIds.clear();
+        mEnemyCount = 0;
+    }
+
+    /**
+     * Sets the number of enemies in the game, which are part of the snapshot ahead of the
+     * registered entities. Has to be called before the first entity is registered.
+     */
+    void setEnemyCount(int enemyCount) {
+        mEnemyCount = enemyCount;
+    }
+
+    void register(Entity entity) {
+        mIds.put(entity, mEnemyCount + mIds.size());
+    }
+
+    public boolean contains(Entity entity) {
+        return getIndex(entity) >= 0;
+    }
+
+    public void writeVarInt(int value) throws IOException {
+        VarInt.writeUnsigned(this, value);
+    }
+
+    public void writeEntity(Entity entity) throws IOException {
+        writeVarInt(getIndex(entity) + 1);
+    }
+
+    /**
+     * Writes the entities of the given collection that are part of the snapshot.
+     */
+    public void writeEntities(Collection<? extends Entity> entities) throws IOException {
+        int count = 0;
+
+        for (Entity entity : entities) {
+            if (contains(entity)) {
+                count++;
+            }
+        }
+
+        writeVarInt(count);
+
+        for (Entity entity : entities) {
+            if (contains(entity)) {
+                writeEntity(entity);
+            }
+        }
+    }
+
+    public void writeVector(Vector2 vector) throws IOException {
+        writeFloat(vector.x);
+        writeFloat(vector.y);
+    }
+
+    private int getIndex(Entity entity) {
+        if (entity == null) {
+            return -1;
+        }
+
+        Integer id = mIds.get(entity);
+
+        if (id != null) {
+            return id;
+        }
+
+        if (entity instanceof Enemy) {
+            int slot = ((Enemy)entity).getStoreIndex();
+            return (slot < mEnemyCount) ? slot : -1;
+        }
+
+        return -1;
+    }
+}
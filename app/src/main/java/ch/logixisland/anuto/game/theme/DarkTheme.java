@@ -23,6 +23,11 @@ public class DarkTheme extends Theme {
     //public static  int HEALTHBARBG = Color.WHITE;
     //public static  int HEALTHBARBD = Color.DKGRAY;
 
+    @Override
+    public int getId() {
+        return Theme.DarkTheme;
+    }
+
     public int resourceMap(int id) {
         switch (id) {
             case R.drawable.base1: id=R.drawable.base1_dk; break;
@@ -44,6 +44,10 @@ public class Theme {
 
     public int resourceMap(int id) { return id; }
 
+    public int getId() {
+        return LightTheme;
+    }
+
 
     public int getAltBackgroundColor() {
         return altBackgroundColor;
@@ -1,26 +1,119 @@
 package ch.logixisland.anuto.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Seeded random generator using the SplitMix64 algorithm of {@code java.util.SplittableRandom},
+ * which is not available on all supported API levels. A generator is not thread safe, but
+ * {@link #split()} creates an independent one, so every entity or system can draw from its own
+ * generator and the results only depend on the seed and the order of the splits.
+ */
 public final class Random {
 
-    private static final java.util.Random sRandom = new java.util.Random();
+    /*
+    ------ Constants ------
+     */
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final float FLOAT_UNIT = 1f / (1 << 24);
+
+    /*
+    ------ Members ------
+     */
+
+    private long mSeed;
+    private final long mGamma;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public Random(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private Random(long seed, long gamma) {
+        mSeed = seed;
+        mGamma = gamma;
+    }
+
+    /*
+    ------ Methods ------
+     */
+
+    public Random split() {
+        return new Random(mix64(nextSeed()), mixGamma(nextSeed()));
+    }
+
+    public int next(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("Random bound must be positive!");
+        }
 
-    private Random() {
+        int r = mix32(nextSeed());
+        int m = max - 1;
+
+        if ((max & m) == 0) {
+            return r & m;
+        }
+
+        // reject the values of the last incomplete range to stay uniform
+        for (int u = r >>> 1; u + m - (r = u % max) < 0; u = mix32(nextSeed()) >>> 1) {
+        }
+
+        return r;
+    }
+
+    public int next(int min, int max) {
+        return next(max - min) + min;
+    }
+
+    public float next(float max) {
+        return (mix32(nextSeed()) >>> 8) * FLOAT_UNIT * max;
     }
 
-    public static int next(int max) {
-        return sRandom.nextInt(max);
+    public float next(float min, float max) {
+        return next(max - min) + min;
     }
 
-    public static int next(int min, int max) {
-        return sRandom.nextInt(max - min) + min;
+    /**
+     * Writes the state of this generator, {@link #read(DataInput)} continues it from there.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(mSeed);
+        out.writeLong(mGamma);
     }
 
-    public static float next(float max) {
-        return sRandom.nextFloat() * max;
+    public static Random read(DataInput in) throws IOException {
+        long seed = in.readLong();
+        long gamma = in.readLong();
+        return new Random(seed, gamma);
     }
 
-    public static float next(float min, float max) {
-        return sRandom.nextFloat() * (max - min) + min;
+    private long nextSeed() {
+        return mSeed += mGamma;
     }
 
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int)(((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+
+        // gammas with too few bit transitions give poorly mixed sequences
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
 }
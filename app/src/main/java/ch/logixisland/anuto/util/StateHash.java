@@ -0,0 +1,52 @@
+package ch.logixisland.anuto.util;
+
+/**
+ * Fast 64 bit hash of a sequence of values, used to compare game states rather than for security.
+ * Floats are fed by their bits, so any change of a value changes the hash.
+ */
+public final class StateHash {
+
+    /*
+    ------ Constants ------
+     */
+
+    private static final long PRIME1 = 0x9e3779b185ebca87L;
+    private static final long PRIME2 = 0xc2b2ae3d27d4eb4fL;
+
+    /*
+    ------ Members ------
+     */
+
+    private long mHash;
+
+    /*
+    ------ Methods ------
+     */
+
+    public void reset() {
+        mHash = 0L;
+    }
+
+    public void put(long value) {
+        mHash = Long.rotateLeft(mHash + value * PRIME2, 31) * PRIME1;
+    }
+
+    public void put(int value) {
+        put((long)value);
+    }
+
+    public void put(float value) {
+        put(Float.floatToRawIntBits(value));
+    }
+
+    public void put(boolean value) {
+        put(value ? 1 : 0);
+    }
+
+    public long get() {
+        long h = mHash;
+        h = (h ^ (h >>> 33)) * PRIME2;
+        h = (h ^ (h >>> 29)) * PRIME1;
+        return h ^ (h >>> 32);
+    }
+}
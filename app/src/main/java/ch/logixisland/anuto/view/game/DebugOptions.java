@@ -0,0 +1,67 @@
+package ch.logixisland.anuto.view.game;
+
+/**
+ * Names of the intent extras {@link MainActivity} reads for testing and profiling. None of them is
+ * set by the app itself, they are passed on the command line, for example
+ * {@code adb shell am start -n ch.logixisland.anuto/.view.game.MainActivity --ez renderBenchmark true}.
+ */
+public final class DebugOptions {
+
+    /*
+    ------ Benchmarks ------
+     */
+
+    // boolean, run the benchmark before the game starts and log its results
+    public final static String RENDER_BENCHMARK = "renderBenchmark";
+    public final static String ENEMY_BENCHMARK = "enemyBenchmark";
+    public final static String SPAWN_BENCHMARK = "spawnBenchmark";
+    public final static String SNAPSHOT_BENCHMARK = "snapshotBenchmark";
+
+    /*
+    ------ Rendering ------
+     */
+
+    // boolean, draw from the UI thread instead of a render thread
+    public final static String VIEW_RENDERER = "viewRenderer";
+
+    // int, number of angles sprite frames are pre-rotated at
+    public final static String ROTATION_STEPS = "rotationSteps";
+
+    // boolean, record frames in parallel into screen tiles
+    public final static String TILE_COMPOSITOR = "tileCompositor";
+
+    // int, enemy counts at which enemies are drawn with less detail
+    public final static String LOD_REDUCED_COUNT = "lodReducedCount";
+    public final static String LOD_MINIMAL_COUNT = "lodMinimalCount";
+
+    /*
+    ------ Replays ------
+     */
+
+    // long, seed of the game generator in every game, otherwise each game gets a fresh one
+    public final static String SEED = "seed";
+
+    // string, file to record the input to or to play it from
+    public final static String RECORD_REPLAY = "recordReplay";
+    public final static String PLAY_REPLAY = "playReplay";
+
+    // string, file the world checksums of a played replay are written to or compared with
+    public final static String CHECKSUM_TRACE = "checksumTrace";
+
+    /*
+    ------ Snapshots ------
+     */
+
+    // string, file the game is saved to when paused instead of the save of its level, or restored
+    // from when started
+    public final static String SAVE_SNAPSHOT = "saveSnapshot";
+    public final static String LOAD_SNAPSHOT = "loadSnapshot";
+
+    // int, seconds the volume down key rewinds, the snapshot interval in ticks and the buffer size in kB
+    public final static String REWIND_SECONDS = "rewindSeconds";
+    public final static String REWIND_INTERVAL = "rewindInterval";
+    public final static String REWIND_BUDGET = "rewindBudget";
+
+    private DebugOptions() {
+    }
+}
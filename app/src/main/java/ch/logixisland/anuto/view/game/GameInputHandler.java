@@ -0,0 +1,172 @@
+package ch.logixisland.anuto.view.game;
+
+import android.content.Context;
+import android.view.DragEvent;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.render.Camera;
+import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.entity.plateau.Plateau;
+import ch.logixisland.anuto.game.entity.tower.Tower;
+import ch.logixisland.anuto.util.math.vector.Vector2;
+
+/**
+ * Handles tower selection and tower placement on the game views, and moves the camera with two
+ * finger pan and pinch zoom gestures.
+ */
+class GameInputHandler implements View.OnDragListener, View.OnTouchListener {
+
+    /*
+    ------ Members ------
+     */
+
+    private final GameEngine mGameEngine;
+    private final GameManager mGameManager;
+    private final ScaleGestureDetector mScaleDetector;
+
+    private float mFocusX;
+    private float mFocusY;
+
+    private boolean mTapPending;
+    private float mTapX;
+    private float mTapY;
+
+    /*
+    ------ Constructors ------
+     */
+
+    GameInputHandler(Context context, GameEngine gameEngine, GameManager gameManager) {
+        mGameEngine = gameEngine;
+        mGameManager = gameManager;
+
+        mScaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(ScaleGestureDetector detector) {
+                mFocusX = detector.getFocusX();
+                mFocusY = detector.getFocusY();
+                return true;
+            }
+
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                Camera camera = mGameEngine.getCamera();
+                camera.pan(detector.getFocusX() - mFocusX, detector.getFocusY() - mFocusY);
+                camera.zoom(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+
+                mFocusX = detector.getFocusX();
+                mFocusY = detector.getFocusY();
+                return true;
+            }
+
+            @Override
+            public void onScaleEnd(ScaleGestureDetector detector) {
+                mGameEngine.updateTileSize();
+            }
+        });
+    }
+
+    /*
+    ------ Methods ------
+    */
+
+    @Override
+    public boolean onTouch(View v, MotionEvent event) {
+        if (mGameEngine == null) {
+            return false;
+        }
+
+        mScaleDetector.onTouchEvent(event);
+
+        // a tap selects once the finger is lifted, the first finger of a pinch does not
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mTapPending = true;
+                mTapX = event.getX();
+                mTapY = event.getY();
+                break;
+
+            case MotionEvent.ACTION_POINTER_DOWN:
+            case MotionEvent.ACTION_CANCEL:
+                mTapPending = false;
+                break;
+
+            case MotionEvent.ACTION_UP:
+                if (mTapPending && !mGameManager.isGameOver()) {
+                    selectTower(mGameEngine.screenToGame(new Vector2(mTapX, mTapY)));
+                }
+
+                mTapPending = false;
+                break;
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean onDrag(View v, DragEvent event) {
+        if (mGameEngine == null) {
+            return false;
+        }
+
+        Tower tower = (Tower)event.getLocalState();
+        Vector2 pos = mGameEngine.screenToGame(new Vector2(event.getX(), event.getY()));
+
+        Plateau closestPlateau = mGameEngine.get(Plateau.TYPE_ID)
+                .cast(Plateau.class)
+                .filter(Plateau.unoccupied())
+                .min(Entity.distanceTo(pos));
+
+        switch (event.getAction()) {
+            case DragEvent.ACTION_DRAG_ENTERED:
+                if (closestPlateau != null) {
+                    mGameEngine.add(tower);
+                    mGameManager.setSelectedTower(tower);
+                }
+                break;
+
+            case DragEvent.ACTION_DRAG_EXITED:
+                if (tower.isInGame()) {
+                    tower.remove();
+                    mGameManager.setSelectedTower(null);
+                }
+                break;
+
+            case DragEvent.ACTION_DRAG_LOCATION:
+                if (tower.isInGame()) {
+                    tower.setPosition(closestPlateau.getPosition());
+                }
+                break;
+
+            case DragEvent.ACTION_DROP:
+                if (tower.isInGame()) {
+                    // the preview is replaced by a new tower, which is what a replay creates
+                    mGameManager.setSelectedTower(null);
+                    tower.remove();
+                    mGameManager.buildTower(mGameManager.getLevel().getTowerConfig(tower), closestPlateau);
+                }
+                break;
+        }
+
+        return true;
+    }
+
+    private void selectTower(Vector2 pos) {
+        Tower closest = (Tower) mGameEngine.get(Tower.TYPE_ID)
+                .min(Entity.distanceTo(pos));
+
+        mGameManager.hideTowerInfo();
+        if (closest != null && closest.getDistanceTo(pos) < 0.5f) {
+            if (mGameManager.getSelectedTower() == closest) {
+                mGameManager.showTowerInfo(closest);
+            } else {
+                mGameManager.setSelectedTower(closest);
+            }
+        } else {
+            mGameManager.setSelectedTower(null);
+        }
+    }
+}
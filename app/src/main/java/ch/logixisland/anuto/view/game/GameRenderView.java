@@ -0,0 +1,9 @@
+package ch.logixisland.anuto.view.game;
+
+/**
+ * A view the game is drawn on, either {@link GameView} or {@link GameSurfaceView}.
+ */
+interface GameRenderView {
+    void start();
+    void stop();
+}
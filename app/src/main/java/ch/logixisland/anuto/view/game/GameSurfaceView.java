@@ -0,0 +1,147 @@
+package ch.logixisland.anuto.view.game;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import ch.logixisland.anuto.AnutoApplication;
+import ch.logixisland.anuto.game.GameEngine;
+import ch.logixisland.anuto.game.GameFactory;
+
+/**
+ * Draws the game from a dedicated render thread. The thread is paced by the display refresh
+ * through {@link Choreographer} and draws the latest frame whenever the game thread has published
+ * a new one.
+ */
+public class GameSurfaceView extends SurfaceView implements GameEngine.Renderer, GameRenderView,
+        SurfaceHolder.Callback, Choreographer.FrameCallback {
+
+    /*
+    ------ Members ------
+     */
+
+    private final GameEngine mGameEngine;
+
+    private HandlerThread mRenderThread;
+    private Handler mRenderHandler;
+
+    private volatile boolean mSurfaceReady = false;
+    private volatile boolean mFrameRequested = false;
+
+    /*
+    ------ Constructors ------
+     */
+
+    public GameSurfaceView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+
+        GameFactory factory = AnutoApplication.getInstance().getGameFactory();
+        mGameEngine = factory.getGameEngine();
+
+        GameInputHandler inputHandler = new GameInputHandler(context, mGameEngine, factory.getGameManager());
+        setFocusable(true);
+        setOnDragListener(inputHandler);
+        setOnTouchListener(inputHandler);
+
+        getHolder().addCallback(this);
+    }
+
+    /*
+    ------ Methods ------
+    */
+
+    @Override
+    public void start() {
+        mGameEngine.setScreenSize(getWidth(), getHeight());
+        mGameEngine.setRenderer(this);
+    }
+
+    @Override
+    public void stop() {
+        mGameEngine.setRenderer(null);
+    }
+
+    @Override
+    public void requestRender() {
+        mFrameRequested = true;
+    }
+
+    /*
+    ------ SurfaceHolder.Callback Implementation ------
+     */
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        mRenderThread = new HandlerThread("RenderThread");
+        mRenderThread.start();
+        mRenderHandler = new Handler(mRenderThread.getLooper());
+        mSurfaceReady = true;
+
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(GameSurfaceView.this);
+            }
+        });
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        mGameEngine.setScreenSize(width, height);
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        mSurfaceReady = false;
+
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().removeFrameCallback(GameSurfaceView.this);
+            }
+        });
+
+        mRenderThread.quitSafely();
+
+        try {
+            mRenderThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+
+        mRenderThread = null;
+        mRenderHandler = null;
+    }
+
+    /*
+    ------ Choreographer.FrameCallback Implementation ------
+     */
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mSurfaceReady) {
+            return;
+        }
+
+        if (mFrameRequested) {
+            mFrameRequested = false;
+            Canvas canvas = getHolder().lockCanvas();
+
+            if (canvas != null) {
+                try {
+                    mGameEngine.draw(canvas);
+                } finally {
+                    getHolder().unlockCanvasAndPost(canvas);
+                }
+            }
+        }
+
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
@@ -2,32 +2,92 @@ package ch.logixisland.anuto.view.game;
 
 import android.app.Activity;
 import android.os.Bundle;
+import android.util.Log;
+import android.view.KeyEvent;
+import android.view.View;
+import android.view.ViewGroup;
 import android.view.WindowManager;
+import android.widget.ProgressBar;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import ch.logixisland.anuto.AnutoApplication;
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameEngine;
 import ch.logixisland.anuto.game.GameFactory;
+import ch.logixisland.anuto.game.LevelLoader;
 import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.business.SpawnBenchmark;
 import ch.logixisland.anuto.game.data.Level;
+import ch.logixisland.anuto.game.entity.enemy.EnemyBenchmark;
+import ch.logixisland.anuto.game.render.DetailPolicy;
+import ch.logixisland.anuto.game.render.NullBackend;
+import ch.logixisland.anuto.game.render.RenderBenchmark;
+import ch.logixisland.anuto.game.render.SpriteFactory;
+import ch.logixisland.anuto.game.render.TileCompositor;
+import ch.logixisland.anuto.game.replay.ChecksumTrace;
+import ch.logixisland.anuto.game.replay.Replay;
+import ch.logixisland.anuto.game.replay.ReplayPlayer;
+import ch.logixisland.anuto.game.replay.ReplayVerifier;
+import ch.logixisland.anuto.game.snapshot.GameSnapshot;
+import ch.logixisland.anuto.game.snapshot.RewindBuffer;
+import ch.logixisland.anuto.game.snapshot.SnapshotBenchmark;
 import ch.logixisland.anuto.game.theme.ThemeManager;
 import ch.logixisland.anuto.view.menu.LevelSelectFragment;
 
-public class MainActivity extends Activity {
+public class MainActivity extends Activity implements LevelLoader.Listener {
+
+    private final static String TAG = MainActivity.class.getSimpleName();
+
+    private final static String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private final static int BENCHMARK_SPRITE_COUNT = 500;
+    private final static int BENCHMARK_FRAME_COUNT = 100;
+    private final static int BENCHMARK_ENEMY_COUNT = 1000;
+    private final static int BENCHMARK_SNAPSHOT_COUNT = 20;
+    private final static int[] BENCHMARK_ENEMY_COUNTS = {1000, 10000, 100000};
+    private final static int BENCHMARK_TICK_COUNT = 100;
+    private final static int BENCHMARK_SPAWN_COUNT = 10000;
+    private final static int BENCHMARK_SPAWN_RUNS = 5;
 
     private final GameEngine mGameEngine;
     private final GameManager mGameManager;
     private final ThemeManager mThemeManager;
+    private final SpriteFactory mSpriteFactory;
+    private final LevelLoader mLevelLoader;
+
+    private boolean mLevelLoaded = false;
+    private boolean mResumed = false;
+
+    private String mRecordFileName;
+    private Replay mReplay;
+    private String mChecksumFileName;
 
-    private GameView view_tower_defense;
+    private String mLevelName;
+    private File mSaveSnapshotFile;
+    private byte[] mSnapshot;
+
+    private RewindBuffer mRewindBuffer;
+    private int mRewindTicks;
+
+    private GameRenderView view_tower_defense;
+    private ProgressBar view_loading_progress;
 
     public MainActivity() {
         GameFactory factory = AnutoApplication.getInstance().getGameFactory();
         mGameEngine = factory.getGameEngine();
         mGameManager = factory.getGameManager();
         mThemeManager = factory.getThemeManager();
+        mSpriteFactory = factory.getSpriteFactory();
+        mLevelLoader = new LevelLoader(AnutoApplication.getInstance().getAssets(), mSpriteFactory);
     }
 
     @Override
@@ -37,33 +97,344 @@ public class MainActivity extends Activity {
 
         int themeId = getIntent().getIntExtra("theme", 0);
         mThemeManager.setTheme(themeId);
+        mSpriteFactory.setRotationSteps(getIntent().getIntExtra(DebugOptions.ROTATION_STEPS, SpriteFactory.ROTATION_STEPS_OFF));
+
+        if (getIntent().hasExtra(DebugOptions.SEED)) {
+            mGameEngine.setFixedSeed(getIntent().getLongExtra(DebugOptions.SEED, 0));
+        }
+
+        mGameEngine.getDetailPolicy().setEnemyThresholds(
+                getIntent().getIntExtra(DebugOptions.LOD_REDUCED_COUNT, DetailPolicy.DEFAULT_REDUCED_ENEMY_COUNT),
+                getIntent().getIntExtra(DebugOptions.LOD_MINIMAL_COUNT, DetailPolicy.DEFAULT_MINIMAL_ENEMY_COUNT));
+
+        if (getIntent().getBooleanExtra(DebugOptions.TILE_COMPOSITOR, false)) {
+            mGameEngine.setTileCompositor(new TileCompositor(Runtime.getRuntime().availableProcessors()));
+        }
+
         setContentView(R.layout.activity_main);
 
-        view_tower_defense = (GameView)findViewById(R.id.view_tower_defense);
+        if (getIntent().getBooleanExtra(DebugOptions.VIEW_RENDERER, false)) {
+            view_tower_defense = new GameView(this, null);
+        } else {
+            view_tower_defense = new GameSurfaceView(this, null);
+        }
 
-        try {
-            int levelId = getIntent().getIntExtra(LevelSelectFragment.SELECTED_LEVEL, R.raw.level_1);
-            try (InputStream inStream = getResources().openRawResource(levelId)) {
-                mGameManager.setLevel(Level.deserialize(inStream));
+        ViewGroup gameContainer = (ViewGroup)findViewById(R.id.view_game_container);
+        gameContainer.addView((View)view_tower_defense);
+
+        view_loading_progress = (ProgressBar)findViewById(R.id.view_loading_progress);
+
+        int levelId = getIntent().getIntExtra(LevelSelectFragment.SELECTED_LEVEL, R.raw.level_1);
+        String levelName = "levels/" + getResources().getResourceEntryName(levelId) + ".bin";
+
+        mRecordFileName = getIntent().getStringExtra(DebugOptions.RECORD_REPLAY);
+        mGameManager.setRecording(mRecordFileName != null ? levelName : null);
+
+        String replayFileName = getIntent().getStringExtra(DebugOptions.PLAY_REPLAY);
+
+        if (replayFileName != null) {
+            mReplay = readReplay(replayFileName);
+            levelName = mReplay.getLevelName();
+            mChecksumFileName = getIntent().getStringExtra(DebugOptions.CHECKSUM_TRACE);
+        }
+
+        String saveSnapshotFileName = getIntent().getStringExtra(DebugOptions.SAVE_SNAPSHOT);
+        String snapshotFileName = getIntent().getStringExtra(DebugOptions.LOAD_SNAPSHOT);
+
+        if (snapshotFileName != null) {
+            try {
+                mSnapshot = readSnapshot(new File(getFilesDir(), snapshotFileName));
+                levelName = GameSnapshot.readLevelName(new ByteArrayInputStream(mSnapshot));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read snapshot!", e);
+            }
+        }
+
+        if (saveSnapshotFileName != null) {
+            mSaveSnapshotFile = new File(getFilesDir(), saveSnapshotFileName);
+        } else if (mReplay == null && mRecordFileName == null) {
+            // the game is saved when paused and continued when its level is started again, unless
+            // it is replayed or recorded, which always starts the level from the beginning
+            mSaveSnapshotFile = getSaveFile(levelName);
+
+            if (snapshotFileName == null && mSaveSnapshotFile.exists()) {
+                try {
+                    mSnapshot = readSnapshot(mSaveSnapshotFile);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not read saved game, starting the level anew.", e);
+                }
+            }
+        }
+
+        mLevelName = levelName;
+
+        int rewindSeconds = getIntent().getIntExtra(DebugOptions.REWIND_SECONDS, 0);
+
+        if (rewindSeconds > 0) {
+            int rewindInterval = getIntent().getIntExtra(DebugOptions.REWIND_INTERVAL, RewindBuffer.DEFAULT_INTERVAL);
+            int rewindBudget = getIntent().getIntExtra(DebugOptions.REWIND_BUDGET, RewindBuffer.DEFAULT_BUDGET / 1024);
+
+            if (rewindInterval <= 0) {
+                Log.w(TAG, String.format("Invalid rewind interval %d, using %d.", rewindInterval, RewindBuffer.DEFAULT_INTERVAL));
+                rewindInterval = RewindBuffer.DEFAULT_INTERVAL;
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Could not load level!", e);
+
+            if (rewindBudget <= 0) {
+                Log.w(TAG, String.format("Invalid rewind budget %d, using %d.", rewindBudget, RewindBuffer.DEFAULT_BUDGET / 1024));
+                rewindBudget = RewindBuffer.DEFAULT_BUDGET / 1024;
+            }
+
+            mRewindTicks = rewindSeconds * GameEngine.TARGET_FRAME_RATE;
+            mRewindBuffer = new RewindBuffer(mGameEngine, mGameManager, levelName, rewindInterval, rewindBudget * 1024);
         }
+
+        mLevelLoader.load(levelName, this);
     }
 
     @Override
     public void onResume() {
         super.onStart();
+        mResumed = true;
 
-        mGameEngine.start();
-        view_tower_defense.start();
+        if (mLevelLoaded) {
+            startGame();
+        }
     }
 
     @Override
     public void onPause() {
         super.onStop();
+        mResumed = false;
 
-        view_tower_defense.stop();
-        mGameEngine.stop();
+        if (mLevelLoaded) {
+            view_tower_defense.stop();
+            mGameEngine.stop();
+
+            if (mSaveSnapshotFile != null) {
+                saveGame(mSaveSnapshotFile);
+            }
+        }
+
+        if (mRecordFileName != null && mGameManager.getRecording() != null) {
+            writeReplay(mRecordFileName, mGameManager.getRecording());
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mLevelLoader.cancel();
+        mGameEngine.setTileCompositor(null);
+
+        if (mRewindBuffer != null) {
+            mRewindBuffer.release();
+        }
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        // rewinding is bound to the volume key, it is only meant for testing
+        if (mRewindBuffer != null && mLevelLoaded && keyCode == KeyEvent.KEYCODE_VOLUME_DOWN) {
+            rewind();
+            return true;
+        }
+
+        return super.onKeyDown(keyCode, event);
+    }
+
+    private void startGame() {
+        mGameEngine.start();
+        view_tower_defense.start();
+    }
+
+    private void rewind() {
+        if (mResumed) {
+            view_tower_defense.stop();
+            mGameEngine.stop();
+        }
+
+        mRewindBuffer.rewind(mRewindTicks);
+
+        if (mResumed) {
+            startGame();
+        }
+    }
+
+    private Replay readReplay(String fileName) {
+        try (InputStream inStream = new FileInputStream(new File(getFilesDir(), fileName))) {
+            return Replay.read(inStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read replay!", e);
+        }
+    }
+
+    private void writeReplay(String fileName, Replay replay) {
+        try (OutputStream outStream = new FileOutputStream(new File(getFilesDir(), fileName))) {
+            replay.write(outStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write replay!", e);
+        }
+    }
+
+    private File getSaveFile(String levelName) {
+        // levels/level_1.bin is saved to level_1.snapshot
+        String name = new File(levelName).getName();
+        int extension = name.lastIndexOf('.');
+        return new File(getFilesDir(), (extension > 0 ? name.substring(0, extension) : name) + SNAPSHOT_EXTENSION);
+    }
+
+    private byte[] readSnapshot(File file) throws IOException {
+        try (InputStream inStream = new FileInputStream(file)) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+
+            while ((count = inStream.read(buffer)) > 0) {
+                data.write(buffer, 0, count);
+            }
+
+            return data.toByteArray();
+        }
+    }
+
+    private void saveGame(File file) {
+        // a finished game is not continued
+        if (mGameManager.isGameOver()) {
+            file.delete();
+            return;
+        }
+
+        // written next to the file first, so a failed write keeps the previous save
+        File tempFile = new File(file.getPath() + ".tmp");
+
+        try (OutputStream outStream = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+            new GameSnapshot(mGameEngine, mGameManager).write(outStream, mLevelName);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save game!", e);
+            tempFile.delete();
+            return;
+        }
+
+        if (!tempFile.renameTo(file)) {
+            Log.w(TAG, "Could not replace saved game!");
+            tempFile.delete();
+        }
+    }
+
+    private void restoreSnapshot(Level level) {
+        try {
+            new GameSnapshot(mGameEngine, mGameManager).read(new ByteArrayInputStream(mSnapshot), level);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not restore saved game, starting the level anew.", e);
+            mGameManager.setLevel(level);
+        }
+    }
+
+    private void runBenchmarks(Level level) {
+        if (getIntent().getBooleanExtra(DebugOptions.RENDER_BENCHMARK, false)) {
+            RenderBenchmark.run(mSpriteFactory, BENCHMARK_SPRITE_COUNT, BENCHMARK_FRAME_COUNT);
+        }
+
+        if (getIntent().getBooleanExtra(DebugOptions.ENEMY_BENCHMARK, false)) {
+            EnemyBenchmark.run(mGameEngine, mGameManager, level, BENCHMARK_ENEMY_COUNTS, BENCHMARK_TICK_COUNT);
+        }
+
+        if (getIntent().getBooleanExtra(DebugOptions.SPAWN_BENCHMARK, false)) {
+            mGameManager.setLevel(level);
+            SpawnBenchmark.run(level, BENCHMARK_SPAWN_COUNT, BENCHMARK_SPAWN_RUNS);
+        }
+
+        if (getIntent().getBooleanExtra(DebugOptions.SNAPSHOT_BENCHMARK, false)) {
+            SnapshotBenchmark.run(mGameEngine, mGameManager, level, mLevelName,
+                    BENCHMARK_ENEMY_COUNT, BENCHMARK_SNAPSHOT_COUNT);
+        }
+    }
+
+    private void playReplay(Level level) {
+        if (mChecksumFileName != null) {
+            verifyReplay(level);
+        } else {
+            new ReplayPlayer(mGameEngine, mGameManager).play(mReplay, level, new NullBackend());
+        }
+    }
+
+    private void verifyReplay(Level level) {
+        ReplayVerifier verifier = new ReplayVerifier(mGameEngine, mGameManager);
+        File file = new File(getFilesDir(), mChecksumFileName);
+
+        // the first run takes the reference, later runs compare against it
+        try {
+            if (file.exists()) {
+                try (InputStream inStream = new FileInputStream(file)) {
+                    verifier.verify(mReplay, level, ChecksumTrace.read(inStream));
+                }
+            } else {
+                ChecksumTrace trace = verifier.trace(mReplay, level);
+
+                try (OutputStream outStream = new FileOutputStream(file)) {
+                    trace.write(outStream);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not access checksum trace!", e);
+        }
+    }
+
+    private void startLevel(Level level) {
+        // a played replay has already set up the level
+        if (mReplay == null && mSnapshot != null) {
+            restoreSnapshot(level);
+        } else if (mReplay == null) {
+            mGameManager.setLevel(level);
+        }
+
+        onLevelReady();
+    }
+
+    private void onLevelReady() {
+        view_loading_progress.setVisibility(View.GONE);
+        mLevelLoaded = true;
+
+        if (mResumed) {
+            startGame();
+        }
+    }
+
+    /*
+    ------ LevelLoader.Listener Implementation ------
+     */
+
+    @Override
+    public void onLoadProgress(LevelLoader loader, int done, int total) {
+        view_loading_progress.setMax(total);
+        view_loading_progress.setProgress(done);
+    }
+
+    @Override
+    public void onLoadFinished(LevelLoader loader, final Level level) {
+        // benchmarks and replays run for seconds and must not block the UI thread
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runBenchmarks(level);
+
+                if (mReplay != null) {
+                    // the game continues from where the replay ends
+                    playReplay(level);
+                }
+
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        startLevel(level);
+                    }
+                });
+            }
+        }).start();
+    }
+
+    @Override
+    public void onLoadFailed(LevelLoader loader, Exception e) {
+        throw new RuntimeException("Could not load level!", e);
     }
 }
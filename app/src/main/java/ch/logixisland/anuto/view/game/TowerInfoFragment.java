@@ -218,8 +218,7 @@ public class TowerInfoFragment extends Fragment implements
         if (mTower != null) {
             view_tower.setTower(null);
 
-            mTower.sell();
-            mTower.remove();
+            mGameManager.sellTower(mTower);
             mTower = null;
 
             mGameManager.hideTowerInfo();
@@ -228,7 +227,7 @@ public class TowerInfoFragment extends Fragment implements
 
     private void onUpgradeClicked() {
         if (mTower != null && mTower.isUpgradeable()) {
-            mTower = mTower.upgrade();
+            mTower = mGameManager.upgradeTower(mTower);
             mGameManager.setSelectedTower(mTower);
             mGameManager.showTowerInfo(mTower);
         }
@@ -236,7 +235,7 @@ public class TowerInfoFragment extends Fragment implements
 
     private void onEnhanceClicked() {
         if (mTower != null && mTower.isEnhanceable()) {
-            mTower.enhance();
+            mGameManager.enhanceTower(mTower);
             refresh();
         }
     }
@@ -244,7 +243,7 @@ public class TowerInfoFragment extends Fragment implements
     private void onLockTargetClicked() {
         if (mTower != null && mTower instanceof AimingTower) {
             AimingTower t = (AimingTower) mTower;
-            t.setLockOnTarget(!t.doesLockOnTarget());
+            mGameManager.setTowerLockTarget(t, !t.doesLockOnTarget());
 
             refresh();
         }
@@ -258,7 +257,7 @@ public class TowerInfoFragment extends Fragment implements
             if (index >= values.size()) {
                 index = 0;
             }
-            t.setStrategy(values.get(index));
+            mGameManager.setTowerStrategy(t, values.get(index));
 
             refresh();
         }
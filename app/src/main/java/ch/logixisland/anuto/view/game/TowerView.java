@@ -3,6 +3,7 @@ package ch.logixisland.anuto.view.game;
 import android.content.ClipData;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Matrix;
@@ -12,11 +13,19 @@ import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 import ch.logixisland.anuto.AnutoApplication;
 import ch.logixisland.anuto.R;
 import ch.logixisland.anuto.game.GameFactory;
 import ch.logixisland.anuto.game.business.GameManager;
+import ch.logixisland.anuto.game.entity.EntityRegistry;
 import ch.logixisland.anuto.game.entity.tower.Tower;
+import ch.logixisland.anuto.game.render.BitmapCache;
+import ch.logixisland.anuto.game.render.CanvasBackend;
+import ch.logixisland.anuto.game.render.RenderBuffer;
 import ch.logixisland.anuto.game.theme.ThemeManager;
 
 public class TowerView extends View implements View.OnTouchListener {
@@ -25,6 +34,7 @@ public class TowerView extends View implements View.OnTouchListener {
 
     private final ThemeManager mThemeManager;
     private final GameManager mGameManager;
+    private final BitmapCache mBitmapCache;
 
     private Tower mTower;
     private Class<? extends Tower> mTowerClass;
@@ -33,6 +43,11 @@ public class TowerView extends View implements View.OnTouchListener {
 
     private final Paint mPaintText;
     private final Matrix mScreenMatrix;
+    private final RenderBuffer mRenderBuffer = new RenderBuffer();
+    private final CanvasBackend mCanvasBackend = new CanvasBackend();
+
+    private Set<Bitmap> mHeldPages = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+    private Set<Bitmap> mRecordedPages = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
 
     private GameManager.Listener mCreditsListener = new GameManager.OnCreditsChangedListener() {
         @Override
@@ -54,6 +69,7 @@ public class TowerView extends View implements View.OnTouchListener {
 
         GameFactory factory = AnutoApplication.getInstance().getGameFactory();
         mThemeManager = factory.getThemeManager();
+        mBitmapCache = factory.getSpriteFactory().getCache();
 
         if (!isInEditMode()) {
             mGameManager = factory.getGameManager();
@@ -107,7 +123,11 @@ public class TowerView extends View implements View.OnTouchListener {
             canvas.save();
             canvas.concat(mScreenMatrix);
             canvas.translate(-mTower.getPosition().x, -mTower.getPosition().y);
-            mTower.preview(canvas);
+
+            recordPreview();
+            mCanvasBackend.begin(canvas);
+            mRenderBuffer.replay(mCanvasBackend);
+            mCanvasBackend.end();
             canvas.restore();
 
             if (isEnabled()) {
@@ -164,22 +184,61 @@ public class TowerView extends View implements View.OnTouchListener {
 
     public void setTower(Tower tower) {
         mTower = tower;
+
+        if (mTower != null) {
+            recordPreview();
+        } else {
+            mRenderBuffer.clear();
+            holdPages();
+        }
+
         this.postInvalidate();
     }
 
 
     public void close() {
         mGameManager.removeListener(mCreditsListener);
+        setTower(null);
     }
 
 
-    private Tower newTower() {
-        try {
-            return mTowerClass.getConstructor().newInstance();
-        } catch (NoSuchMethodException e) {
-            throw new NoSuchMethodError("Class " + mTowerClass.getName() + " has no default constructor!");
-        } catch (Exception e) {
-            throw new RuntimeException("Could not instantiate object!", e);
+    private void recordPreview() {
+        mRenderBuffer.clear();
+        mTower.preview(mRenderBuffer);
+        holdPages();
+    }
+
+    /**
+     * Holds the atlas pages of the recorded preview and gives back the ones it no longer draws
+     * from. Restarting the game releases the templates of the preview tower, which would let the
+     * cache recycle the pages while the preview is still drawn.
+     */
+    private void holdPages() {
+        mRecordedPages.clear();
+        mRenderBuffer.getPages(mRecordedPages);
+
+        for (Bitmap page : mRecordedPages) {
+            if (!mHeldPages.contains(page)) {
+                mBitmapCache.holdPage(page);
+            }
+        }
+
+        for (Bitmap page : mHeldPages) {
+            if (!mRecordedPages.contains(page)) {
+                mBitmapCache.releasePage(page);
+            }
         }
+
+        Set<Bitmap> held = mHeldPages;
+        mHeldPages = mRecordedPages;
+        mRecordedPages = held;
+    }
+
+
+    private Tower newTower() {
+        // the tower is only a preview, it is added to the game while dragged but never built
+        Tower tower = EntityRegistry.getFactory(mTowerClass).create();
+        tower.detachRandom();
+        return tower;
     }
 }
@@ -0,0 +1,133 @@
+package ch.logixisland.anuto.game.data;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ch.logixisland.anuto.game.entity.EntityRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Loads every level once from its XML and once from the binary file compiled by the compileLevels
+ * task and compares all fields of the two, so a change to the binary layout on one side only
+ * fails the build.
+ */
+public class LevelFormatTest {
+
+    private static final File XML_DIR = new File("src/main/res/raw");
+    private static final File BINARY_DIR = new File("build/generated/assets/levels/levels");
+
+    @Test
+    public void binaryLevelsMatchXml() throws Exception {
+        File[] sources = XML_DIR.listFiles();
+        int count = 0;
+
+        assertTrue("No level sources found!", sources != null);
+
+        for (File source : sources) {
+            if (!source.getName().matches("level_.*\\.xml")) {
+                continue;
+            }
+
+            File binary = new File(BINARY_DIR, source.getName().replace(".xml", ".bin"));
+            assertTrue(binary + " was not compiled!", binary.exists());
+
+            Level xmlLevel;
+            Level binaryLevel;
+
+            try (InputStream inStream = new FileInputStream(source)) {
+                xmlLevel = Level.deserialize(inStream);
+            }
+
+            try (InputStream inStream = new FileInputStream(binary)) {
+                binaryLevel = Level.read(inStream);
+            }
+
+            Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+            assertSame(source.getName(), xmlLevel, binaryLevel, visited);
+            count++;
+        }
+
+        assertTrue("No levels found!", count > 0);
+    }
+
+    private static void assertSame(String path, Object expected, Object actual, Set<Object> visited)
+            throws IllegalAccessException {
+        if (expected == null || actual == null) {
+            assertEquals(path, expected, actual);
+            return;
+        }
+
+        assertEquals(path, expected.getClass(), actual.getClass());
+
+        if (expected instanceof List) {
+            List<?> expectedList = (List<?>)expected;
+            List<?> actualList = (List<?>)actual;
+            assertEquals(path + ".size", expectedList.size(), actualList.size());
+
+            for (int i = 0; i < expectedList.size(); i++) {
+                assertSame(path + "[" + i + "]", expectedList.get(i), actualList.get(i), visited);
+            }
+        } else if (expected instanceof Map) {
+            Map<?, ?> expectedMap = (Map<?, ?>)expected;
+            Map<?, ?> actualMap = (Map<?, ?>)actual;
+            assertEquals(path + ".keys", expectedMap.keySet(), actualMap.keySet());
+
+            for (Object key : expectedMap.keySet()) {
+                assertSame(path + "[" + key + "]", expectedMap.get(key), actualMap.get(key), visited);
+            }
+        } else if (expected instanceof Class || expected instanceof Number
+                || expected instanceof String || expected instanceof Boolean) {
+            assertEquals(path, expected, actual);
+        } else if (expected instanceof Iterable) {
+            Iterator<?> expectedIt = ((Iterable<?>)expected).iterator();
+            Iterator<?> actualIt = ((Iterable<?>)actual).iterator();
+
+            while (expectedIt.hasNext()) {
+                assertTrue(path, actualIt.hasNext());
+                assertSame(path, expectedIt.next(), actualIt.next(), visited);
+            }
+
+            assertTrue(path, !actualIt.hasNext());
+        } else if (expected instanceof float[]) {
+            assertTrue(path, Arrays.equals((float[])expected, (float[])actual));
+        } else if (expected instanceof Object[]) {
+            assertSame(path, Arrays.asList((Object[])expected), Arrays.asList((Object[])actual), visited);
+        } else if (expected instanceof EntityRegistry.Factory) {
+            assertEquals(path, ((EntityRegistry.Factory<?>)expected).getEntityClass(),
+                    ((EntityRegistry.Factory<?>)actual).getEntityClass());
+        } else if (!expected.getClass().getName().startsWith("ch.logixisland.anuto.")) {
+            fail(path + ": cannot compare " + expected.getClass().getName());
+        } else if (visited.add(expected)) {
+            assertFields(path, expected, actual, visited);
+        }
+    }
+
+    private static void assertFields(String path, Object expected, Object actual, Set<Object> visited)
+            throws IllegalAccessException {
+        for (Class<?> c = expected.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                assertSame(path + "." + field.getName(), field.get(expected), field.get(actual), visited);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ch.logixisland.anuto.game.replay;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ReplayTest {
+
+    @Test
+    public void replayRoundTrip() throws IOException {
+        Replay replay = new Replay("level_1", 0x123456789ABCDEFL, 2, true);
+        replay.add(0, Replay.BUILD_TOWER, 3, 17);
+        replay.add(0, Replay.START_NEXT_WAVE, 0, 0);
+        replay.add(45, Replay.SET_STRATEGY, 17, 1);
+        replay.add(300, Replay.UPGRADE_TOWER, 17, 0);
+        replay.add(20000, Replay.SELL_TOWER, 17, 0);
+        replay.setTickCount(25000);
+
+        byte[] bytes = write(replay);
+        Replay restored = Replay.read(new ByteArrayInputStream(bytes));
+
+        assertEquals(replay.getLevelName(), restored.getLevelName());
+        assertEquals(replay.getSeed(), restored.getSeed());
+        assertEquals(replay.getTimestamp(), restored.getTimestamp());
+        assertEquals(replay.getDefaultStrategy(), restored.getDefaultStrategy());
+        assertEquals(replay.getDefaultLockTarget(), restored.getDefaultLockTarget());
+        assertEquals(replay.getTickCount(), restored.getTickCount());
+        assertEquals(replay.size(), restored.size());
+
+        for (int i = 0; i < replay.size(); i++) {
+            assertEquals("tick " + i, replay.getTick(i), restored.getTick(i));
+            assertEquals("command " + i, replay.getCommand(i), restored.getCommand(i));
+            assertEquals("arg0 " + i, replay.getArg(i, 0), restored.getArg(i, 0));
+            assertEquals("arg1 " + i, replay.getArg(i, 1), restored.getArg(i, 1));
+        }
+
+        assertArrayEquals(bytes, write(restored));
+    }
+
+    @Test
+    public void replayGrowsBeyondInitialCapacity() throws IOException {
+        Replay replay = new Replay("level_2", 1, 0, false);
+
+        for (int i = 0; i < 1000; i++) {
+            replay.add(i * 3, Replay.ENHANCE_TOWER, i % 40, 0);
+        }
+
+        Replay restored = Replay.read(new ByteArrayInputStream(write(replay)));
+
+        assertEquals(1000, restored.size());
+        assertEquals(999 * 3, restored.getTick(999));
+        assertEquals(999 % 40, restored.getArg(999, 0));
+    }
+
+    @Test
+    public void replayRejectsOtherFiles() {
+        try {
+            Replay.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+            fail("Read a file that is not a replay!");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void checksumTraceRoundTrip() throws IOException {
+        ChecksumTrace trace = new ChecksumTrace(2);
+
+        for (int i = 0; i < 100; i++) {
+            trace.add(i * 0x9E3779B97F4A7C15L);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        trace.write(bytes);
+        ChecksumTrace restored = ChecksumTrace.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(trace.size(), restored.size());
+
+        for (int tick = 1; tick <= trace.size(); tick++) {
+            assertEquals("tick " + tick, trace.get(tick), restored.get(tick));
+        }
+
+        assertEquals(-1, trace.findDivergence(restored));
+    }
+
+    @Test
+    public void checksumTraceFindsDivergence() {
+        ChecksumTrace trace = new ChecksumTrace(4);
+        ChecksumTrace other = new ChecksumTrace(4);
+
+        for (int i = 0; i < 10; i++) {
+            trace.add(i);
+            other.add(i < 6 ? i : -i);
+        }
+
+        assertEquals(7, trace.findDivergence(other));
+
+        ChecksumTrace shorter = new ChecksumTrace(4);
+
+        for (int i = 0; i < 5; i++) {
+            shorter.add(i);
+        }
+
+        assertEquals(6, trace.findDivergence(shorter));
+        assertEquals(6, shorter.findDivergence(trace));
+    }
+
+    @Test
+    public void checksumTraceRejectsOtherFiles() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Replay("level_1", 1, 0, false).write(bytes);
+
+        try {
+            ChecksumTrace.read(new ByteArrayInputStream(bytes.toByteArray()));
+            fail("Read a replay as checksum trace!");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static byte[] write(Replay replay) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        replay.write(bytes);
+        return bytes.toByteArray();
+    }
+}
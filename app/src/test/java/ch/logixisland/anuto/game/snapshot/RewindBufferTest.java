@@ -0,0 +1,115 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Encodes enemy records the way they are written to rewind frames, sorted by id with the slot in
+ * the second word, and checks that the difference stays small when enemies come and go.
+ */
+public class RewindBufferTest {
+
+    private static final int RECORD_SIZE = 68;
+    private static final int COUNT = 50;
+
+    @Test
+    public void removedEnemyCostsNoRecord() throws IOException {
+        ByteBuffer base = createRecords(COUNT);
+
+        // the last enemy is moved to the slot of the removed one
+        ByteBuffer frame = ByteBuffer.allocate((COUNT - 1) * RECORD_SIZE);
+
+        for (int id = 0; id < COUNT; id++) {
+            if (id != 10) {
+                frame.put(base.array(), id * RECORD_SIZE, RECORD_SIZE);
+            }
+        }
+
+        frame.putInt((COUNT - 2) * RECORD_SIZE + 4, 10);
+
+        byte[] delta = encode(frame.array(), base.array());
+
+        assertTrue("delta of " + delta.length + " bytes", delta.length < 16);
+        assertArrayEquals(frame.array(), decode(delta, base.array()));
+    }
+
+    @Test
+    public void spawnedEnemyCostsOneRecord() throws IOException {
+        ByteBuffer base = createRecords(COUNT);
+        ByteBuffer frame = createRecords(COUNT + 1);
+
+        byte[] delta = encode(frame.array(), base.array());
+
+        assertTrue("delta of " + delta.length + " bytes", delta.length < RECORD_SIZE + 16);
+        assertArrayEquals(frame.array(), decode(delta, base.array()));
+    }
+
+    @Test
+    public void movedEnemiesCostTheirChangedWords() throws IOException {
+        ByteBuffer base = createRecords(COUNT);
+        ByteBuffer frame = createRecords(COUNT);
+
+        // the position of every enemy changes, and one of them is gone
+        for (int i = 0; i < COUNT; i++) {
+            frame.putFloat(i * RECORD_SIZE + 16, i + 0.5f);
+            frame.putFloat(i * RECORD_SIZE + 20, -i - 0.5f);
+        }
+
+        byte[] records = new byte[(COUNT - 1) * RECORD_SIZE];
+        System.arraycopy(frame.array(), RECORD_SIZE, records, 0, records.length);
+
+        byte[] delta = encode(records, base.array());
+
+        assertTrue("delta of " + delta.length + " bytes", delta.length < (COUNT - 1) * 16);
+        assertArrayEquals(records, decode(delta, base.array()));
+    }
+
+    @Test
+    public void sameRecordsCostNothing() throws IOException {
+        byte[] records = createRecords(COUNT).array();
+        byte[] delta = encode(records, records);
+
+        // the record count and a single run
+        assertEquals(3, delta.length);
+        assertArrayEquals(records, decode(delta, records));
+    }
+
+    private static ByteBuffer createRecords(int count) {
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE);
+
+        for (int id = 0; id < count; id++) {
+            records.putInt(id);
+            records.putInt(id);
+            records.putInt(id % 3);
+
+            for (int word = 3; word < RECORD_SIZE / 4; word++) {
+                records.putFloat(id * 100 + word);
+            }
+        }
+
+        return records;
+    }
+
+    private static byte[] encode(byte[] records, byte[] base) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RewindBuffer.encodeRecords(new DataOutputStream(bytes), records, records.length, base, base.length, RECORD_SIZE);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] decode(byte[] delta, byte[] base) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(delta));
+        byte[] records = RewindBuffer.decodeRecords(in, base, RECORD_SIZE);
+        assertEquals("trailing bytes", 0, in.available());
+        return records;
+    }
+}
@@ -0,0 +1,201 @@
+package ch.logixisland.anuto.game.snapshot;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ch.logixisland.anuto.game.entity.Entity;
+import ch.logixisland.anuto.game.entity.Types;
+import ch.logixisland.anuto.util.math.vector.Vector2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Writes the state of a few entities that refer to each other, reads it into new entities and
+ * writes those again. Both snapshots have to be the same byte for byte, or restoring a game would
+ * not continue it the same way.
+ */
+public class SnapshotStreamTest {
+
+    private static class TestEntity extends Entity {
+        TestEntity mTarget;
+        List<TestEntity> mFollowers = new ArrayList<>();
+        int mHealth;
+
+        @Override
+        public int getType() {
+            return Types.ENEMY;
+        }
+
+        @Override
+        public void writeState(SnapshotWriter out) throws IOException {
+            super.writeState(out);
+            out.writeEntity(mTarget);
+            out.writeEntities(mFollowers);
+            out.writeVarInt(mHealth);
+        }
+
+        @Override
+        public void readState(SnapshotReader in) throws IOException {
+            super.readState(in);
+            mTarget = in.readEntity(TestEntity.class);
+            mFollowers = in.readEntities(TestEntity.class);
+            mHealth = in.readVarInt();
+        }
+    }
+
+    @Test
+    public void writeReadWriteIsByteEqual() throws IOException {
+        List<TestEntity> entities = createEntities();
+        byte[] first = write(entities);
+
+        List<TestEntity> restored = read(first, entities.size());
+        byte[] second = write(restored);
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void referencesAreRestored() throws IOException {
+        List<TestEntity> entities = createEntities();
+        List<TestEntity> restored = read(write(entities), entities.size());
+
+        assertSame(restored.get(1), restored.get(0).mTarget);
+        assertNull(restored.get(1).mTarget);
+        assertEquals(Arrays.asList(restored.get(0), restored.get(1)), restored.get(2).mFollowers);
+        assertEquals(entities.get(2).getPosition(), restored.get(2).getPosition());
+        assertEquals(entities.get(1).getTickPhase(), restored.get(1).getTickPhase());
+        assertEquals(entities.get(1).isEnabled(), restored.get(1).isEnabled());
+        assertEquals(entities.get(2).mHealth, restored.get(2).mHealth);
+    }
+
+    @Test
+    public void entitiesOutsideTheSnapshotAreWrittenAsNull() throws IOException {
+        List<TestEntity> entities = createEntities();
+        TestEntity outside = new TestEntity();
+        entities.get(1).mTarget = outside;
+        entities.get(2).mFollowers.add(outside);
+
+        List<TestEntity> restored = read(write(entities), entities.size());
+
+        assertNull(restored.get(1).mTarget);
+        assertEquals(2, restored.get(2).mFollowers.size());
+    }
+
+    @Test
+    public void resetWriterWritesSameBytes() throws IOException {
+        List<TestEntity> entities = createEntities();
+        SnapshotWriter out = new SnapshotWriter(null);
+        byte[][] snapshots = new byte[2][];
+
+        for (int i = 0; i < snapshots.length; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            out.reset(bytes);
+
+            for (Entity e : entities) {
+                out.register(e);
+            }
+
+            for (Entity e : entities) {
+                e.writeState(out);
+            }
+
+            out.flush();
+            assertEquals(bytes.size(), out.size());
+            snapshots[i] = bytes.toByteArray();
+        }
+
+        assertArrayEquals(write(entities), snapshots[0]);
+        assertArrayEquals(snapshots[0], snapshots[1]);
+    }
+
+    @Test
+    public void forwardReferencesAreRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SnapshotWriter out = new SnapshotWriter(bytes);
+        TestEntity entity = new TestEntity();
+        out.register(entity);
+        out.register(new TestEntity());
+        out.writeEntity(entity);
+        out.writeVarInt(2);
+        out.flush();
+
+        SnapshotReader in = new SnapshotReader(new ByteArrayInputStream(bytes.toByteArray()));
+        in.setEntityCount(2);
+        in.register(new TestEntity());
+        in.readEntity(TestEntity.class);
+
+        try {
+            in.readEntity(TestEntity.class);
+            fail("Read a reference to an entity that was not created yet!");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static List<TestEntity> createEntities() {
+        List<TestEntity> entities = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            TestEntity entity = new TestEntity();
+            entity.setPosition(new Vector2(i * 1.5f, -i * 0.25f));
+            entity.mHealth = 100 * i + 7;
+            entities.add(entity);
+        }
+
+        // the first entity has no generator, the second one has drawn its tick phase
+        entities.get(1).detachRandom();
+        entities.get(1).getTickPhase();
+        entities.get(1).setEnabled(false);
+        entities.get(2).detachRandom();
+
+        entities.get(0).mTarget = entities.get(1);
+        entities.get(2).mFollowers.add(entities.get(0));
+        entities.get(2).mFollowers.add(entities.get(1));
+        return entities;
+    }
+
+    private static byte[] write(List<TestEntity> entities) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SnapshotWriter out = new SnapshotWriter(bytes);
+
+        for (Entity e : entities) {
+            out.register(e);
+        }
+
+        for (Entity e : entities) {
+            e.writeState(out);
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<TestEntity> read(byte[] bytes, int count) throws IOException {
+        SnapshotReader in = new SnapshotReader(new ByteArrayInputStream(bytes));
+        List<TestEntity> entities = new ArrayList<>();
+        in.setEntityCount(count);
+
+        for (int i = 0; i < count; i++) {
+            TestEntity e = new TestEntity();
+            in.register(e);
+            entities.add(e);
+        }
+
+        for (Entity e : entities) {
+            e.readState(in);
+        }
+
+        assertEquals("trailing bytes", 0, in.available());
+        return entities;
+    }
+}
@@ -0,0 +1,127 @@
+package ch.logixisland.anuto.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RandomTest {
+
+    private static final int COUNT = 1000;
+
+    @Test
+    public void sameSeedGivesSameSequence() {
+        assertArrayEquals(draw(new Random(42), COUNT), draw(new Random(42), COUNT));
+    }
+
+    @Test
+    public void otherSeedGivesOtherSequence() {
+        assertFalse(Arrays.equals(draw(new Random(42), COUNT), draw(new Random(43), COUNT)));
+    }
+
+    @Test
+    public void splitIsDeterministic() {
+        Random a = new Random(7);
+        Random b = new Random(7);
+
+        Random splitA = a.split();
+        Random splitB = b.split();
+
+        assertArrayEquals(draw(splitA, COUNT), draw(splitB, COUNT));
+        assertArrayEquals(draw(a, COUNT), draw(b, COUNT));
+    }
+
+    @Test
+    public void splitDoesNotRepeatParent() {
+        Random parent = new Random(7);
+        Random child = parent.split();
+
+        assertFalse(Arrays.equals(draw(parent, COUNT), draw(child, COUNT)));
+    }
+
+    @Test
+    public void drawingFromSplitDoesNotChangeParent() {
+        Random a = new Random(11);
+        Random b = new Random(11);
+
+        Random child = a.split();
+        b.split();
+        draw(child, COUNT);
+
+        assertArrayEquals(draw(a, COUNT), draw(b, COUNT));
+    }
+
+    @Test
+    public void valuesStayInRange() {
+        Random random = new Random(3);
+
+        for (int i = 0; i < COUNT; i++) {
+            int value = random.next(10);
+            assertTrue("int " + value, value >= 0 && value < 10);
+
+            value = random.next(-5, 5);
+            assertTrue("int range " + value, value >= -5 && value < 5);
+
+            float f = random.next(2f);
+            assertTrue("float " + f, f >= 0f && f < 2f);
+        }
+    }
+
+    @Test
+    public void powerOfTwoBoundsStayInRange() {
+        Random random = new Random(5);
+
+        for (int i = 0; i < COUNT; i++) {
+            int value = random.next(16);
+            assertTrue("int " + value, value >= 0 && value < 16);
+        }
+    }
+
+    @Test
+    public void nonPositiveBoundIsRejected() {
+        Random random = new Random(1);
+
+        for (int bound : new int[] {0, -1, Integer.MIN_VALUE}) {
+            try {
+                random.next(bound);
+                fail("Accepted bound " + bound + "!");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void writtenStateContinuesSequence() throws IOException {
+        Random random = new Random(99);
+        draw(random, 10);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        random.write(new DataOutputStream(bytes));
+        Random restored = Random.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(16, bytes.size());
+        assertArrayEquals(draw(random.split(), COUNT), draw(restored.split(), COUNT));
+        assertArrayEquals(draw(random, COUNT), draw(restored, COUNT));
+    }
+
+    private static int[] draw(Random random, int count) {
+        int[] values = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = random.next(1000);
+        }
+
+        return values;
+    }
+}
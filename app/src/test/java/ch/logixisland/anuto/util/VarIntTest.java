@@ -0,0 +1,68 @@
+package ch.logixisland.anuto.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class VarIntTest {
+
+    private static final int[] VALUES = {0, 1, 63, 64, 127, 128, 300, 16383, 16384,
+            1 << 21, (1 << 28) - 1, 1 << 28, Integer.MAX_VALUE, -1, -64, -65, Integer.MIN_VALUE};
+
+    @Test
+    public void unsignedRoundTrip() throws IOException {
+        for (int value : VALUES) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VarInt.writeUnsigned(new DataOutputStream(bytes), value);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            assertEquals("value " + value, value, VarInt.readUnsigned(in));
+            assertEquals("trailing bytes after " + value, 0, in.available());
+        }
+    }
+
+    @Test
+    public void signedRoundTrip() throws IOException {
+        for (int value : VALUES) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VarInt.writeSigned(new DataOutputStream(bytes), value);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            assertEquals("value " + value, value, VarInt.readSigned(in));
+            assertEquals("trailing bytes after " + value, 0, in.available());
+        }
+    }
+
+    @Test
+    public void smallValuesTakeOneByte() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        VarInt.writeUnsigned(out, 127);
+        VarInt.writeSigned(out, -64);
+        VarInt.writeSigned(out, 63);
+        assertEquals(3, bytes.size());
+
+        VarInt.writeUnsigned(out, 128);
+        assertEquals(5, bytes.size());
+    }
+
+    @Test
+    public void malformedValueIsRejected() {
+        byte[] bytes = {(byte)0x80, (byte)0x80, (byte)0x80, (byte)0x80, (byte)0x80, 0x01};
+
+        try {
+            VarInt.readUnsigned(new DataInputStream(new ByteArrayInputStream(bytes)));
+            fail("Read a value of more than five bytes!");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}